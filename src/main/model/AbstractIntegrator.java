@@ -0,0 +1,50 @@
+package model;
+
+// Represents an integrator built out of kicks (velocity updates) and drifts (position updates) over the particle
+// store columns, each of which is split across the executor's threads
+public abstract class AbstractIntegrator implements Integrator {
+
+    // MODIFIES: store
+    // EFFECTS: adds acceleration * deltaTime to the velocity of every planet
+    protected static void kick(ParticleStore store, float deltaTime, ParallelExecutor executor) {
+        executor.forEachRange(store.getSize(), (from, to) -> kickRange(store, from, to, deltaTime));
+    }
+
+    // MODIFIES: store
+    // EFFECTS: adds velocity * deltaTime to the position of every planet
+    protected static void drift(ParticleStore store, float deltaTime, ParallelExecutor executor) {
+        executor.forEachRange(store.getSize(), (from, to) -> driftRange(store, from, to, deltaTime));
+    }
+
+    // MODIFIES: store
+    // EFFECTS: adds acceleration * deltaTime to the velocity of the planets in [from, to)
+    private static void kickRange(ParticleStore store, int from, int to, float deltaTime) {
+        float[] velX = store.getVelocityX();
+        float[] velY = store.getVelocityY();
+        float[] velZ = store.getVelocityZ();
+        float[] accX = store.getAccelerationX();
+        float[] accY = store.getAccelerationY();
+        float[] accZ = store.getAccelerationZ();
+        for (int i = from; i < to; i++) {
+            velX[i] += accX[i] * deltaTime;
+            velY[i] += accY[i] * deltaTime;
+            velZ[i] += accZ[i] * deltaTime;
+        }
+    }
+
+    // MODIFIES: store
+    // EFFECTS: adds velocity * deltaTime to the position of the planets in [from, to)
+    private static void driftRange(ParticleStore store, int from, int to, float deltaTime) {
+        float[] posX = store.getPositionX();
+        float[] posY = store.getPositionY();
+        float[] posZ = store.getPositionZ();
+        float[] velX = store.getVelocityX();
+        float[] velY = store.getVelocityY();
+        float[] velZ = store.getVelocityZ();
+        for (int i = from; i < to; i++) {
+            posX[i] += velX[i] * deltaTime;
+            posY[i] += velY[i] * deltaTime;
+            posZ[i] += velZ[i] * deltaTime;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package model;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+// Represents a run of a simulation over a fixed number of equal time steps, taken back to back as fast as possible,
+// along with the throughput the run achieved
+public class BatchRun {
+    private final float deltaTime;
+    private final int stepCount;
+    private long elapsedNanoseconds;
+    private double pairInteractions;
+
+    // EFFECTS: creates a run of stepCount steps of deltaTime seconds. throws ArgumentOutOfBoundsException if
+    // deltaTime isn't positive or stepCount is negative
+    public BatchRun(float deltaTime, int stepCount) {
+        if (!(deltaTime > 0.0f)) {
+            throw new ArgumentOutOfBoundsException("deltaTime must be > 0");
+        }
+        if (stepCount < 0) {
+            throw new ArgumentOutOfBoundsException("stepCount must be >= 0");
+        }
+        this.deltaTime = deltaTime;
+        this.stepCount = stepCount;
+        elapsedNanoseconds = 0;
+        pairInteractions = 0.0;
+    }
+
+    // EFFECTS: creates a run with the fewest steps of deltaTime needed for the simulation to reach targetTime, which
+    // may overshoot it by less than one step. throws ArgumentOutOfBoundsException if deltaTime isn't positive
+    public static BatchRun toTargetTime(Simulation simulation, float targetTime, float deltaTime) {
+        if (!(deltaTime > 0.0f)) {
+            throw new ArgumentOutOfBoundsException("deltaTime must be > 0");
+        }
+        double remaining = (double) targetTime - simulation.getTimeElapsed();
+        return new BatchRun(deltaTime, (int) Math.max(0.0, Math.ceil(remaining / deltaTime)));
+    }
+
+    public float getDeltaTime() {
+        return deltaTime;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    // EFFECTS: returns the wall-clock time the last call to run took
+    public double getElapsedSeconds() {
+        return elapsedNanoseconds / 1.0e9;
+    }
+
+    // EFFECTS: returns the number of unique planet pairs summed over every step of the last call to run
+    public double getPairInteractions() {
+        return pairInteractions;
+    }
+
+    // EFFECTS: returns the steps taken per wall-clock second by the last call to run, or 0 if it took no time
+    public double getStepsPerSecond() {
+        return (elapsedNanoseconds == 0) ? 0.0 : stepCount / getElapsedSeconds();
+    }
+
+    // EFFECTS: returns the planet pairs interacted per wall-clock second by the last call to run, or 0 if it took
+    // no time
+    public double getPairsPerSecond() {
+        return (elapsedNanoseconds == 0) ? 0.0 : pairInteractions / getElapsedSeconds();
+    }
+
+    // MODIFIES: simulation, this
+    // EFFECTS: progresses the simulation by every step of the run, merging the planets which collided after each step
+    // the same way the interactive simulator does, and records how long it took
+    public void run(Simulation simulation) {
+        pairInteractions = 0.0;
+        long startNanoseconds = System.nanoTime();
+        for (int step = 0; step < stepCount; step++) {
+            double planetCount = simulation.getPlanets().size();
+            pairInteractions += planetCount * (planetCount - 1.0) / 2.0;
+            simulation.progressBySeconds(deltaTime);
+            simulation.mergeCollidedPlanets();
+        }
+        elapsedNanoseconds = System.nanoTime() - startNanoseconds;
+    }
+}
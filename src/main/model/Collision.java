@@ -55,6 +55,16 @@ public class Collision {
         return other.wasPlanetInvolved(planet1) && other.wasPlanetInvolved(planet2);
     }
 
+    // EFFECTS: returns a hash code consistent with equals, which ignores the order of the planets
+    @Override
+    public int hashCode() {
+        // NOTE:
+        // 0.0f and -0.0f are equal by equals, so they have to hash the same
+        float time = (collisionTime == 0.0f) ? 0.0f : collisionTime;
+        int planetHash = planet1.getId() + planet2.getId();
+        return 31 * planetHash + Float.floatToIntBits(time);
+    }
+
     // EFFECTS: returns a simple string that involves the first letters of each
     // planet involved, and the time in which the collision occoured
     @Override
@@ -0,0 +1,108 @@
+package model;
+
+import java.util.*;
+
+// Represents the collision history of a simulation. collisions are kept in the order they were added, and are
+// also indexed by their unordered pair of planets and time, and by each planet involved, so that checking for a
+// duplicate or finding the collisions of a planet doesn't scan the whole history. the history is append-only, a
+// slot is never written again once it holds a collision, so a prefix of it can be handed out without copying
+public class CollisionRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Collision[] history;
+    private int historySize;
+    private List<Collision> historyView;
+    private Set<Collision> collisionSet;
+    private Map<Planet, List<Collision>> collisionsByPlanet;
+
+    // EFFECTS: creates an empty registry
+    public CollisionRegistry() {
+        history = new Collision[INITIAL_CAPACITY];
+        historySize = 0;
+        historyView = new HistoryView();
+        collisionSet = new HashSet<>();
+        collisionsByPlanet = new IdentityHashMap<>();
+    }
+
+    // EFFECTS: returns a live read-only view of every collision in the order they were added
+    public List<Collision> getCollisions() {
+        return historyView;
+    }
+
+    // EFFECTS: returns a read-only list of the collisions added so far, which later calls to add or clear don't
+    // change. the list shares the history's storage instead of copying it
+    public List<Collision> getCollisionsSoFar() {
+        return Collections.unmodifiableList(Arrays.asList(history).subList(0, historySize));
+    }
+
+    public int size() {
+        return historySize;
+    }
+
+    // EFFECTS: returns whether an equal collision has been added
+    public boolean contains(Collision collision) {
+        return collisionSet.contains(collision);
+    }
+
+    // EFFECTS: returns whether the planet is involved in any collision
+    public boolean wasPlanetInvolved(Planet planet) {
+        return collisionsByPlanet.containsKey(planet);
+    }
+
+    // EFFECTS: returns the collisions the planet is involved in, in the order they were added
+    public List<Collision> getCollisionsInvolving(Planet planet) {
+        List<Collision> involved = collisionsByPlanet.get(planet);
+        if (involved == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(involved);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the collision to the history and indexes it
+    public void add(Collision collision) {
+        // NOTE:
+        // a full history is copied into a new array rather than grown in place, so that the lists handed out by
+        // getCollisionsSoFar keep pointing at an array which is only ever written past their end
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+        }
+        history[historySize++] = collision;
+        collisionSet.add(collision);
+        for (Planet planet : collision.getPlanetsInvolved()) {
+            List<Collision> involved = collisionsByPlanet.get(planet);
+            if (involved == null) {
+                involved = new ArrayList<>();
+                collisionsByPlanet.put(planet, involved);
+            }
+            if (involved.isEmpty() || involved.get(involved.size() - 1) != collision) {
+                involved.add(collision);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every collision
+    public void clear() {
+        history = new Collision[INITIAL_CAPACITY];
+        historySize = 0;
+        collisionSet.clear();
+        collisionsByPlanet.clear();
+    }
+
+    // Represents a live read-only view of the history
+    private class HistoryView extends AbstractList<Collision> {
+        @Override
+        public Collision get(int index) {
+            if (index < 0 || index >= historySize) {
+                throw new IndexOutOfBoundsException("index: " + index + ", size: " + historySize);
+            }
+            return history[index];
+        }
+
+        @Override
+        public int size() {
+            return historySize;
+        }
+    }
+}
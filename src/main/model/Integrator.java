@@ -0,0 +1,21 @@
+package model;
+
+// Represents a scheme which advances the positions and velocities of the planets in a simulation over a time step.
+// implementations hold no per-simulation state, so a single instance may be shared between simulations
+public interface Integrator {
+    // Represents a way to (re-)evaluate the acceleration of every planet at its current position
+    interface ForceEvaluator {
+        // MODIFIES: the particle store being stepped
+        // EFFECTS: writes the acceleration of every planet at its current position into the acceleration columns
+        void computeAccelerations();
+    }
+
+    // EFFECTS: returns the name used to identify the integrator, such as in save files
+    String getName();
+
+    // REQUIRES: the acceleration columns of store hold the accelerations at the current positions, deltaTime >= 0
+    // MODIFIES: store
+    // EFFECTS: advances every planet in store by deltaTime, using forces to evaluate any further accelerations the
+    // scheme needs. returns true if the acceleration columns hold the accelerations at the new positions afterwards
+    boolean step(ParticleStore store, float deltaTime, ForceEvaluator forces, ParallelExecutor executor);
+}
@@ -0,0 +1,26 @@
+package model;
+
+// Represents the second-order symplectic kick-drift-kick leapfrog scheme. its energy error stays bounded rather
+// than drifting, so it can take much larger steps than semi-implicit Euler for the same orbital accuracy, while
+// still evaluating the forces only once per step (the closing kick's accelerations open the next step)
+public class LeapfrogIntegrator extends AbstractIntegrator {
+    public static final String NAME = "Leapfrog";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // MODIFIES: store
+    // EFFECTS: kicks every planet by half of deltaTime, drifts it by deltaTime, re-evaluates the accelerations and
+    // kicks it by the other half of deltaTime
+    @Override
+    public boolean step(ParticleStore store, float deltaTime, ForceEvaluator forces, ParallelExecutor executor) {
+        float halfDeltaTime = deltaTime * 0.5f;
+        kick(store, halfDeltaTime, executor);
+        drift(store, deltaTime, executor);
+        forces.computeAccelerations();
+        kick(store, halfDeltaTime, executor);
+        return true;
+    }
+}
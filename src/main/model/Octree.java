@@ -0,0 +1,315 @@
+package model;
+
+import java.util.*;
+
+// Represents a Barnes-Hut octree built over the planets of a simulation, which is used to approximate the
+// gravitational acceleration on every planet in O(NlogN) rather than O(N^2). Distant clusters of planets are
+// treated as a single point mass at their center of mass whenever (node width / distance) < openingAngle.
+// With the default opening angle of 0.5, the total acceleration error stays within 1% of the direct sum, and an
+// opening angle of 0 degenerates into the exact direct sum.
+public class Octree {
+    private static final int MAX_DEPTH = 32;
+    private static final int CHILD_COUNT = 8;
+    private static final int INITIAL_NODE_CAPACITY = 64;
+    private static final int EMPTY = -1;
+    private static final float BOUNDS_PADDING = 1.001f;
+    private static final float MIN_HALF_SIZE = 0.001f;
+
+    private int bodyCount;
+    private float[] bodyX;
+    private float[] bodyY;
+    private float[] bodyZ;
+    private float[] bodyMass;
+    private int[] bodyNext;
+
+    private int nodeCount;
+    private float[] nodeCenterX;
+    private float[] nodeCenterY;
+    private float[] nodeCenterZ;
+    private float[] nodeHalfSize;
+    private float[] nodeMass;
+    private float[] nodeComX;
+    private float[] nodeComY;
+    private float[] nodeComZ;
+    private int[] nodeFirstChild;
+    private int[] nodeBody;
+
+    // EFFECTS: creates an empty octree, internal buffers are grown as needed and re-used between builds
+    public Octree() {
+        bodyCount = 0;
+        nodeCount = 0;
+        bodyNext = new int[0];
+        allocateNodes(INITIAL_NODE_CAPACITY);
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards the previous tree and rebuilds it from the current positions and masses in the store,
+    // body indicies of the tree correspond to the slots of the store
+    public void build(ParticleStore store) {
+        bodyCount = store.getSize();
+        bodyX = store.getPositionX();
+        bodyY = store.getPositionY();
+        bodyZ = store.getPositionZ();
+        bodyMass = store.getMasses();
+        if (bodyNext.length < bodyCount) {
+            bodyNext = new int[bodyX.length];
+        }
+        buildFromBodies();
+    }
+
+    // REQUIRES: accX, accY and accZ have a length >= getBodyCount(), openingAngle >= 0
+    // MODIFIES: accX, accY, accZ
+    // EFFECTS: writes the approximate gravitational acceleration of every body into the given arrays
+    public void computeAccelerations(float openingAngle, float[] accX, float[] accY, float[] accZ) {
+        computeAccelerations(openingAngle, 0, bodyCount, accX, accY, accZ);
+    }
+
+    // REQUIRES: 0 <= from <= to <= getBodyCount(), accX, accY and accZ have a length >= to, openingAngle >= 0
+    // MODIFIES: accX, accY, accZ
+    // EFFECTS: writes the approximate gravitational acceleration of the bodies in [from, to) into the given
+    // arrays. the tree is only read, so disjoint ranges can be computed concurrently
+    public void computeAccelerations(float openingAngle, int from, int to, float[] accX, float[] accY,
+                                     float[] accZ) {
+        int[] stack = new int[MAX_DEPTH * (CHILD_COUNT - 1) + CHILD_COUNT + 1];
+        float[] acc = new float[3];
+        float openingAngleSquared = openingAngle * openingAngle;
+        for (int body = from; body < to; body++) {
+            accumulateAcceleration(body, openingAngleSquared, stack, acc);
+            accX[body] = acc[0];
+            accY[body] = acc[1];
+            accZ[body] = acc[2];
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rebuilds the node hierarchy from the body buffers, and resolves each node's center of mass
+    private void buildFromBodies() {
+        nodeCount = 0;
+        if (bodyCount == 0) {
+            return;
+        }
+        createRootNode();
+        for (int body = 0; body < bodyCount; body++) {
+            bodyNext[body] = EMPTY;
+            insertBody(body);
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeMass[node] > 0.0f) {
+                nodeComX[node] /= nodeMass[node];
+                nodeComY[node] /= nodeMass[node];
+                nodeComZ[node] /= nodeMass[node];
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates a root node which is a cube that encloses all bodies
+    private void createRootNode() {
+        float minX = bodyX[0];
+        float minY = bodyY[0];
+        float minZ = bodyZ[0];
+        float maxX = minX;
+        float maxY = minY;
+        float maxZ = minZ;
+        for (int body = 1; body < bodyCount; body++) {
+            minX = Math.min(minX, bodyX[body]);
+            minY = Math.min(minY, bodyY[body]);
+            minZ = Math.min(minZ, bodyZ[body]);
+            maxX = Math.max(maxX, bodyX[body]);
+            maxY = Math.max(maxY, bodyY[body]);
+            maxZ = Math.max(maxZ, bodyZ[body]);
+        }
+        float halfSize = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ)) * 0.5f * BOUNDS_PADDING;
+        createNode((minX + maxX) * 0.5f, (minY + maxY) * 0.5f, (minZ + maxZ) * 0.5f,
+                Math.max(halfSize, MIN_HALF_SIZE));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: inserts a body into the tree, subdividing leaves which are already occupied. leaves past the
+    // maximum depth hold a linked list of bodies instead, so that coincident bodies don't subdivide forever
+    private void insertBody(int body) {
+        int node = 0;
+        int depth = 0;
+        while (true) {
+            addMassToNode(node, body);
+            if (nodeFirstChild[node] != EMPTY) {
+                node = nodeFirstChild[node] + getOctant(node, body);
+                depth++;
+                continue;
+            }
+            int occupant = nodeBody[node];
+            if (occupant == EMPTY || depth >= MAX_DEPTH) {
+                bodyNext[body] = occupant;
+                nodeBody[node] = body;
+                return;
+            }
+            subdivideNode(node);
+            int occupantChild = nodeFirstChild[node] + getOctant(node, occupant);
+            nodeBody[occupantChild] = occupant;
+            addMassToNode(occupantChild, occupant);
+            node = nodeFirstChild[node] + getOctant(node, body);
+            depth++;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: turns a leaf node into an internal node with eight empty children
+    private void subdivideNode(int node) {
+        float quarterSize = nodeHalfSize[node] * 0.5f;
+        nodeBody[node] = EMPTY;
+        nodeFirstChild[node] = nodeCount;
+        for (int octant = 0; octant < CHILD_COUNT; octant++) {
+            float offsetX = ((octant & 1) != 0) ? quarterSize : -quarterSize;
+            float offsetY = ((octant & 2) != 0) ? quarterSize : -quarterSize;
+            float offsetZ = ((octant & 4) != 0) ? quarterSize : -quarterSize;
+            createNode(nodeCenterX[node] + offsetX, nodeCenterY[node] + offsetY, nodeCenterZ[node] + offsetZ,
+                    quarterSize);
+        }
+    }
+
+    // EFFECTS: returns which of the node's eight children the given body belongs to
+    private int getOctant(int node, int body) {
+        int octant = 0;
+        if (bodyX[body] >= nodeCenterX[node]) {
+            octant |= 1;
+        }
+        if (bodyY[body] >= nodeCenterY[node]) {
+            octant |= 2;
+        }
+        if (bodyZ[body] >= nodeCenterZ[node]) {
+            octant |= 4;
+        }
+        return octant;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: accumulates the mass and mass-weighted position of a body into the node
+    private void addMassToNode(int node, int body) {
+        nodeMass[node] += bodyMass[body];
+        nodeComX[node] += bodyX[body] * bodyMass[body];
+        nodeComY[node] += bodyY[body] * bodyMass[body];
+        nodeComZ[node] += bodyZ[body] * bodyMass[body];
+    }
+
+    // MODIFIES: acc
+    // EFFECTS: walks the tree and writes the approximate acceleration of body into acc, skipping itself
+    private void accumulateAcceleration(int body, float openingAngleSquared, int[] stack, float[] acc) {
+        acc[0] = 0.0f;
+        acc[1] = 0.0f;
+        acc[2] = 0.0f;
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (nodeFirstChild[node] == EMPTY) {
+                accumulateLeaf(body, node, acc);
+            } else if (canApproximateNode(body, node, openingAngleSquared)) {
+                accumulatePointMass(body, nodeComX[node], nodeComY[node], nodeComZ[node], nodeMass[node], acc);
+            } else {
+                for (int octant = 0; octant < CHILD_COUNT; octant++) {
+                    int child = nodeFirstChild[node] + octant;
+                    if (nodeMass[child] > 0.0f) {
+                        stack[stackSize++] = child;
+                    }
+                }
+            }
+        }
+    }
+
+    // MODIFIES: acc
+    // EFFECTS: accumulates the exact acceleration from all bodies in the leaf except for body itself
+    private void accumulateLeaf(int body, int node, float[] acc) {
+        for (int other = nodeBody[node]; other != EMPTY; other = bodyNext[other]) {
+            if (other != body) {
+                accumulatePointMass(body, bodyX[other], bodyY[other], bodyZ[other], bodyMass[other], acc);
+            }
+        }
+    }
+
+    // EFFECTS: returns whether the node is far enough away from body to be treated as a single point mass. a
+    // node which encloses the body is never approximated, as it would include the body's own mass
+    private boolean canApproximateNode(int body, int node, float openingAngleSquared) {
+        float halfSize = nodeHalfSize[node];
+        if (Math.abs(bodyX[body] - nodeCenterX[node]) <= halfSize
+                && Math.abs(bodyY[body] - nodeCenterY[node]) <= halfSize
+                && Math.abs(bodyZ[body] - nodeCenterZ[node]) <= halfSize) {
+            return false;
+        }
+        float dx = nodeComX[node] - bodyX[body];
+        float dy = nodeComY[node] - bodyY[body];
+        float dz = nodeComZ[node] - bodyZ[body];
+        float width = halfSize * 2.0f;
+        return (width * width) < openingAngleSquared * (dx * dx + dy * dy + dz * dz);
+    }
+
+    // MODIFIES: acc
+    // EFFECTS: accumulates the acceleration a point mass exerts on body, matching Simulation.applyGravity
+    private void accumulatePointMass(int body, float posX, float posY, float posZ, float mass, float[] acc) {
+        float dx = posX - bodyX[body];
+        float dy = posY - bodyY[body];
+        float dz = posZ - bodyZ[body];
+        float distSquared = dx * dx + dy * dy + dz * dz;
+        float dist = (float) Math.sqrt(distSquared);
+        if (dist < Simulation.EPSILON) {
+            return;
+        }
+        float accMagnitude = (Simulation.GRAVITATIONAL_CONSTANT * mass) / Math.max(Simulation.EPSILON, distSquared);
+        float scale = accMagnitude / dist;
+        acc[0] += dx * scale;
+        acc[1] += dy * scale;
+        acc[2] += dz * scale;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends an empty leaf node with the given bounds and returns its index
+    private int createNode(float centerX, float centerY, float centerZ, float halfSize) {
+        if (nodeCount == nodeMass.length) {
+            allocateNodes(nodeMass.length * 2);
+        }
+        int node = nodeCount++;
+        nodeCenterX[node] = centerX;
+        nodeCenterY[node] = centerY;
+        nodeCenterZ[node] = centerZ;
+        nodeHalfSize[node] = halfSize;
+        nodeMass[node] = 0.0f;
+        nodeComX[node] = 0.0f;
+        nodeComY[node] = 0.0f;
+        nodeComZ[node] = 0.0f;
+        nodeFirstChild[node] = EMPTY;
+        nodeBody[node] = EMPTY;
+        return node;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the node buffers to the given capacity, preserving their contents
+    private void allocateNodes(int capacity) {
+        nodeCenterX = grow(nodeCenterX, capacity);
+        nodeCenterY = grow(nodeCenterY, capacity);
+        nodeCenterZ = grow(nodeCenterZ, capacity);
+        nodeHalfSize = grow(nodeHalfSize, capacity);
+        nodeMass = grow(nodeMass, capacity);
+        nodeComX = grow(nodeComX, capacity);
+        nodeComY = grow(nodeComY, capacity);
+        nodeComZ = grow(nodeComZ, capacity);
+        nodeFirstChild = grow(nodeFirstChild, capacity);
+        nodeBody = grow(nodeBody, capacity);
+    }
+
+    // EFFECTS: returns a copy of the array with the given length, or a new array if it is null
+    private static float[] grow(float[] array, int capacity) {
+        return (array == null) ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    // EFFECTS: returns a copy of the array with the given length, or a new array if it is null
+    private static int[] grow(int[] array, int capacity) {
+        return (array == null) ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
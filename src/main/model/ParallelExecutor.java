@@ -0,0 +1,92 @@
+package model;
+
+import java.util.concurrent.*;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+// Represents a fixed-size pool of worker threads which runs a task over disjoint index ranges. Every index is
+// handled by exactly one call of the task, so a task which only writes to the indicies of its own range gives the
+// same result regardless of the number of threads. a parallelism of 1 runs the task on the calling thread
+public class ParallelExecutor {
+    private static final int RANGES_PER_THREAD = 4;
+    private static final int MIN_RANGE_SIZE = 16;
+
+    // Represents work done over the index range [from, to)
+    public interface RangeTask {
+        // EFFECTS: performs the work for every index in [from, to)
+        void run(int from, int to);
+    }
+
+    private int parallelism;
+    private ForkJoinPool pool;
+
+    // EFFECTS: creates an executor with the given number of threads. throws ArgumentOutOfBoundsException if
+    // parallelism is less than 1
+    public ParallelExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new ArgumentOutOfBoundsException("parallelism must be >= 1");
+        }
+        this.parallelism = parallelism;
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // EFFECTS: runs the task over [0, count), split into ranges across the worker threads, and returns once every
+    // range has finished
+    public void forEachRange(int count, RangeTask task) {
+        forEachRange(count, MIN_RANGE_SIZE, task);
+    }
+
+    // REQUIRES: minRangeSize >= 1
+    // EFFECTS: runs the task over [0, count) like forEachRange(count, task), but lets ranges be as small as
+    // minRangeSize, for tasks whose indices each stand for a large amount of work
+    public void forEachRange(int count, int minRangeSize, RangeTask task) {
+        int rangeSize = Math.max(minRangeSize, (count + parallelism * RANGES_PER_THREAD - 1)
+                / (parallelism * RANGES_PER_THREAD));
+        if (pool == null || count <= rangeSize) {
+            task.run(0, count);
+            return;
+        }
+        pool.invoke(new RangeAction(task, 0, count, rangeSize));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the worker threads, the executor must not be used afterwards
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // Represents a range of work which is split in half until it is small enough to run directly
+    private static class RangeAction extends RecursiveAction {
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int rangeSize;
+
+        // EFFECTS: creates an action which runs task over [from, to)
+        RangeAction(RangeTask task, int from, int to, int rangeSize) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.rangeSize = rangeSize;
+        }
+
+        // EFFECTS: runs the task directly if the range is small enough, otherwise splits it in half
+        @Override
+        protected void compute() {
+            if (to - from <= rangeSize) {
+                task.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(task, from, middle, rangeSize), new RangeAction(task, middle, to, rangeSize));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package model;
+
+import java.util.*;
+
+import model.exceptions.PlanetAlreadyExistsException;
+
+// Represents the state of every planet in a simulation, laid out as primitive columns (structure-of-arrays) so
+// that the step kernels can run over them without allocating. Each planet added to the store becomes a handle
+// to its slot, and removing a planet moves the last slot into the freed one so the columns stay packed.
+public class ParticleStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int version;
+    private long changeCount;
+    private Planet[] planets;
+    private float[] positionX;
+    private float[] positionY;
+    private float[] positionZ;
+    private float[] velocityX;
+    private float[] velocityY;
+    private float[] velocityZ;
+    private float[] accelerationX;
+    private float[] accelerationY;
+    private float[] accelerationZ;
+    private float[] radii;
+    private float[] masses;
+
+    // EFFECTS: creates an empty store
+    public ParticleStore() {
+        size = 0;
+        version = 0;
+        changeCount = 0;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // EFFECTS: returns a number which changes whenever a planet is added or removed, or a position or radius is set
+    // through the store, and so whenever previously computed accelerations may have become stale. writes made
+    // directly to the columns are not counted
+    public int getVersion() {
+        return version;
+    }
+
+    // EFFECTS: returns a number which changes whenever a planet is added or removed, or any of a planet's state is
+    // set through the store or its handle. unlike getVersion this includes velocities and names, writes made
+    // directly to the columns are not counted
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that state of a planet which isn't kept in the columns, such as its name, has changed
+    public void markChanged() {
+        changeCount++;
+    }
+
+    // REQUIRES: 0 <= slot < getSize()
+    // EFFECTS: returns the planet which is a handle to the given slot
+    public Planet getPlanet(int slot) {
+        return planets[slot];
+    }
+
+    // NOTE:
+    // the column getters return the live internal arrays, which are only valid up to getSize() and may be
+    // replaced whenever a planet is added
+
+    public float[] getPositionX() {
+        return positionX;
+    }
+
+    public float[] getPositionY() {
+        return positionY;
+    }
+
+    public float[] getPositionZ() {
+        return positionZ;
+    }
+
+    public float[] getVelocityX() {
+        return velocityX;
+    }
+
+    public float[] getVelocityY() {
+        return velocityY;
+    }
+
+    public float[] getVelocityZ() {
+        return velocityZ;
+    }
+
+    public float[] getAccelerationX() {
+        return accelerationX;
+    }
+
+    public float[] getAccelerationY() {
+        return accelerationY;
+    }
+
+    public float[] getAccelerationZ() {
+        return accelerationZ;
+    }
+
+    public float[] getRadii() {
+        return radii;
+    }
+
+    public float[] getMasses() {
+        return masses;
+    }
+
+    // MODIFIES: this, planet
+    // EFFECTS: copies the planet's state into a new slot and turns the planet into a handle to that slot. throws
+    // PlanetAlreadyExistsException if the planet is already a handle into a store, which must remove it first
+    public void add(Planet planet) {
+        if (planet.getStore() != null) {
+            throw new PlanetAlreadyExistsException();
+        }
+        if (size == radii.length) {
+            allocate(radii.length * 2);
+        }
+        int slot = size++;
+        version++;
+        changeCount++;
+        planets[slot] = planet;
+        setPosition(slot, planet.getPosition());
+        setVelocity(slot, planet.getVelocity());
+        setRadius(slot, planet.getRadius());
+        accelerationX[slot] = 0.0f;
+        accelerationY[slot] = 0.0f;
+        accelerationZ[slot] = 0.0f;
+        planet.attach(this, slot);
+    }
+
+    // REQUIRES: planet is a handle into this store
+    // MODIFIES: this, planet
+    // EFFECTS: copies the slot's state back into the planet, then fills the slot with the last slot
+    public void remove(Planet planet) {
+        int slot = planet.getSlot();
+        version++;
+        changeCount++;
+        planet.detach(getPosition(slot), getVelocity(slot), radii[slot]);
+        int last = size - 1;
+        if (slot != last) {
+            moveSlot(last, slot);
+        }
+        planets[last] = null;
+        size--;
+    }
+
+    // MODIFIES: this, all planets in the store
+    // EFFECTS: removes every planet from the store
+    public void clear() {
+        while (size > 0) {
+            remove(planets[size - 1]);
+        }
+    }
+
+    // REQUIRES: 0 <= slot < getSize()
+    // EFFECTS: returns the position of the given slot
+    public Vector3 getPosition(int slot) {
+        return new Vector3(positionX[slot], positionY[slot], positionZ[slot]);
+    }
+
+    // REQUIRES: 0 <= slot < getSize()
+    // MODIFIES: this
+    // EFFECTS: sets the position of the given slot
+    public void setPosition(int slot, Vector3 position) {
+        version++;
+        changeCount++;
+        positionX[slot] = position.getX();
+        positionY[slot] = position.getY();
+        positionZ[slot] = position.getZ();
+    }
+
+    // REQUIRES: 0 <= slot < getSize()
+    // EFFECTS: returns the velocity of the given slot
+    public Vector3 getVelocity(int slot) {
+        return new Vector3(velocityX[slot], velocityY[slot], velocityZ[slot]);
+    }
+
+    // REQUIRES: 0 <= slot < getSize()
+    // MODIFIES: this
+    // EFFECTS: sets the velocity of the given slot
+    public void setVelocity(int slot, Vector3 velocity) {
+        changeCount++;
+        velocityX[slot] = velocity.getX();
+        velocityY[slot] = velocity.getY();
+        velocityZ[slot] = velocity.getZ();
+    }
+
+    // REQUIRES: 0 <= slot < getSize()
+    // MODIFIES: this
+    // EFFECTS: sets the radius of the given slot, and updates its cached mass
+    public void setRadius(int slot, float radius) {
+        version++;
+        changeCount++;
+        radii[slot] = radius;
+        masses[slot] = Planet.calculateMass(radius);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: copies all columns of slot from into slot to, and updates the moved planet's handle
+    private void moveSlot(int from, int to) {
+        planets[to] = planets[from];
+        positionX[to] = positionX[from];
+        positionY[to] = positionY[from];
+        positionZ[to] = positionZ[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        velocityZ[to] = velocityZ[from];
+        accelerationX[to] = accelerationX[from];
+        accelerationY[to] = accelerationY[from];
+        accelerationZ[to] = accelerationZ[from];
+        radii[to] = radii[from];
+        masses[to] = masses[from];
+        planets[to].attach(this, to);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows every column to the given capacity, preserving its contents
+    private void allocate(int capacity) {
+        planets = (planets == null) ? new Planet[capacity] : Arrays.copyOf(planets, capacity);
+        positionX = grow(positionX, capacity);
+        positionY = grow(positionY, capacity);
+        positionZ = grow(positionZ, capacity);
+        velocityX = grow(velocityX, capacity);
+        velocityY = grow(velocityY, capacity);
+        velocityZ = grow(velocityZ, capacity);
+        accelerationX = grow(accelerationX, capacity);
+        accelerationY = grow(accelerationY, capacity);
+        accelerationZ = grow(accelerationZ, capacity);
+        radii = grow(radii, capacity);
+        masses = grow(masses, capacity);
+    }
+
+    // EFFECTS: returns a copy of the array with the given length, or a new array if it is null
+    private static float[] grow(float[] array, int capacity) {
+        return (array == null) ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -1,17 +1,25 @@
 package model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import model.exceptions.ArgumentOutOfBoundsException;
 
 // Represents a Planet within the simulation in 3D-space
-// The planet has a name, position, velocity and radius
+// The planet has a name, position, velocity and radius. While the planet is part of a simulation, its state lives
+// in the simulation's ParticleStore and the planet acts as a handle to its slot in the store
 public class Planet {
     private static final float SPHERE_VOLUME_COEFFICIENT = (4.0f / 3.0f) * 3.14159265f;
     private static final float EPSILON = 0.001f;
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
 
+    private final int id;
     private String name;
     private Vector3 position;
     private Vector3 velocity;
     private float radius;
+    private float mass;
+    private ParticleStore store;
+    private int slot;
 
     // EFFECTS:
     // creates a planet with a name and radius, the position and velocity are both
@@ -24,6 +32,7 @@ public class Planet {
     // creates a planet with the specified, name, starting position, starting
     // velocity and radius
     public Planet(String name, Vector3 position, Vector3 velocity, float radius) {
+        this.id = NEXT_ID.getAndIncrement();
         this.name = name;
         this.position = position;
         this.velocity = velocity;
@@ -31,6 +40,14 @@ public class Planet {
             throw new ArgumentOutOfBoundsException("radius must be > 0");
         }
         this.radius = radius;
+        this.mass = calculateMass(radius);
+        this.store = null;
+        this.slot = -1;
+    }
+
+    // EFFECTS: returns an id which is unique to this planet and never changes
+    public int getId() {
+        return id;
     }
 
     public String getName() {
@@ -39,45 +56,106 @@ public class Planet {
 
     public void setName(String newName) {
         name = newName;
+        if (store != null) {
+            store.markChanged();
+        }
     }
 
     public Vector3 getPosition() {
+        if (store != null) {
+            return store.getPosition(slot);
+        }
         return position;
     }
 
     public void setPosition(Vector3 newPosition) {
+        if (store != null) {
+            store.setPosition(slot, newPosition);
+            return;
+        }
         position = newPosition;
     }
 
     public Vector3 getVelocity() {
+        if (store != null) {
+            return store.getVelocity(slot);
+        }
         return velocity;
     }
 
     public void setVelocity(Vector3 newVelocity) {
+        if (store != null) {
+            store.setVelocity(slot, newVelocity);
+            return;
+        }
         velocity = newVelocity;
     }
 
     public float getRadius() {
+        if (store != null) {
+            return store.getRadii()[slot];
+        }
         return radius;
     }
 
     public void setRadius(float newRadius) {
+        if (store != null) {
+            store.setRadius(slot, newRadius);
+            return;
+        }
         radius = newRadius;
+        mass = calculateMass(newRadius);
     }
 
     // EFFECTS:
     // returns the mass of the planet as if the density is uniformly 1.0
     public float getMass() {
+        if (store != null) {
+            return store.getMasses()[slot];
+        }
+        return mass;
+    }
+
+    // EFFECTS: returns the mass of a planet with the given radius as if the density is uniformly 1.0
+    public static float calculateMass(float radius) {
         return SPHERE_VOLUME_COEFFICIENT * radius * radius * radius;
     }
 
+    // EFFECTS: returns the store this planet is a handle into, or null if it isn't in one
+    ParticleStore getStore() {
+        return store;
+    }
+
+    // EFFECTS: returns the slot this planet is a handle to, or -1 if it isn't in a store
+    int getSlot() {
+        return slot;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes this planet a handle to the given slot of the store
+    void attach(ParticleStore newStore, int newSlot) {
+        store = newStore;
+        slot = newSlot;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops this planet from being a handle, keeping the given state as its own
+    void detach(Vector3 lastPosition, Vector3 lastVelocity, float lastRadius) {
+        store = null;
+        slot = -1;
+        position = lastPosition;
+        velocity = lastVelocity;
+        radius = lastRadius;
+        mass = calculateMass(lastRadius);
+    }
+
     // MODIFIES: this
     // EFFECTS: updates the planet's position based on it's velocity
     public void updatePosition(float deltaTime) {
         if (deltaTime < 0.0f) {
             throw new ArgumentOutOfBoundsException("deltaTime must be positive");
         }
-        position = Vector3.add(position, Vector3.multiply(velocity, deltaTime));
+        setPosition(Vector3.add(getPosition(), Vector3.multiply(getVelocity(), deltaTime)));
     }
 
     // MODIFIES: this
@@ -89,13 +167,28 @@ public class Planet {
         float planetMass = getMass();
         Vector3 acceleration = Vector3.multiply(forceVector, 1.0f / planetMass);
         acceleration = Vector3.multiply(acceleration, deltaTime);
-        velocity = Vector3.add(velocity, acceleration);
+        setVelocity(Vector3.add(getVelocity(), acceleration));
     }
 
     // EFFECTS: returns whether this planet is colliding with the specified planet
     public boolean isCollidingWith(Planet other) {
-        Vector3 displaceMent = Vector3.sub(position, other.getPosition());
-        return displaceMent.magnitude() <= (radius + other.getRadius() + EPSILON);
+        Vector3 displaceMent = Vector3.sub(getPosition(), other.getPosition());
+        return isCollisionDistanceSquared(Vector3.dotProduct(displaceMent, displaceMent), getRadius(),
+                other.getRadius());
+    }
+
+    // EFFECTS: returns whether two spheres with the given radii are colliding, given the squared distance
+    // between their centers
+    public static boolean isCollisionDistanceSquared(float distanceSquared, float radius1, float radius2) {
+        float contactDistance = radius1 + radius2 + EPSILON;
+        return distanceSquared <= contactDistance * contactDistance;
+    }
+
+    // EFFECTS: returns the planet's id. planets are only ever equal to themselves, so this is consistent with
+    // equals, and unlike the identity hash it is the same from run to run
+    @Override
+    public int hashCode() {
+        return id;
     }
 
     // EFFECTS: returns the planets name
@@ -0,0 +1,21 @@
+package model;
+
+// Represents the first-order semi-implicit (symplectic) Euler scheme, which kicks every planet by its acceleration
+// and then drifts it by its new velocity. this is the scheme the simulation has always used, and is the default
+public class SemiImplicitEulerIntegrator extends AbstractIntegrator {
+    public static final String NAME = "SemiImplicitEuler";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // MODIFIES: store
+    // EFFECTS: kicks then drifts every planet by deltaTime, leaving the accelerations at the old positions
+    @Override
+    public boolean step(ParticleStore store, float deltaTime, ForceEvaluator forces, ParallelExecutor executor) {
+        kick(store, deltaTime, executor);
+        drift(store, deltaTime, executor);
+        return false;
+    }
+}
@@ -10,12 +10,34 @@ import model.exceptions.PlanetDoesntExistException;
 public class Simulation {
     public static final float GRAVITATIONAL_CONSTANT = 5.0f;
     public static final float EPSILON = 0.001f;
+    public static final float DEFAULT_OPENING_ANGLE = 0.5f;
     private static final EventLog LOG = EventLog.getInstance();
 
+    // Represents the method used to evaluate the gravitational forces between planets
+    public enum ForceMode {
+        DirectSum, BarnesHut
+    }
+
     private float timeElapsed;
     private List<Planet> planets;
     private List<Planet> historicPlanets;
-    private List<Collision> collisions;
+    private Map<Planet, Integer> historicPlanetIndices;
+    private CollisionRegistry collisions;
+    private List<Planet> planetsView;
+    private List<Planet> historicPlanetsView;
+    private ParticleStore particles;
+
+    private ForceMode forceMode;
+    private float openingAngle;
+    private Octree octree;
+    private SymmetricDirectSum directSum;
+    private SpatialHashGrid collisionGrid;
+    private ParallelExecutor executor;
+    private Integrator integrator;
+    private int accelerationsVersion;
+    private long changeCount;
+    private int stepCollisionsStart;
+    private int stepCollisionsEnd;
 
     // EFFECTS: creates a simulation with no time elapsed and no planets or
     // collisions
@@ -23,41 +45,131 @@ public class Simulation {
         timeElapsed = 0.0f;
         planets = new ArrayList<Planet>();
         historicPlanets = new ArrayList<Planet>();
-        collisions = new ArrayList<Collision>();
+        historicPlanetIndices = new IdentityHashMap<>();
+        collisions = new CollisionRegistry();
+        planetsView = Collections.unmodifiableList(planets);
+        historicPlanetsView = Collections.unmodifiableList(historicPlanets);
+        particles = new ParticleStore();
+        forceMode = ForceMode.DirectSum;
+        openingAngle = DEFAULT_OPENING_ANGLE;
+        octree = new Octree();
+        directSum = new SymmetricDirectSum();
+        collisionGrid = new SpatialHashGrid();
+        executor = new ParallelExecutor(1);
+        integrator = new SemiImplicitEulerIntegrator();
+        accelerationsVersion = -1;
+        changeCount = 0;
+        stepCollisionsStart = 0;
+        stepCollisionsEnd = 0;
     }
 
     public synchronized float getTimeElapsed() {
         return timeElapsed;
     }
 
+    // EFFECTS: returns whether the planet is currently being simulated
+    public synchronized boolean containsPlanet(Planet planet) {
+        return planet != null && planet.getStore() == particles;
+    }
+
+    // EFFECTS: returns the index of the planet in getPlanets(), or -1 if it isn't being simulated
+    public synchronized int indexOfPlanet(Planet planet) {
+        return containsPlanet(planet) ? planet.getSlot() : -1;
+    }
+
+    // EFFECTS: returns the index of the planet in getHistoricPlanets(), or -1 if it isn't a historic planet
+    public synchronized int indexOfHistoricPlanet(Planet planet) {
+        Integer index = historicPlanetIndices.get(planet);
+        return (index == null) ? -1 : index;
+    }
+
+    // NOTE:
+    // the list getters return live read-only views, as the planets in the simulation must stay in sync with its
+    // particle store. use the add/remove methods to modify them instead
+
     public synchronized List<Collision> getCollisions() {
-        return collisions;
+        return collisions.getCollisions();
+    }
+
+    // EFFECTS: returns a read-only list of the collisions the planet was involved in, in the order they occoured
+    public synchronized List<Collision> getCollisionsInvolving(Planet planet) {
+        return collisions.getCollisionsInvolving(planet);
     }
 
     public synchronized List<Planet> getPlanets() {
-        return planets;
+        return planetsView;
     }
 
     public synchronized List<Planet> getHistoricPlanets() {
-        return historicPlanets;
+        return historicPlanetsView;
     }
 
     public synchronized void setTimeElapsed(float newTimeElapsed) {
         timeElapsed = newTimeElapsed;
+        changeCount++;
+    }
+
+    public synchronized ForceMode getForceMode() {
+        return forceMode;
+    }
+
+    public synchronized void setForceMode(ForceMode newForceMode) {
+        forceMode = newForceMode;
+        accelerationsVersion = -1;
+    }
+
+    public synchronized float getOpeningAngle() {
+        return openingAngle;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the Barnes-Hut opening angle, where 0 is exact and larger values trade accuracy for speed.
+    // throws ArgumentOutOfBoundsException if the angle is negative
+    public synchronized void setOpeningAngle(float newOpeningAngle) {
+        if (newOpeningAngle < 0.0f) {
+            throw new ArgumentOutOfBoundsException("openingAngle must be >= 0");
+        }
+        openingAngle = newOpeningAngle;
+        accelerationsVersion = -1;
+    }
+
+    public synchronized Integrator getIntegrator() {
+        return integrator;
+    }
+
+    public synchronized void setIntegrator(Integrator newIntegrator) {
+        integrator = newIntegrator;
+    }
+
+    public synchronized int getParallelism() {
+        return executor.getParallelism();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the number of threads used to step the simulation, the result of a step is the same for any
+    // number of threads. throws ArgumentOutOfBoundsException if parallelism is less than 1
+    public synchronized void setParallelism(int newParallelism) {
+        if (newParallelism == executor.getParallelism()) {
+            return;
+        }
+        ParallelExecutor newExecutor = new ParallelExecutor(newParallelism);
+        executor.shutdown();
+        executor = newExecutor;
     }
 
     // MODIFIES: this
     // EFFECTS:
     // adds a planet to the simulation which will be updated with
     // subsequent calls to update. throws PlanetAlreadyExistsException if planet is
-    // already in the simulation
+    // already in this or another simulation
     public synchronized void addPlanet(Planet planet) {
-        if (planets.contains(planet)) {
+        if (planet.getStore() != null) {
             logNewEvent("Tried to add " + planet.getName() + " to the simulation but it already existed!");
             throw new PlanetAlreadyExistsException();
         }
         logNewEvent("Added planet " + planet.getName() + " to the simulation");
         planets.add(planet);
+        particles.add(planet);
     }
 
     // MODIFIES: this
@@ -67,12 +179,13 @@ public class Simulation {
     // in the simulation collision list. throws PlanetAlreadyExistsException if the
     // planet is already in the simulation
     public synchronized void addHistoricPlanet(Planet historicPlanet) {
-        if (historicPlanets.contains(historicPlanet)) {
+        if (historicPlanetIndices.containsKey(historicPlanet)) {
             logNewEvent("Tried to add the historic" + historicPlanet.getName()
                     + " to the simulation but it already existed!");
             throw new PlanetAlreadyExistsException();
         }
         logNewEvent("Added historic planet " + historicPlanet.getName() + " to the simulation");
+        historicPlanetIndices.put(historicPlanet, historicPlanets.size());
         historicPlanets.add(historicPlanet);
     }
 
@@ -83,62 +196,174 @@ public class Simulation {
     public synchronized void addCollision(Collision collision) {
         Planet planet1 = collision.getPlanetsInvolved().get(0);
         Planet planet2 = collision.getPlanetsInvolved().get(1);
-        if (!(planets.contains(planet1) || historicPlanets.contains(planet1))) {
+        if (!(containsPlanet(planet1) || historicPlanetIndices.containsKey(planet1))) {
             throw new PlanetDoesntExistException();
         }
-        if (!(planets.contains(planet2) || historicPlanets.contains(planet2))) {
+        if (!(containsPlanet(planet2) || historicPlanetIndices.containsKey(planet2))) {
             throw new PlanetDoesntExistException();
         }
 
         logNewEvent("Added new collision between " + planet1.getName() + " and " + planet2.getName()
                 + " to the simulation.");
         collisions.add(collision);
+        changeCount++;
     }
 
     // MODIFIES: this
-    // EFFECTS: removes a specific planet from the simulation, throws
-    // PlanetDoesntExistException if the planet doesn't exist in the simulation
+    // EFFECTS: removes a specific planet from the simulation, moving the last planet
+    // into its place in the planet list. throws PlanetDoesntExistException if the
+    // planet doesn't exist in the simulation
     public synchronized void removePlanet(Planet planet) {
-        if (!planets.contains(planet)) {
-            logNewEvent("Tried to remove " + planet.getName() + " from the simulation but it didn't exist");
+        if (!containsPlanet(planet)) {
+            String name = (planet == null) ? "null" : planet.getName();
+            logNewEvent("Tried to remove " + name + " from the simulation but it didn't exist");
             throw new PlanetDoesntExistException();
         }
 
         logNewEvent("Removed " + planet.getName() + " from the simulation");
-        planets.remove(planet);
+        // NOTE:
+        // the planet list mirrors the slots of the particle store, which fills the
+        // removed planet's slot with the last one
+        int index = planet.getSlot();
+        particles.remove(planet);
+        Planet last = planets.remove(planets.size() - 1);
+        if (index < planets.size()) {
+            planets.set(index, last);
+        }
 
         // NOTE:
         // for purposes of reading and writing, we want the simulation to actually hold
         // on to planets that are no longer involed in the simulation but still apart of
         // the collision list
-        for (Collision collision : collisions) {
-            if (collision.wasPlanetInvolved(planet)) {
-                historicPlanets.add(planet);
-            }
+        if (collisions.wasPlanetInvolved(planet) && !historicPlanetIndices.containsKey(planet)) {
+            historicPlanetIndices.put(planet, historicPlanets.size());
+            historicPlanets.add(planet);
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS: removes all planets, historic planets and collisions from the simulation
+    public synchronized void clear() {
+        logNewEvent("Cleared all planets and collisions from the simulation");
+        particles.clear();
+        planets.clear();
+        historicPlanets.clear();
+        historicPlanetIndices.clear();
+        collisions.clear();
+        stepCollisionsStart = 0;
+        stepCollisionsEnd = 0;
+        changeCount++;
+    }
+
+    // EFFECTS: returns a number which changes whenever anything a snapshot holds changes, that is the time, a
+    // planet being simulated or the collisions, so that a snapshot only needs to be taken when it has moved on
+    public synchronized long getChangeCount() {
+        return changeCount + particles.getChangeCount();
+    }
+
+    // EFFECTS: returns an immutable snapshot of the given version holding the current time, the state of every
+    // planet and the collisions so far
+    public synchronized SimulationSnapshot createSnapshot(long version) {
+        return new SimulationSnapshot(version, timeElapsed, particles, collisions.getCollisionsSoFar());
+    }
+
     // MODIFIES: this
     // EFFECTS:
     // progresses the simulation forward by deltaTime, including increasing
-    // timeElapsed
+    // timeElapsed. throws ArgumentOutOfBoundsException if deltaTime is negative
     public synchronized void progressBySeconds(float deltaTime) {
-        for (Planet currentPlanet : planets) {
-            for (Planet targetPlanet : planets) {
-                if (currentPlanet == targetPlanet) {
-                    continue;
-                }
-                applyGravity(targetPlanet, currentPlanet, deltaTime);
-                checkPlanetCollision(currentPlanet, targetPlanet);
-            }
+        if (deltaTime < 0.0f) {
+            throw new ArgumentOutOfBoundsException("deltaTime must be positive");
         }
         // NOTE:
-        // there are two passes, if I update the planet positions between checking for
-        // collisions, this can result in unwanted behavior
-        for (Planet currentPlanet : planets) {
-            currentPlanet.updatePosition(deltaTime);
+        // second-order integrators finish a step with the accelerations at the new positions, which are re-used
+        // to start the next step unless a planet or the force settings have changed since
+        if (accelerationsVersion != particles.getVersion()) {
+            computeAccelerations();
         }
+        stepCollisionsStart = collisions.size();
+        // NOTE:
+        // collisions are checked against the positions at the start of the step, before
+        // any planet has been moved, otherwise this can result in unwanted behavior
+        checkAllPlanetCollisions();
+        stepCollisionsEnd = collisions.size();
+        boolean accelerationsCurrent = integrator.step(particles, deltaTime, this::computeAccelerations, executor);
+        accelerationsVersion = accelerationsCurrent ? particles.getVersion() : -1;
         timeElapsed += deltaTime;
+        changeCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: merges the planets of every collision found by the last call to progressBySeconds, in the order they
+    // were found, so that planets which collided don't keep colliding again every step. a collision whose planets
+    // aren't both still being simulated, because one of them was already merged away, is skipped
+    public synchronized void mergeCollidedPlanets() {
+        List<Collision> history = collisions.getCollisions();
+        for (int i = stepCollisionsStart; i < stepCollisionsEnd; i++) {
+            Planet planet1 = history.get(i).getPlanetsInvolved().get(0);
+            Planet planet2 = history.get(i).getPlanetsInvolved().get(1);
+            if (planet1 != planet2 && containsPlanet(planet1) && containsPlanet(planet2)) {
+                mergePlanets(planet1, planet2);
+            }
+        }
+        stepCollisionsStart = stepCollisionsEnd;
+    }
+
+    // REQUIRES: both planets are being simulated
+    // MODIFIES: this, planet1, planet2
+    // EFFECTS: removes the smaller planet, and gives the larger one their combined volume and the mass weighted
+    // average of their positions and velocities, so that momentum is conserved
+    private void mergePlanets(Planet planet1, Planet planet2) {
+        float mass1 = planet1.getMass();
+        float mass2 = planet2.getMass();
+        Vector3 newPos = interpolateByWeight(planet1.getPosition(), planet2.getPosition(), mass1, mass2);
+        Vector3 newVel = interpolateByWeight(planet1.getVelocity(), planet2.getVelocity(), mass1, mass2);
+        float rad1 = planet1.getRadius();
+        float rad2 = planet2.getRadius();
+        float newRadius = (float) Math.cbrt(rad1 * rad1 * rad1 + rad2 * rad2 * rad2);
+
+        Planet bigPlanet = (rad1 > rad2) ? planet1 : planet2;
+        Planet smallPlanet = (bigPlanet == planet1) ? planet2 : planet1;
+        removePlanet(smallPlanet);
+        bigPlanet.setPosition(newPos);
+        bigPlanet.setVelocity(newVel);
+        bigPlanet.setRadius(newRadius);
+    }
+
+    // REQUIRES: weight1 + weight2 > 0
+    // EFFECTS: interpolates between two Vector3s with a given weighting for each
+    private static Vector3 interpolateByWeight(Vector3 val1, Vector3 val2, float weight1, float weight2) {
+        Vector3 weightedVal1 = Vector3.multiply(val1, weight1);
+        Vector3 weightedVal2 = Vector3.multiply(val2, weight2);
+        return Vector3.multiply(Vector3.add(weightedVal1, weightedVal2), 1.0f / (weight1 + weight2));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: computes the gravitational acceleration of every planet into the particle store, split across the
+    // executor's threads. Barnes-Hut is split by the planet being accelerated, and the direct sum by pairs of blocks
+    private void computeAccelerations() {
+        float[] accX = particles.getAccelerationX();
+        float[] accY = particles.getAccelerationY();
+        float[] accZ = particles.getAccelerationZ();
+        if (forceMode == ForceMode.BarnesHut) {
+            octree.build(particles);
+            executor.forEachRange(particles.getSize(),
+                    (from, to) -> octree.computeAccelerations(openingAngle, from, to, accX, accY, accZ));
+        } else {
+            directSum.compute(particles, executor);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: finds every colliding pair of planets through the spatial hash grid, independently of how the
+    // forces are evaluated, and registers them in slot order
+    private void checkAllPlanetCollisions() {
+        collisionGrid.findCollidingPairs(particles);
+        for (int pair = 0; pair < collisionGrid.getPairCount(); pair++) {
+            Planet planet1 = particles.getPlanet(collisionGrid.getPairFirst(pair));
+            Planet planet2 = particles.getPlanet(collisionGrid.getPairSecond(pair));
+            registerCollision(planet1, planet2);
+        }
     }
 
     // MODIFIES: this
@@ -147,12 +372,18 @@ public class Simulation {
     // collision if it doesn't already exist
     public void checkPlanetCollision(Planet currentPlanet, Planet otherPlanet) {
         if (currentPlanet.isCollidingWith(otherPlanet)) {
-            Collision col = new Collision(currentPlanet, otherPlanet, timeElapsed);
-            if (collisions.contains(col)) {
-                return;
-            }
-            addCollision(col);
+            registerCollision(currentPlanet, otherPlanet);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a collision between the two planets at the current time if it doesn't already exist
+    private void registerCollision(Planet currentPlanet, Planet otherPlanet) {
+        Collision col = new Collision(currentPlanet, otherPlanet, timeElapsed);
+        if (collisions.contains(col)) {
+            return;
         }
+        addCollision(col);
     }
 
     // MODIFIES: targetPlanet
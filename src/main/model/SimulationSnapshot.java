@@ -0,0 +1,116 @@
+package model;
+
+import java.util.*;
+
+// Represents an immutable copy of the state of a simulation at one point in time, which can be read by other threads
+// while the simulation keeps being stepped. the planets are kept only as handles to identify them, their state at
+// the time of the snapshot is read through the snapshot by index instead
+public class SimulationSnapshot {
+    private final long version;
+    private final float timeElapsed;
+    private final List<Planet> planets;
+    private final Map<Planet, Integer> planetIndices;
+    private final String[] names;
+    private final float[] positions;
+    private final float[] velocities;
+    private final float[] radii;
+    private final List<Collision> collisions;
+
+    // EFFECTS: creates a snapshot of the given version with no time elapsed and no planets or collisions
+    public SimulationSnapshot(long version) {
+        this(version, 0.0f, new ParticleStore(), Collections.emptyList());
+    }
+
+    // REQUIRES: store's planets aren't modified while the snapshot is being created, collisions is read-only and
+    // never changes
+    // EFFECTS: creates a snapshot of the given version, copying the state of every planet in store. the collisions
+    // are kept as given rather than copied, since the history they are taken from is only ever appended to
+    SimulationSnapshot(long version, float timeElapsed, ParticleStore store, List<Collision> collisions) {
+        int count = store.getSize();
+        this.version = version;
+        this.timeElapsed = timeElapsed;
+        this.collisions = collisions;
+        Planet[] planetArray = new Planet[count];
+        planetIndices = new IdentityHashMap<>(count);
+        names = new String[count];
+        positions = new float[count * 3];
+        velocities = new float[count * 3];
+        radii = Arrays.copyOf(store.getRadii(), count);
+        for (int i = 0; i < count; i++) {
+            planetArray[i] = store.getPlanet(i);
+            planetIndices.put(planetArray[i], i);
+            names[i] = planetArray[i].getName();
+            copyVector(store.getPositionX(), store.getPositionY(), store.getPositionZ(), i, positions);
+            copyVector(store.getVelocityX(), store.getVelocityY(), store.getVelocityZ(), i, velocities);
+        }
+        planets = Collections.unmodifiableList(Arrays.asList(planetArray));
+    }
+
+    // EFFECTS: returns the number of times a snapshot had been published before this one
+    public long getVersion() {
+        return version;
+    }
+
+    public float getTimeElapsed() {
+        return timeElapsed;
+    }
+
+    public int getPlanetCount() {
+        return planets.size();
+    }
+
+    // EFFECTS: returns a read-only list of the planets which were being simulated, in the same order as their
+    // indices in this snapshot
+    public List<Planet> getPlanets() {
+        return planets;
+    }
+
+    // EFFECTS: returns a read-only list of the collisions which had occoured, in the order they occoured
+    public List<Collision> getCollisions() {
+        return collisions;
+    }
+
+    // EFFECTS: returns the index of the planet in this snapshot, or -1 if it wasn't being simulated
+    public int indexOf(Planet planet) {
+        Integer index = planetIndices.get(planet);
+        return (index == null) ? -1 : index;
+    }
+
+    // REQUIRES: 0 <= index < getPlanetCount()
+    public Planet getPlanet(int index) {
+        return planets.get(index);
+    }
+
+    // REQUIRES: 0 <= index < getPlanetCount()
+    public String getName(int index) {
+        return names[index];
+    }
+
+    // REQUIRES: 0 <= index < getPlanetCount()
+    public Vector3 getPosition(int index) {
+        return new Vector3(positions[index * 3], positions[index * 3 + 1], positions[index * 3 + 2]);
+    }
+
+    // REQUIRES: 0 <= index < getPlanetCount()
+    public Vector3 getVelocity(int index) {
+        return new Vector3(velocities[index * 3], velocities[index * 3 + 1], velocities[index * 3 + 2]);
+    }
+
+    // REQUIRES: 0 <= index < getPlanetCount()
+    public float getRadius(int index) {
+        return radii[index];
+    }
+
+    // REQUIRES: 0 <= index < getPlanetCount()
+    public float getMass(int index) {
+        return Planet.calculateMass(radii[index]);
+    }
+
+    // MODIFIES: dest
+    // EFFECTS: copies the vector in the given slot of the three columns into dest, packed as xyz
+    private static void copyVector(float[] columnX, float[] columnY, float[] columnZ, int slot, float[] dest) {
+        dest[slot * 3] = columnX[slot];
+        dest[slot * 3 + 1] = columnY[slot];
+        dest[slot * 3 + 2] = columnZ[slot];
+    }
+}
@@ -0,0 +1,272 @@
+package model;
+
+import java.util.*;
+
+// Represents a uniform grid of cubic cells, hashed into a table, which is used as the broad-phase of collision
+// detection. Every planet is inserted into each cell its bounding box overlaps, and only planets sharing a cell
+// are tested against each other, so the cost grows with the number of planets rather than the number of pairs
+// for sparse systems. The cell size follows the mean radius of the planets, and the few planets far larger than a
+// cell are kept aside and tested against every other planet instead of being inserted into many cells.
+public class SpatialHashGrid {
+    private static final int MAX_CELLS_PER_AXIS = 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_TABLE_SIZE = 16;
+
+    private ParticleStore store;
+    private float cellSize;
+
+    private int entryCount;
+    private int[] entryBody;
+    private int[] entryCellX;
+    private int[] entryCellY;
+    private int[] entryCellZ;
+    private int[] entryBucket;
+    private int[] sortedEntries;
+    private int[] bucketStart;
+
+    private int largeCount;
+    private int[] largeBodies;
+    private boolean[] largeFlags;
+
+    private int pairCount;
+    private long[] pairs;
+
+    // EFFECTS: creates an empty grid, internal buffers are grown as needed and re-used between steps
+    public SpatialHashGrid() {
+        cellSize = 0.0f;
+        entryCount = 0;
+        largeCount = 0;
+        pairCount = 0;
+        allocateEntries(INITIAL_CAPACITY);
+        largeBodies = new int[INITIAL_CAPACITY];
+        largeFlags = new boolean[INITIAL_CAPACITY];
+        pairs = new long[INITIAL_CAPACITY];
+        bucketStart = new int[MIN_TABLE_SIZE + 1];
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    // REQUIRES: 0 <= pair < getPairCount()
+    // EFFECTS: returns the lower slot of the given colliding pair
+    public int getPairFirst(int pair) {
+        return (int) (pairs[pair] >>> 32);
+    }
+
+    // REQUIRES: 0 <= pair < getPairCount()
+    // EFFECTS: returns the higher slot of the given colliding pair
+    public int getPairSecond(int pair) {
+        return (int) pairs[pair];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: rebuilds the grid from the current positions and radii in the store, and finds every pair of
+    // colliding planets, ordered by their lower and then higher slot
+    public void findCollidingPairs(ParticleStore store) {
+        this.store = store;
+        entryCount = 0;
+        largeCount = 0;
+        pairCount = 0;
+        cellSize = computeCellSize();
+        insertBodies();
+        sortEntriesByBucket();
+        collectBucketPairs();
+        collectLargePairs();
+        Arrays.sort(pairs, 0, pairCount);
+        this.store = null;
+    }
+
+    // EFFECTS: returns a cell size of twice the mean planet radius plus the collision margin, so that a typical
+    // planet overlaps only a few cells
+    private float computeCellSize() {
+        double radiusSum = 0.0;
+        for (int i = 0; i < store.getSize(); i++) {
+            radiusSum += store.getRadii()[i];
+        }
+        float meanRadius = (store.getSize() == 0) ? 0.0f : (float) (radiusSum / store.getSize());
+        return 2.0f * (meanRadius + Simulation.EPSILON);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: inserts every planet into the cells its bounding box overlaps, or into the large planet list if it
+    // spans too many cells
+    private void insertBodies() {
+        if (largeFlags.length < store.getSize()) {
+            largeFlags = new boolean[store.getSize()];
+        }
+        for (int body = 0; body < store.getSize(); body++) {
+            int minX = getMinCell(store.getPositionX(), body);
+            int minY = getMinCell(store.getPositionY(), body);
+            int minZ = getMinCell(store.getPositionZ(), body);
+            int spanX = getMaxCell(store.getPositionX(), body) - minX;
+            int spanY = getMaxCell(store.getPositionY(), body) - minY;
+            int spanZ = getMaxCell(store.getPositionZ(), body) - minZ;
+            largeFlags[body] = Math.max(spanX, Math.max(spanY, spanZ)) >= MAX_CELLS_PER_AXIS;
+            if (largeFlags[body]) {
+                addLargeBody(body);
+                continue;
+            }
+            for (int x = minX; x <= minX + spanX; x++) {
+                for (int y = minY; y <= minY + spanY; y++) {
+                    for (int z = minZ; z <= minZ + spanZ; z++) {
+                        addEntry(body, x, y, z);
+                    }
+                }
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counting-sorts the entries by their hash table bucket into sortedEntries, with bucketStart holding
+    // the first sorted entry of each bucket
+    private void sortEntriesByBucket() {
+        int tableSize = Integer.highestOneBit(Math.max(MIN_TABLE_SIZE, entryCount * 2) - 1) << 1;
+        if (bucketStart.length < tableSize + 1) {
+            bucketStart = new int[tableSize + 1];
+        }
+        Arrays.fill(bucketStart, 0, tableSize + 1, 0);
+        for (int entry = 0; entry < entryCount; entry++) {
+            entryBucket[entry] = hashCell(entryCellX[entry], entryCellY[entry], entryCellZ[entry]) & (tableSize - 1);
+            bucketStart[entryBucket[entry] + 1]++;
+        }
+        for (int bucket = 0; bucket < tableSize; bucket++) {
+            bucketStart[bucket + 1] += bucketStart[bucket];
+        }
+        for (int entry = 0; entry < entryCount; entry++) {
+            sortedEntries[bucketStart[entryBucket[entry]]++] = entry;
+        }
+        for (int bucket = tableSize; bucket > 0; bucket--) {
+            bucketStart[bucket] = bucketStart[bucket - 1];
+        }
+        bucketStart[0] = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tests every pair of planets which share a cell. a pair of planets can share several cells, so it is
+    // only tested in the cell holding the lowest corner of where their bounding boxes overlap
+    private void collectBucketPairs() {
+        int bucket = 0;
+        for (int sorted = 0; sorted < entryCount; sorted++) {
+            while (bucketStart[bucket + 1] <= sorted) {
+                bucket++;
+            }
+            int entryA = sortedEntries[sorted];
+            for (int other = sorted + 1; other < bucketStart[bucket + 1]; other++) {
+                int entryB = sortedEntries[other];
+                if (isSameCell(entryA, entryB) && isLowestSharedCell(entryA, entryBody[entryB])) {
+                    testPair(entryBody[entryA], entryBody[entryB]);
+                }
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tests every large planet against every other planet, testing pairs of large planets only once
+    private void collectLargePairs() {
+        for (int large = 0; large < largeCount; large++) {
+            int body = largeBodies[large];
+            for (int other = 0; other < store.getSize(); other++) {
+                if (other != body && !(largeFlags[other] && other < body)) {
+                    testPair(body, other);
+                }
+            }
+        }
+    }
+
+    // EFFECTS: returns whether two entries are in the same cell
+    private boolean isSameCell(int entryA, int entryB) {
+        return entryCellX[entryA] == entryCellX[entryB] && entryCellY[entryA] == entryCellY[entryB]
+                && entryCellZ[entryA] == entryCellZ[entryB];
+    }
+
+    // EFFECTS: returns whether the entry's cell holds the lowest corner of the overlap between the bounding boxes
+    // of the entry's planet and other
+    private boolean isLowestSharedCell(int entry, int other) {
+        int body = entryBody[entry];
+        return entryCellX[entry] == Math.max(getMinCell(store.getPositionX(), body),
+                getMinCell(store.getPositionX(), other))
+                && entryCellY[entry] == Math.max(getMinCell(store.getPositionY(), body),
+                getMinCell(store.getPositionY(), other))
+                && entryCellZ[entry] == Math.max(getMinCell(store.getPositionZ(), body),
+                getMinCell(store.getPositionZ(), other));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the pair of planets to the colliding pairs if they collide
+    private void testPair(int body, int other) {
+        float dx = store.getPositionX()[other] - store.getPositionX()[body];
+        float dy = store.getPositionY()[other] - store.getPositionY()[body];
+        float dz = store.getPositionZ()[other] - store.getPositionZ()[body];
+        float[] radii = store.getRadii();
+        if (!Planet.isCollisionDistanceSquared(dx * dx + dy * dy + dz * dz, radii[body], radii[other])) {
+            return;
+        }
+        if (pairCount == pairs.length) {
+            pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[pairCount++] = ((long) Math.min(body, other) << 32) | Math.max(body, other);
+    }
+
+    // EFFECTS: returns the cell holding the low side of the planet's bounding box along the given axis
+    private int getMinCell(float[] positions, int body) {
+        return (int) Math.floor((positions[body] - getExtent(body)) / cellSize);
+    }
+
+    // EFFECTS: returns the cell holding the high side of the planet's bounding box along the given axis
+    private int getMaxCell(float[] positions, int body) {
+        return (int) Math.floor((positions[body] + getExtent(body)) / cellSize);
+    }
+
+    // EFFECTS: returns the half-width of the planet's bounding box, which covers its collision margin
+    private float getExtent(int body) {
+        return store.getRadii()[body] + Simulation.EPSILON;
+    }
+
+    // EFFECTS: returns a spatial hash of the given cell coordinates
+    private static int hashCell(int cellX, int cellY, int cellZ) {
+        return (cellX * 73856093) ^ (cellY * 19349663) ^ (cellZ * 83492791);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends an entry placing body in the given cell
+    private void addEntry(int body, int cellX, int cellY, int cellZ) {
+        if (entryCount == entryBody.length) {
+            allocateEntries(entryBody.length * 2);
+        }
+        entryBody[entryCount] = body;
+        entryCellX[entryCount] = cellX;
+        entryCellY[entryCount] = cellY;
+        entryCellZ[entryCount] = cellZ;
+        entryCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends body to the large planet list
+    private void addLargeBody(int body) {
+        if (largeCount == largeBodies.length) {
+            largeBodies = Arrays.copyOf(largeBodies, largeBodies.length * 2);
+        }
+        largeBodies[largeCount++] = body;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the entry buffers to the given capacity, preserving their contents
+    private void allocateEntries(int capacity) {
+        entryBody = grow(entryBody, capacity);
+        entryCellX = grow(entryCellX, capacity);
+        entryCellY = grow(entryCellY, capacity);
+        entryCellZ = grow(entryCellZ, capacity);
+        entryBucket = grow(entryBucket, capacity);
+        sortedEntries = grow(sortedEntries, capacity);
+    }
+
+    // EFFECTS: returns a copy of the array with the given length, or a new array if it is null
+    private static int[] grow(int[] array, int capacity) {
+        return (array == null) ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
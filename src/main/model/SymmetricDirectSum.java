@@ -0,0 +1,122 @@
+package model;
+
+// Represents the exact direct-sum gravity kernel, which visits every unordered pair of planets once and applies
+// equal and opposite accelerations to both (Newton's third law), halving the work of visiting each pair twice.
+//
+// The planets are grouped into fixed-size blocks, and each pair of blocks is a tile. Tiles are scheduled in rounds
+// of a round-robin tournament, so no two tiles of a round share a block and a round's tiles can run in parallel
+// without any two threads writing to the same planet. Since the blocks and rounds don't depend on the number of
+// threads, every planet's acceleration is summed in the same order and the result is identical for any number
+// of threads.
+public class SymmetricDirectSum {
+    private static final int BLOCK_SIZE = 64;
+    private static final int TILES_PER_RANGE = 1;
+
+    private ParticleStore store;
+    private int blockCount;
+    private int paddedBlockCount;
+
+    // MODIFIES: store
+    // EFFECTS: writes the exact gravitational acceleration of every planet in the store into its acceleration
+    // columns, matching Simulation.applyGravity, splitting each round of tiles across the executor
+    public void compute(ParticleStore store, ParallelExecutor executor) {
+        this.store = store;
+        blockCount = (store.getSize() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        paddedBlockCount = blockCount + (blockCount % 2);
+        clearAccelerations();
+        // NOTE:
+        // every index is a whole tile of up to BLOCK_SIZE x BLOCK_SIZE pairs, so the
+        // tiles are handed out one at a time rather than in the executor's default ranges
+        executor.forEachRange(blockCount, TILES_PER_RANGE, (from, to) -> computeDiagonalTiles(from, to));
+        for (int round = 0; round < paddedBlockCount - 1; round++) {
+            int currentRound = round;
+            executor.forEachRange(paddedBlockCount / 2, TILES_PER_RANGE,
+                    (from, to) -> computeRoundTiles(currentRound, from, to));
+        }
+        this.store = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the acceleration of every planet to zero
+    private void clearAccelerations() {
+        for (int i = 0; i < store.getSize(); i++) {
+            store.getAccelerationX()[i] = 0.0f;
+            store.getAccelerationY()[i] = 0.0f;
+            store.getAccelerationZ()[i] = 0.0f;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: computes every pair of planets within each block in [from, to)
+    private void computeDiagonalTiles(int from, int to) {
+        for (int block = from; block < to; block++) {
+            int end = getBlockEnd(block);
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                computePairs(i, i + 1, end);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: computes the tiles [from, to) of the given round, where tile 0 pairs the round's block with the last
+    // block and every other tile pairs the blocks on either side of it (the circle method). pairs involving the
+    // padding block, which only exists for an odd number of blocks, are skipped
+    private void computeRoundTiles(int round, int from, int to) {
+        int rotating = paddedBlockCount - 1;
+        for (int tile = from; tile < to; tile++) {
+            int blockA = (round + tile) % rotating;
+            int blockB = (tile == 0) ? rotating : (round - tile + rotating) % rotating;
+            if (blockA >= blockCount || blockB >= blockCount) {
+                continue;
+            }
+            int endB = getBlockEnd(blockB);
+            for (int i = blockA * BLOCK_SIZE; i < getBlockEnd(blockA); i++) {
+                computePairs(i, blockB * BLOCK_SIZE, endB);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: computes the interaction between planet i and every planet in [from, to) once, and applies it to
+    // both planets
+    private void computePairs(int i, int from, int to) {
+        float[] posX = store.getPositionX();
+        float[] posY = store.getPositionY();
+        float[] posZ = store.getPositionZ();
+        float[] masses = store.getMasses();
+        float sumX = 0.0f;
+        float sumY = 0.0f;
+        float sumZ = 0.0f;
+        for (int j = from; j < to; j++) {
+            float dx = posX[j] - posX[i];
+            float dy = posY[j] - posY[i];
+            float dz = posZ[j] - posZ[i];
+            float distSquared = dx * dx + dy * dy + dz * dz;
+            float dist = (float) Math.sqrt(distSquared);
+            if (dist < Simulation.EPSILON) {
+                continue;
+            }
+            float scale = Simulation.GRAVITATIONAL_CONSTANT / Math.max(Simulation.EPSILON, distSquared) / dist;
+            sumX += dx * scale * masses[j];
+            sumY += dy * scale * masses[j];
+            sumZ += dz * scale * masses[j];
+            applyReaction(j, dx, dy, dz, scale * masses[i]);
+        }
+        store.getAccelerationX()[i] += sumX;
+        store.getAccelerationY()[i] += sumY;
+        store.getAccelerationZ()[i] += sumZ;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: applies the opposite acceleration of an interaction to planet j
+    private void applyReaction(int j, float dx, float dy, float dz, float scale) {
+        store.getAccelerationX()[j] -= dx * scale;
+        store.getAccelerationY()[j] -= dy * scale;
+        store.getAccelerationZ()[j] -= dz * scale;
+    }
+
+    // EFFECTS: returns the slot one past the last planet in the given block
+    private int getBlockEnd(int block) {
+        return Math.min(store.getSize(), (block + 1) * BLOCK_SIZE);
+    }
+}
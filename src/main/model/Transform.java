@@ -1,157 +1,239 @@
 package model;
 
-// Represents a 4x4 affine transform matrix (yayy computer graphics!)
+import java.util.*;
+
+// Represents a 4x4 affine transform matrix (yayy computer graphics!), stored as one flat array of its rows so that
+// a matrix is a single allocation, and so that matrices can be composed in place by multiplyInto and setTransform
+// without creating any intermediate matrices
 public class Transform {
     private static final float DEGREE_TO_RAD = 0.0174533f;
     private static final int ROW_COUNT = 4;
     private static final int COL_COUNT = 4;
-    private float[][] components;
+    private final float[] values;
 
     // EFFECTS: creates an identity matrix
     public Transform() {
-        components = new float[ROW_COUNT][COL_COUNT];
-        components[0][0] = 1.0f;
-        components[1][1] = 1.0f;
-        components[2][2] = 1.0f;
-        components[3][3] = 1.0f;
+        values = new float[ROW_COUNT * COL_COUNT];
+        setIdentity();
     }
 
+    // EFFECTS: returns a copy of the components of the matrix as rows of columns
     public float[][] getComponents() {
+        float[][] components = new float[ROW_COUNT][COL_COUNT];
+        for (int row = 0; row < ROW_COUNT; row++) {
+            System.arraycopy(values, row * COL_COUNT, components[row], 0, COL_COUNT);
+        }
         return components;
     }
 
+    // EFFECTS: returns the components of the matrix, with the component at a row and column stored at
+    // row * 4 + column. the array is the matrix's own and must not be modified
+    public float[] getValues() {
+        return values;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: copies the components of the given matrix into this, and returns this
+    public Transform set(Transform matrix) {
+        System.arraycopy(matrix.values, 0, values, 0, values.length);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to the TRS matrix of the given translation, rotation and scale, which is the same matrix
+    // as transform gives, built directly without multiplying any matrices together, and returns this
+    public Transform setTransform(Vector3 trl, Vector3 rot, Vector3 scl) {
+        setRotation(rot);
+        for (int col = 0; col < 3; col++) {
+            values[col] *= scl.getX();
+            values[COL_COUNT + col] *= scl.getY();
+            values[2 * COL_COUNT + col] *= scl.getZ();
+        }
+        values[12] = trl.getX();
+        values[13] = trl.getY();
+        values[14] = trl.getZ();
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to a translation matrix, and returns this
+    public Transform setTranslation(float trlX, float trlY, float trlZ) {
+        setIdentity();
+        values[12] = trlX;
+        values[13] = trlY;
+        values[14] = trlZ;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to a rotation matrix about the x axis, and returns this
+    public Transform setRotationX(float rotDegrees) {
+        setIdentity();
+        float cosDeg = cosDegrees(rotDegrees);
+        float sinDeg = sinDegrees(rotDegrees);
+        values[5] = cosDeg;
+        values[9] = sinDeg;
+        values[6] = -sinDeg;
+        values[10] = cosDeg;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to a rotation matrix about the y axis, and returns this
+    public Transform setRotationY(float rotDegrees) {
+        setIdentity();
+        float cosDeg = cosDegrees(rotDegrees);
+        float sinDeg = sinDegrees(rotDegrees);
+        values[0] = cosDeg;
+        values[2] = sinDeg;
+        values[8] = -sinDeg;
+        values[10] = cosDeg;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to a rotation matrix about the z axis, and returns this
+    public Transform setRotationZ(float rotDegrees) {
+        setIdentity();
+        float cosDeg = cosDegrees(rotDegrees);
+        float sinDeg = sinDegrees(rotDegrees);
+        values[0] = cosDeg;
+        values[1] = sinDeg;
+        values[4] = -sinDeg;
+        values[5] = cosDeg;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to the identity matrix
+    private void setIdentity() {
+        Arrays.fill(values, 0.0f);
+        values[0] = 1.0f;
+        values[5] = 1.0f;
+        values[10] = 1.0f;
+        values[15] = 1.0f;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets this to the rotation matrix of the given rotation, which is the rotation about the x axis, then
+    // about the y axis, then about the z axis, each written out rather than multiplied together
+    private void setRotation(Vector3 rot) {
+        float cosX = cosDegrees(rot.getX());
+        float sinX = sinDegrees(rot.getX());
+        float cosY = cosDegrees(rot.getY());
+        float sinY = sinDegrees(rot.getY());
+        float cosZ = cosDegrees(rot.getZ());
+        float sinZ = sinDegrees(rot.getZ());
+        Arrays.fill(values, 0.0f);
+        values[0] = cosY * cosZ;
+        values[1] = cosY * sinZ;
+        values[2] = sinY;
+        values[4] = sinX * sinY * cosZ - cosX * sinZ;
+        values[5] = sinX * sinY * sinZ + cosX * cosZ;
+        values[6] = -sinX * cosY;
+        values[8] = -cosX * sinY * cosZ - sinX * sinZ;
+        values[9] = -cosX * sinY * sinZ + sinX * cosZ;
+        values[10] = cosX * cosY;
+        values[15] = 1.0f;
+    }
+
     // EFFECTS: creates a translation matrix
     public static Transform translation(Vector3 trl) {
-        Transform matrix = new Transform();
-        matrix.components[3][0] = trl.getX();
-        matrix.components[3][1] = trl.getY();
-        matrix.components[3][2] = trl.getZ();
-        return matrix;
+        return new Transform().setTranslation(trl.getX(), trl.getY(), trl.getZ());
     }
 
     // EFFECTS: creates a scale matrix
     public static Transform scale(Vector3 scl) {
         Transform matrix = new Transform();
-        matrix.components[0][0] = scl.getX();
-        matrix.components[1][1] = scl.getY();
-        matrix.components[2][2] = scl.getZ();
+        matrix.values[0] = scl.getX();
+        matrix.values[5] = scl.getY();
+        matrix.values[10] = scl.getZ();
         return matrix;
     }
 
     // EFFECTS: creates a rotation matrix about the x axis
     public static Transform rotationX(float rotDegrees) {
-        Transform matrix = new Transform();
-
-        float cosDeg = cosDegrees(rotDegrees);
-        float sinDeg = sinDegrees(rotDegrees);
-        matrix.components[1][1] = cosDeg;
-        matrix.components[2][1] = sinDeg;
-        matrix.components[1][2] = -sinDeg;
-        matrix.components[2][2] = cosDeg;
-        return matrix;
+        return new Transform().setRotationX(rotDegrees);
     }
 
     // EFFECTS: creates a rotation matrix about the y axis
     public static Transform rotationY(float rotDegrees) {
-        Transform matrix = new Transform();
-
-        float cosDeg = cosDegrees(rotDegrees);
-        float sinDeg = sinDegrees(rotDegrees);
-        matrix.components[0][0] = cosDeg;
-        matrix.components[0][2] = sinDeg;
-        matrix.components[2][0] = -sinDeg;
-        matrix.components[2][2] = cosDeg;
-        return matrix;
+        return new Transform().setRotationY(rotDegrees);
     }
 
     // EFFECTS: creates a rotation matrix about the z axis
     public static Transform rotationZ(float rotDegrees) {
-        Transform matrix = new Transform();
-
-        float cosDeg = cosDegrees(rotDegrees);
-        float sinDeg = sinDegrees(rotDegrees);
-        matrix.components[0][0] = cosDeg;
-        matrix.components[0][1] = sinDeg;
-        matrix.components[1][0] = -sinDeg;
-        matrix.components[1][1] = cosDeg;
-        return matrix;
+        return new Transform().setRotationZ(rotDegrees);
     }
 
     // EFFECTS: creates a 3D rotation matrix
     public static Transform rotation(Vector3 rot) {
         Transform matrix = new Transform();
-
-        Transform rotX = rotationX(rot.getX());
-        Transform rotY = rotationY(rot.getY());
-        Transform rotZ = rotationZ(rot.getZ());
-
-        matrix = multiply(matrix, rotX);
-        matrix = multiply(matrix, rotY);
-        matrix = multiply(matrix, rotZ);
-
+        matrix.setRotation(rot);
         return matrix;
     }
 
     // EFFECTS: creates a TRS matrix
     public static Transform transform(Vector3 trl, Vector3 rot, Vector3 scl) {
-        Transform tformMatrix = new Transform();
-        Transform matScale = scale(scl);
-        Transform matRot = rotation(rot);
-        Transform matTrans = translation(trl);
-
-        tformMatrix = multiply(tformMatrix, matScale);
-        tformMatrix = multiply(tformMatrix, matRot);
-        tformMatrix = multiply(tformMatrix, matTrans);
-
-        return tformMatrix;
+        return new Transform().setTransform(trl, rot, scl);
     }
 
     // EFFECTS: returns the multiplication of two matricies
     public static Transform multiply(Transform leftMatrix, Transform rightMatrix) {
         Transform matrix = new Transform();
+        multiplyInto(leftMatrix, rightMatrix, matrix);
+        return matrix;
+    }
+
+    // EFFECTS: returns the multiplication of a matricie and a vector
+    public static Vector3 multiply(Transform matrix, Vector3 vector) {
+        float[] comp = matrix.values;
+        float posX = vector.getX();
+        float posY = vector.getY();
+        float posZ = vector.getZ();
+        return new Vector3(comp[0] * posX + comp[4] * posY + comp[8] * posZ + comp[12],
+                comp[1] * posX + comp[5] * posY + comp[9] * posZ + comp[13],
+                comp[2] * posX + comp[6] * posY + comp[10] * posZ + comp[14]);
+    }
+
+    // REQUIRES: dest is not rightMatrix
+    // MODIFIES: dest
+    // EFFECTS: sets dest to the multiplication of two matricies without allocating anything. dest may be
+    // leftMatrix, since each row of leftMatrix is read before the same row of dest is written
+    public static void multiplyInto(Transform leftMatrix, Transform rightMatrix, Transform dest) {
         // NOTE:
         // hehehe I havent actually taken MATH223 yet so I have kinda no idea what I'm
         // doing... I'm simply referencing the wikipedia article on matrix
         // multiplication to get this right
         // reference:
         // https://en.wikipedia.org/wiki/Matrix_multiplication
-        for (int i = 0; i < ROW_COUNT; i++) {
-            for (int j = 0; j < COL_COUNT; j++) {
-                matrix.components[j][i] = 0.0f;
-                matrix.components[j][i] += rightMatrix.components[0][i] * leftMatrix.components[j][0];
-                matrix.components[j][i] += rightMatrix.components[1][i] * leftMatrix.components[j][1];
-                matrix.components[j][i] += rightMatrix.components[2][i] * leftMatrix.components[j][2];
-                matrix.components[j][i] += rightMatrix.components[3][i] * leftMatrix.components[j][3];
+        float[] right = rightMatrix.values;
+        for (int row = 0; row < ROW_COUNT; row++) {
+            int base = row * COL_COUNT;
+            float left0 = leftMatrix.values[base];
+            float left1 = leftMatrix.values[base + 1];
+            float left2 = leftMatrix.values[base + 2];
+            float left3 = leftMatrix.values[base + 3];
+            for (int col = 0; col < COL_COUNT; col++) {
+                dest.values[base + col] = right[col] * left0 + right[COL_COUNT + col] * left1
+                        + right[2 * COL_COUNT + col] * left2 + right[3 * COL_COUNT + col] * left3;
             }
         }
-        return matrix;
-    }
-
-    // EFFECTS: returns the multiplication of a matricie and a vector
-    public static Vector3 multiply(Transform matrix, Vector3 vector) {
-        float[] vector4 = new float[4];
-        for (int i = 0; i < 4; i++) {
-            vector4[i] += matrix.components[0][i] * vector.getX();
-            vector4[i] += matrix.components[1][i] * vector.getY();
-            vector4[i] += matrix.components[2][i] * vector.getZ();
-            vector4[i] += matrix.components[3][i] * 1.0f;
-        }
-        return new Vector3(vector4[0], vector4[1], vector4[2]);
     }
 
     // EFFECTS: extracts a scale vector from the transform
     public static Vector3 extractScale(Transform matrix) {
-        float[][] comp = matrix.components;
-        float scaleX = new Vector3(comp[0][0], comp[0][1], comp[0][2]).magnitude();
-        float scaleY = new Vector3(comp[1][0], comp[1][1], comp[1][2]).magnitude();
-        float scaleZ = new Vector3(comp[2][0], comp[2][1], comp[2][2]).magnitude();
+        float[] comp = matrix.values;
+        float scaleX = new Vector3(comp[0], comp[1], comp[2]).magnitude();
+        float scaleY = new Vector3(comp[4], comp[5], comp[6]).magnitude();
+        float scaleZ = new Vector3(comp[8], comp[9], comp[10]).magnitude();
         return new Vector3(scaleX, scaleY, scaleZ);
     }
 
     // EFFECTS: extracts a translation vector from the transform
     public static Vector3 extractTranslation(Transform matrix) {
-        float[][] comp = matrix.components;
-        return new Vector3(comp[3][0], comp[3][1], comp[3][2]);
+        float[] comp = matrix.values;
+        return new Vector3(comp[12], comp[13], comp[14]);
     }
 
     // EFFECTS: returns sinx in degrees
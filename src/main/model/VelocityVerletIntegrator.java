@@ -0,0 +1,49 @@
+package model;
+
+// Represents the second-order symplectic velocity Verlet scheme, which moves every planet along its velocity and
+// acceleration and then advances the velocity by the average of the old and new accelerations. it is equivalent
+// to leapfrog in exact arithmetic but updates positions directly from the start-of-step state
+public class VelocityVerletIntegrator extends AbstractIntegrator {
+    public static final String NAME = "VelocityVerlet";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    // MODIFIES: store
+    // EFFECTS: sets x += v * dt + a * dt^2 / 2 and v += a * dt / 2 for every planet, then re-evaluates the
+    // accelerations and sets v += a' * dt / 2
+    @Override
+    public boolean step(ParticleStore store, float deltaTime, ForceEvaluator forces, ParallelExecutor executor) {
+        float halfDeltaTime = deltaTime * 0.5f;
+        executor.forEachRange(store.getSize(), (from, to) -> advanceRange(store, from, to, deltaTime));
+        forces.computeAccelerations();
+        kick(store, halfDeltaTime, executor);
+        return true;
+    }
+
+    // MODIFIES: store
+    // EFFECTS: advances the positions of the planets in [from, to) by velocity and acceleration, and their
+    // velocities by the first half of the acceleration
+    private static void advanceRange(ParticleStore store, int from, int to, float deltaTime) {
+        float halfDeltaTimeSquared = deltaTime * deltaTime * 0.5f;
+        float[] posX = store.getPositionX();
+        float[] posY = store.getPositionY();
+        float[] posZ = store.getPositionZ();
+        float[] velX = store.getVelocityX();
+        float[] velY = store.getVelocityY();
+        float[] velZ = store.getVelocityZ();
+        float[] accX = store.getAccelerationX();
+        float[] accY = store.getAccelerationY();
+        float[] accZ = store.getAccelerationZ();
+        for (int i = from; i < to; i++) {
+            posX[i] += velX[i] * deltaTime + accX[i] * halfDeltaTimeSquared;
+            posY[i] += velY[i] * deltaTime + accY[i] * halfDeltaTimeSquared;
+            posZ[i] += velZ[i] * deltaTime + accZ[i] * halfDeltaTimeSquared;
+            velX[i] += accX[i] * deltaTime * 0.5f;
+            velY[i] += accY[i] * deltaTime * 0.5f;
+            velZ[i] += accZ[i] * deltaTime * 0.5f;
+        }
+    }
+}
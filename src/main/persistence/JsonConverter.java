@@ -29,6 +29,7 @@ public class JsonConverter {
     public static final String SIM_KEY_PLANETS_INSIM = "PlanetsInSim";
     public static final String SIM_KEY_PLANETS_HISTORIC = "PlanetsHistoric";
     public static final String SIM_KEY_COLLISIONS = "Collisions";
+    public static final String SIM_KEY_INTEGRATOR = "Integrator";
 
     private JsonConverter() {
         // instantiation not allowed
@@ -75,14 +76,13 @@ public class JsonConverter {
     public static JSONObject planetReferenceToJsonObject(Planet planetRef, Simulation parent) {
         JSONObject jsonObject = new JSONObject();
 
-        int index = -1;
+        int index = parent.indexOfPlanet(planetRef);
         String planetTypeValue = "";
-        if (parent.getPlanets().contains(planetRef)) {
+        if (index != -1) {
             planetTypeValue = PLANETREF_VALUE_TYPE_INSIM;
-            index = parent.getPlanets().indexOf(planetRef);
-        } else if (parent.getHistoricPlanets().contains(planetRef)) {
+        } else if (parent.indexOfHistoricPlanet(planetRef) != -1) {
             planetTypeValue = PLANETREF_VALUE_TYPE_HISTORIC;
-            index = parent.getHistoricPlanets().indexOf(planetRef);
+            index = parent.indexOfHistoricPlanet(planetRef);
         } else {
             throw new PlanetDoesntExistException();
         }
@@ -163,9 +163,25 @@ public class JsonConverter {
         jsonObject.put(SIM_KEY_PLANETS_INSIM, planetListToJsonArray(simulation.getPlanets()));
         jsonObject.put(SIM_KEY_PLANETS_HISTORIC, planetListToJsonArray(simulation.getHistoricPlanets()));
         jsonObject.put(SIM_KEY_COLLISIONS, collisionListToJsonArray(simulation.getCollisions(), simulation));
+        jsonObject.put(SIM_KEY_INTEGRATOR, simulation.getIntegrator().getName());
         return jsonObject;
     }
 
+    // EFFECTS: returns the integrator with the given name. Throws a JSONException if
+    // there is no such integrator
+    public static Integrator integratorNameToIntegrator(String name) {
+        switch (name) {
+            case SemiImplicitEulerIntegrator.NAME:
+                return new SemiImplicitEulerIntegrator();
+            case LeapfrogIntegrator.NAME:
+                return new LeapfrogIntegrator();
+            case VelocityVerletIntegrator.NAME:
+                return new VelocityVerletIntegrator();
+            default:
+                throw new JSONException("invalid jsonObject value for key: " + SIM_KEY_INTEGRATOR);
+        }
+    }
+
     // EFFECTS: converts a JSONObject into a simulation
     public static Simulation jsonObjectToSimulation(JSONObject jsonObject) {
         Simulation simulation = new Simulation();
@@ -173,6 +189,12 @@ public class JsonConverter {
         float timeElapsed = Float.parseFloat(jsonObject.getString(SIM_KEY_TIME_ELAPSED));
         simulation.setTimeElapsed(timeElapsed);
 
+        // NOTE:
+        // simulations saved before integrators were selectable don't have the key, and
+        // were always stepped with semi-implicit Euler
+        String integratorName = jsonObject.optString(SIM_KEY_INTEGRATOR, SemiImplicitEulerIntegrator.NAME);
+        simulation.setIntegrator(integratorNameToIntegrator(integratorName));
+
         for (Object jsonPlanet : jsonObject.getJSONArray(SIM_KEY_PLANETS_INSIM)) {
             simulation.addPlanet(jsonObjectToPlanet((JSONObject) jsonPlanet));
         }
@@ -46,14 +46,14 @@ public class SimulationReadWriter {
             throw new FileNotFoundException();
         }
 
-        String jsonStringBuffer = "";
+        StringBuilder jsonStringBuffer = new StringBuilder();
         Scanner readScanner = new Scanner(readFile);
         while (readScanner.hasNextLine()) {
-            jsonStringBuffer += readScanner.nextLine();
+            jsonStringBuffer.append(readScanner.nextLine());
         }
         readScanner.close();
 
-        JSONObject jsonSimObject = new JSONObject(jsonStringBuffer);
+        JSONObject jsonSimObject = new JSONObject(jsonStringBuffer.toString());
         return JsonConverter.jsonObjectToSimulation(jsonSimObject);
     }
 }
@@ -0,0 +1,94 @@
+package ui;
+
+import model.*;
+import persistence.*;
+
+import java.io.*;
+
+// Holds the entry point for running a saved simulation without any user interface, so that it can be run on
+// machines with no display. The saved simulation is stepped at a fixed time step as fast as possible, merging
+// planets which collide just like the interactive simulator, then saved again and the throughput of the run is printed
+//
+// usage: HeadlessRunner <input save> <output save> <deltaTime> (--steps <count> | --time <target time>)
+//                       [--threads <count>] [--integrator <name>] [--barnes-hut <opening angle>]
+// saves are file titles within SimulationReadWriter.SAVE_PATH, without the file suffix
+public class HeadlessRunner {
+    private static final String USAGE = "usage: HeadlessRunner <input save> <output save> <deltaTime> "
+            + "(--steps <count> | --time <target time>) [--threads <count>] [--integrator <name>] "
+            + "[--barnes-hut <opening angle>]";
+
+    private HeadlessRunner() {
+        // instantiation not allowed
+    }
+
+    // EFFECTS: loads, runs and saves the simulation given by args, exiting with a non-zero status if the arguments
+    // are invalid or the saves can't be read or written
+    public static void main(String[] args) {
+        try {
+            run(args);
+        } catch (IOException | RuntimeException exc) {
+            System.err.println("error: " + exc);
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    // EFFECTS: loads the input save, applies the options, runs it and writes the output save and statistics
+    private static void run(String[] args) throws IOException {
+        if (args.length < 5) {
+            throw new IllegalArgumentException("expected at least 5 arguments");
+        }
+        Simulation simulation = SimulationReadWriter.readSimulation(args[0]);
+        float deltaTime = Float.parseFloat(args[2]);
+        BatchRun batchRun = null;
+        for (int i = 3; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            if (args[i].equals("--steps")) {
+                batchRun = new BatchRun(deltaTime, Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--time")) {
+                batchRun = BatchRun.toTargetTime(simulation, Float.parseFloat(args[i + 1]), deltaTime);
+            } else {
+                applyOption(simulation, args[i], args[i + 1]);
+            }
+        }
+        if (batchRun == null) {
+            throw new IllegalArgumentException("expected --steps or --time");
+        }
+        batchRun.run(simulation);
+        SimulationReadWriter.writeSimulation(simulation, args[1]);
+        printStatistics(simulation, batchRun);
+    }
+
+    // MODIFIES: simulation
+    // EFFECTS: applies a simulation setting option. throws IllegalArgumentException if the option is unknown
+    private static void applyOption(Simulation simulation, String option, String value) {
+        switch (option) {
+            case "--threads":
+                simulation.setParallelism(Integer.parseInt(value));
+                break;
+            case "--integrator":
+                simulation.setIntegrator(JsonConverter.integratorNameToIntegrator(value));
+                break;
+            case "--barnes-hut":
+                simulation.setForceMode(Simulation.ForceMode.BarnesHut);
+                simulation.setOpeningAngle(Float.parseFloat(value));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + option);
+        }
+    }
+
+    // EFFECTS: prints the final state and throughput of the run
+    private static void printStatistics(Simulation simulation, BatchRun batchRun) {
+        System.out.println(String.format("planets:      %d", simulation.getPlanets().size()));
+        System.out.println(String.format("collisions:   %d", simulation.getCollisions().size()));
+        System.out.println(String.format("sim time:     %.3f s", simulation.getTimeElapsed()));
+        System.out.println(String.format("steps:        %d x %.5f s", batchRun.getStepCount(),
+                batchRun.getDeltaTime()));
+        System.out.println(String.format("wall time:    %.3f s", batchRun.getElapsedSeconds()));
+        System.out.println(String.format("steps/s:      %.1f", batchRun.getStepsPerSecond()));
+        System.out.println(String.format("body-pairs/s: %.4g", batchRun.getPairsPerSecond()));
+    }
+}
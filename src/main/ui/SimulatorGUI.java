@@ -36,6 +36,12 @@ public class SimulatorGUI implements Tickable {
         return mainWindow;
     }
 
+    // MODIFIES: this
+    // EFFECTS: starts the thread which draws the 3D viewport, if it hasn't been started already
+    public void startRenderThread() {
+        mainWindow.getViewportPanel().getRenderEngine().startRenderThread();
+    }
+
     // MODIFIES: this
     // EFFECTS: updates self and all relevant sub-components
     @Override
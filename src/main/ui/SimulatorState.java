@@ -1,21 +1,31 @@
 package ui;
 
 import model.*;
+import java.util.concurrent.atomic.*;
 import java.util.concurrent.locks.*;
 
-// Contains all the simulation state related data
+// Contains all the simulation state related data. The simulation is stepped on its own physics thread, in fixed
+// time steps of FIXED_DELTATIME simulated seconds, so that how far and how accurately it advances doesn't depend on
+// how long rendering takes. the simulation itself is only touched while holding the lock, readers such as the
+// renderer and the panels instead read the latest published snapshot, so that they never block the physics thread
 public class SimulatorState implements Tickable {
     public static final float TIMESCALE_MIN = 1.0f;
     public static final float TIMESCALE_MAX = 20.0f;
+    public static final float FIXED_DELTATIME = 0.02f;
     private static final float MAX_DELTATIME = 0.1f;
+    private static final int MAX_SUBSTEPS_PER_TICK = 8;
+    private static final long IDLE_SLEEP_NANOSECONDS = 10000000L;
 
     private static SimulatorState instance;
     private Simulation simulation;
-    private float lastSimTime;
-    private float timeScale;
-    private boolean isRunning;
+    private volatile float timeScale;
+    private volatile boolean isRunning;
     private long lastTickNanoseconds;
-    private Lock lock;
+    private float accumulatedTime;
+    private Thread physicsThread;
+    private ReentrantLock lock;
+    private AtomicReference<SimulationSnapshot> snapshot;
+    private long snapshotChangeCount;
 
     // EFFECTS: creates a new simulation that is paused
     private SimulatorState() {
@@ -23,11 +33,18 @@ public class SimulatorState implements Tickable {
             throw new IllegalStateException();
         }
         simulation = new Simulation();
-        lastSimTime = 0.0f;
+        simulation.setParallelism(Runtime.getRuntime().availableProcessors());
         timeScale = 1.0f;
         isRunning = false;
         lastTickNanoseconds = System.nanoTime();
-        lock = new ReentrantLock();
+        accumulatedTime = 0.0f;
+        physicsThread = null;
+        // NOTE:
+        // the physics thread re-takes the lock for every step, so the lock is fair to
+        // keep it from starving the render and swing threads
+        lock = new ReentrantLock(true);
+        snapshot = new AtomicReference<>(simulation.createSnapshot(0));
+        snapshotChangeCount = simulation.getChangeCount();
     }
 
     // EFFECTS: returns the simulation state instance
@@ -42,6 +59,11 @@ public class SimulatorState implements Tickable {
         return simulation;
     }
 
+    // EFFECTS: returns the latest published snapshot of the simulation, without waiting on the lock
+    public SimulationSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     public boolean getIsRunning() {
         return isRunning;
     }
@@ -65,84 +87,81 @@ public class SimulatorState implements Tickable {
     }
 
     // MODIFIES: this
-    // EFFECTS: unlocks the internal synchronization object
+    // EFFECTS: unlocks the internal synchronization object. when the outermost lock is released and the simulation
+    // has changed since the last snapshot, a new snapshot is published so that readers see whatever was changed
+    // while it was locked
     public void unlock() {
+        if (lock.getHoldCount() == 1 && simulation.getChangeCount() != snapshotChangeCount) {
+            snapshotChangeCount = simulation.getChangeCount();
+            snapshot.set(simulation.createSnapshot(snapshot.get().getVersion() + 1));
+        }
         lock.unlock();
     }
 
     // MODIFIES: this
-    // EFFECTS: updates the simulation state
-    @Override
-    public void tick() {
-        if (isRunning) {
-            long deltaTimeNanoseconds = System.nanoTime() - lastTickNanoseconds;
-            float deltaTimeSeconds = (float) deltaTimeNanoseconds / 1000000000.0f;
-            deltaTimeSeconds = Math.min(deltaTimeSeconds, MAX_DELTATIME);
-
-            lock();
-            lastSimTime = simulation.getTimeElapsed();
-            simulation.progressBySeconds(deltaTimeSeconds * timeScale);
-            handleCollisionBehavior();
-            unlock();
-
-            if (simulation.getPlanets().size() == 0) {
-                isRunning = false;
-            }
+    // EFFECTS: starts the physics thread which ticks the simulation state until the program exits, if it hasn't
+    // been started already
+    public void startPhysicsThread() {
+        if (physicsThread != null) {
+            return;
         }
-        lastTickNanoseconds = System.nanoTime();
+        physicsThread = new Thread(this::runPhysicsLoop, "Physics");
+        physicsThread.setDaemon(true);
+        physicsThread.start();
     }
 
     // MODIFIES: this
-    // EFFECTS: handles the collision behavior between planets after each tick
-    private void handleCollisionBehavior() {
-        for (Collision collision : simulation.getCollisions()) {
-            if (collision.getCollisionTime() < lastSimTime) {
-                continue;
+    // EFFECTS: ticks the simulation state forever, sleeping whenever the next fixed step isn't due yet
+    private void runPhysicsLoop() {
+        while (true) {
+            tick();
+            long sleepNanoseconds = IDLE_SLEEP_NANOSECONDS;
+            if (isRunning) {
+                float timeUntilStep = (FIXED_DELTATIME - accumulatedTime) / timeScale;
+                sleepNanoseconds = (long) (timeUntilStep * 1000000000.0f);
             }
-            Planet planet1 = collision.getPlanetsInvolved().get(0);
-            Planet planet2 = collision.getPlanetsInvolved().get(1);
-            if (!(simulation.getPlanets().contains(planet1) && simulation.getPlanets().contains(planet2))) {
-                return;
-            }
-
-            float p1Weight = planet1.getMass();
-            float p2Weight = planet2.getMass();
-            Vector3 newPos = interpolateVector3ByWeight(planet1.getPosition(), planet2.getPosition(), p1Weight,
-                    p2Weight);
-            Vector3 newVel = interpolateVector3ByWeight(planet1.getVelocity(), planet2.getVelocity(), p1Weight,
-                    p2Weight);
-            float newRadius = calculateCombinedRadius(planet1, planet2);
-
-            Planet bigPlanet = null;
-            Planet smallPlanet = null;
-            if (planet1.getRadius() > planet2.getRadius()) {
-                bigPlanet = planet1;
-                smallPlanet = planet2;
-            } else {
-                bigPlanet = planet2;
-                smallPlanet = planet1;
+            if (sleepNanoseconds > 0) {
+                LockSupport.parkNanos(sleepNanoseconds);
             }
-
-            simulation.removePlanet(smallPlanet);
-            bigPlanet.setPosition(newPos);
-            bigPlanet.setVelocity(newVel);
-            bigPlanet.setRadius(newRadius);
         }
     }
 
-    // REQUIRES: weight1 + weight2 > 0
-    // EFFECTS: interpolates between two Vector3s with a given weighting for each
-    private Vector3 interpolateVector3ByWeight(Vector3 val1, Vector3 val2, float weight1, float weight2) {
-        Vector3 weightedVal1 = Vector3.multiply(val1, weight1);
-        Vector3 weightedVal2 = Vector3.multiply(val2, weight2);
-        return Vector3.multiply(Vector3.add(weightedVal1, weightedVal2), 1.0f / (weight1 + weight2));
+    // MODIFIES: this
+    // EFFECTS: adds the scaled wall-clock time since the last tick to the accumulated time, and steps the
+    // simulation by FIXED_DELTATIME for as long as enough time has accumulated. at most MAX_SUBSTEPS_PER_TICK steps
+    // are taken per tick, and any time left over past that is dropped, so that a simulation which can't keep up
+    // runs slower rather than falling further and further behind
+    @Override
+    public void tick() {
+        long tickNanoseconds = System.nanoTime();
+        float deltaTimeSeconds = (float) (tickNanoseconds - lastTickNanoseconds) / 1000000000.0f;
+        lastTickNanoseconds = tickNanoseconds;
+        if (!isRunning) {
+            accumulatedTime = 0.0f;
+            return;
+        }
+        accumulatedTime += Math.min(deltaTimeSeconds, MAX_DELTATIME) * timeScale;
+        int substeps = 0;
+        while (isRunning && accumulatedTime >= FIXED_DELTATIME && substeps < MAX_SUBSTEPS_PER_TICK) {
+            stepSimulation();
+            accumulatedTime -= FIXED_DELTATIME;
+            substeps++;
+        }
+        if (substeps == MAX_SUBSTEPS_PER_TICK) {
+            accumulatedTime = Math.min(accumulatedTime, FIXED_DELTATIME);
+        }
     }
 
-    // EFFECTS: returns the radius of a planet with the combined volume of the given
-    // two planets
-    private float calculateCombinedRadius(Planet planet1, Planet planet2) {
-        float rad1 = planet1.getRadius();
-        float rad2 = planet2.getRadius();
-        return (float) Math.cbrt(rad1 * rad1 * rad1 + rad2 * rad2 * rad2);
+    // MODIFIES: this
+    // EFFECTS: steps the simulation by FIXED_DELTATIME and merges any planets which collided, stopping the
+    // simulation if no planets are left
+    private void stepSimulation() {
+        lock();
+        simulation.progressBySeconds(FIXED_DELTATIME);
+        simulation.mergeCollidedPlanets();
+        if (simulation.getPlanets().size() == 0) {
+            isRunning = false;
+        }
+        unlock();
     }
 }
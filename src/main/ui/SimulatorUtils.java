@@ -1,6 +1,7 @@
 package ui;
 
 import model.*;
+import ui.engine.shader.Texture;
 import java.awt.*;
 import java.util.*;
 
@@ -57,6 +58,11 @@ public class SimulatorUtils {
         }
     }
 
+    // EFFECTS: loads image and converts it into a texture which shaders can sample
+    public static Texture loadTexture(String imgName) {
+        return new Texture(loadImage(imgName));
+    }
+
     // EFFECTS: generates a possible name of a new planet
     public static String generateNewPlanetName() {
         String name = NEW_PLANET_NAMES[RANDOM.nextInt(NEW_PLANET_NAMES.length)];
@@ -66,7 +72,11 @@ public class SimulatorUtils {
 
     // EFFECTS: returns the type of a given planet
     public static PlanetType getPlanetType(Planet planet) {
-        float radius = planet.getRadius();
+        return getPlanetType(planet.getRadius());
+    }
+
+    // EFFECTS: returns the type of a planet with the given radius
+    public static PlanetType getPlanetType(float radius) {
         if (radius >= PLANET_STAR_MINRADIUS) {
             return PlanetType.Star;
         }
@@ -76,26 +86,24 @@ public class SimulatorUtils {
         return PlanetType.Rocky;
     }
 
-    // EFFECTS: creates a new planet based on the existing planets and returns it
+    // EFFECTS: creates a new planet based on the existing planets in the latest
+    // simulation snapshot and returns it
     public static Planet createNewPlanet() {
-        SimulatorState simState = SimulatorState.getInstance();
+        SimulationSnapshot snapshot = SimulatorState.getInstance().getSnapshot();
 
-        simState.lock();
-
-        java.util.List<Planet> planetList = simState.getSimulation().getPlanets();
-        ArrayList<Planet> starPlanets = new ArrayList<>();
-        ArrayList<Planet> gasPlanets = new ArrayList<>();
-        ArrayList<Planet> rockyPlanets = new ArrayList<>();
-        for (Planet planet : planetList) {
-            switch (getPlanetType(planet)) {
+        ArrayList<Integer> starPlanets = new ArrayList<>();
+        ArrayList<Integer> gasPlanets = new ArrayList<>();
+        ArrayList<Integer> rockyPlanets = new ArrayList<>();
+        for (int i = 0; i < snapshot.getPlanetCount(); i++) {
+            switch (getPlanetType(snapshot.getRadius(i))) {
                 case Star:
-                    starPlanets.add(planet);
+                    starPlanets.add(i);
                     break;
                 case GasGiant:
-                    gasPlanets.add(planet);
+                    gasPlanets.add(i);
                     break;
                 case Rocky:
-                    rockyPlanets.add(planet);
+                    rockyPlanets.add(i);
                     break;
                 default:
                     break;
@@ -103,48 +111,45 @@ public class SimulatorUtils {
         }
 
         if (starPlanets.size() == 0) {
-            simState.unlock();
             Planet newestStar = createNewStar();
             newestStar.setPosition(new Vector3(0, 0, -newestStar.getRadius() * NEWEWST_STAR_PUSHBACK_FACTOR));
             return newestStar;
         }
         if ((gasPlanets.size() != 0) && (rockyPlanets.size() < gasPlanets.size() * MAX_ROCKY_TO_GASGIANT_RATIO)) {
-            Planet toOrbit = gasPlanets.get(Math.max(0, gasPlanets.size() - 1 - RANDOM.nextInt(1)));
+            int toOrbit = gasPlanets.get(Math.max(0, gasPlanets.size() - 1 - RANDOM.nextInt(1)));
             float newRadius = randomFloatInRangeGaussian(PLANET_ROCKY_MINRADIUS, PLANET_ROCKY_MAXRADIUS);
             Planet newRocky = new Planet(generateNewPlanetName(), newRadius);
-            setPlanetToOrbit(newRocky, toOrbit, ROCKY_ORBIT_MINMULTIPLE, ROCKY_ORBIT_MAXMULTIPLE);
-
-            simState.unlock();
+            setPlanetToOrbit(newRocky, snapshot, toOrbit, ROCKY_ORBIT_MINMULTIPLE, ROCKY_ORBIT_MAXMULTIPLE);
             return newRocky;
         }
         if (gasPlanets.size() < starPlanets.size() * MAX_GASGIANT_TO_STAR_RATIO) {
-            Planet toOrbit = starPlanets.get(RANDOM.nextInt(starPlanets.size()));
+            int toOrbit = starPlanets.get(RANDOM.nextInt(starPlanets.size()));
             float newRadius = randomFloatInRangeGaussian(PLANET_GASGIANT_MINRADIUS, PLANET_GASGIANT_MAXRADIUS);
             Planet newGasPlanet = new Planet(generateNewPlanetName(), newRadius);
-            setPlanetToOrbit(newGasPlanet, toOrbit, GASGIANT_ORBIT_MINMULTIPLE, GASGIANT_ORBIT_MAXMULTIPLE);
-
-            simState.unlock();
+            setPlanetToOrbit(newGasPlanet, snapshot, toOrbit, GASGIANT_ORBIT_MINMULTIPLE,
+                    GASGIANT_ORBIT_MAXMULTIPLE);
             return newGasPlanet;
         }
 
-        simState.unlock();
         return createNewStar();
     }
 
     // EFFECTS: returns the required tangential velocity for a body to orbit around
-    // the given planet circularly at the given radius
-    private static float getOrbitalVelocity(Planet planet, float radius) {
-        float circularVel = (float) Math.sqrt(planet.getMass() * Simulation.GRAVITATIONAL_CONSTANT / radius);
+    // a planet of the given mass circularly at the given radius
+    private static float getOrbitalVelocity(float mass, float radius) {
+        float circularVel = (float) Math.sqrt(mass * Simulation.GRAVITATIONAL_CONSTANT / radius);
         return circularVel
                 * randomFloatInRange(1.0f - PLANET_ORBIT_VELVARIANCE, 1.0f + PLANET_ORBIT_VELVARIANCE);
     }
 
     // MODIFIES: orbiter
-    // EFFECTS: places the orbiter in orbit around the orbitee within a random
-    // radius between minMultiple and maxMultiple times the radius of orbitee, while
-    // mildly randomizing the orbital parameters
-    private static void setPlanetToOrbit(Planet orbiter, Planet orbitee, float minMultiple, float maxMultiple) {
-        float orbitRadius = randomFloatInRange(orbitee.getRadius() * minMultiple, orbitee.getRadius() * maxMultiple);
+    // EFFECTS: places the orbiter in orbit around the planet at the orbitee index of
+    // the snapshot within a random radius between minMultiple and maxMultiple times
+    // the radius of orbitee, while mildly randomizing the orbital parameters
+    private static void setPlanetToOrbit(Planet orbiter, SimulationSnapshot snapshot, int orbitee, float minMultiple,
+            float maxMultiple) {
+        float orbiteeRadius = snapshot.getRadius(orbitee);
+        float orbitRadius = randomFloatInRange(orbiteeRadius * minMultiple, orbiteeRadius * maxMultiple);
         Vector3 orbitRotation = new Vector3(
                 randomFloatInRangeGaussian(-PLANET_ORBIT_ROTVARIANCE, PLANET_ORBIT_ROTVARIANCE),
                 randomFloatInRange(0.0f, 360.0f),
@@ -152,9 +157,9 @@ public class SimulatorUtils {
         Transform rotationTransform = Transform.rotation(orbitRotation);
         Vector3 orbitPosOrigin = Transform.multiply(rotationTransform, new Vector3(orbitRadius, 0, 0));
         Vector3 orbitVelocity = Transform.multiply(rotationTransform,
-                new Vector3(0, 0, getOrbitalVelocity(orbitee, orbitRadius)));
-        orbiter.setPosition(Vector3.add(orbitee.getPosition(), orbitPosOrigin));
-        orbiter.setVelocity(Vector3.add(orbitee.getVelocity(), orbitVelocity));
+                new Vector3(0, 0, getOrbitalVelocity(snapshot.getMass(orbitee), orbitRadius)));
+        orbiter.setPosition(Vector3.add(snapshot.getPosition(orbitee), orbitPosOrigin));
+        orbiter.setVelocity(Vector3.add(snapshot.getVelocity(orbitee), orbitVelocity));
     }
 
     // EFFECTS: creates a new planet which acts as a star near around the origin on
@@ -183,19 +188,32 @@ public class SimulatorUtils {
         return mean + deviation * (float) RANDOM.nextGaussian();
     }
 
-    // MODIFIES: simDestination
-    // EFFECTS: copies all values of simSource to simDestination
+    // MODIFIES: simDestination, simSource
+    // EFFECTS: moves all planets and collisions of simSource into simDestination, replacing its contents.
+    // simSource should be discarded afterwards
     public static void transferSimData(Simulation simDestination, Simulation simSource) {
+        simDestination.clear();
         simDestination.setTimeElapsed(simSource.getTimeElapsed());
-
-        simDestination.getPlanets().clear();
-        simDestination.getPlanets().addAll(simSource.getPlanets());
-
-        simDestination.getHistoricPlanets().clear();
-        simDestination.getHistoricPlanets().addAll(simSource.getHistoricPlanets());
-
-        simDestination.getCollisions().clear();
-        simDestination.getCollisions().addAll(simSource.getCollisions());
+        simDestination.setForceMode(simSource.getForceMode());
+        simDestination.setOpeningAngle(simSource.getOpeningAngle());
+        simDestination.setIntegrator(simSource.getIntegrator());
+
+        // NOTE:
+        // a planet can only be simulated by one simulation at a time, so the source is
+        // emptied before its planets are added to the destination
+        ArrayList<Planet> planets = new ArrayList<>(simSource.getPlanets());
+        ArrayList<Planet> historicPlanets = new ArrayList<>(simSource.getHistoricPlanets());
+        ArrayList<Collision> collisions = new ArrayList<>(simSource.getCollisions());
+        simSource.clear();
+        for (Planet planet : planets) {
+            simDestination.addPlanet(planet);
+        }
+        for (Planet historicPlanet : historicPlanets) {
+            simDestination.addHistoricPlanet(historicPlanet);
+        }
+        for (Collision collision : collisions) {
+            simDestination.addCollision(collision);
+        }
     }
 
     // EFFECTS: creates a "Title" JLabel and returns it
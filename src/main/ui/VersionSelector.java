@@ -2,9 +2,12 @@ package ui;
 
 import ui.legacy.*;
 import javax.swing.*;
+import java.util.concurrent.locks.*;
 
 // Simple version selector for old or new version of the simulation manager
 public class VersionSelector {
+    private static final long GUI_TICK_NANOSECONDS = 16000000L;
+
     // EFFECTS: creates a popup prompting the user to either run the new or legacy
     // version of the NBody simulator, and runs accordingly
     public VersionSelector() {
@@ -16,9 +19,14 @@ public class VersionSelector {
         if (result == 0) {
             SimulatorState simState = SimulatorState.getInstance();
             SimulatorGUI simGfx = SimulatorGUI.getInstance();
+            simState.startPhysicsThread();
+            simGfx.startRenderThread();
+            // NOTE:
+            // the simulation and the viewport run on their own threads, so the rest of
+            // the gui only needs to be updated about as often as the screen refreshes
             while (true) {
-                simState.tick();
                 simGfx.tick();
+                LockSupport.parkNanos(GUI_TICK_NANOSECONDS);
             }
         }
 
@@ -2,6 +2,7 @@ package ui.engine;
 
 import model.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import ui.SimulatorState;
 import ui.Tickable;
@@ -43,6 +44,8 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
     private float pitchVelocity;
 
     private Transform viewTransform;
+    private Transform velRotation;
+    private Transform rotationScratch;
 
     // EFFECTS: initializes self to listen for user inputs and initializes self to
     // default camera coordinates
@@ -51,7 +54,10 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
         this.parent.getPanel().addKeyListener(this);
         this.parent.getPanel().addMouseListener(this);
 
-        keysDown = new HashSet<>();
+        keysDown = ConcurrentHashMap.newKeySet();
+        viewTransform = new Transform();
+        velRotation = new Transform();
+        rotationScratch = new Transform();
         resetCamera();
 
         lastTickNanoseconds = System.nanoTime();
@@ -67,7 +73,6 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
         yawVelocity = 0.0f;
         pitch = 0.0f;
         pitchVelocity = 0.0f;
-        viewTransform = new Transform();
     }
 
     // EFFECTS: ignores
@@ -92,12 +97,22 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
 
     // REQUIRES: planet is NOT null
     // MODIFIES: this
-    // EFFECTS: jumps camera to be looking directly towards the target planet
+    // EFFECTS: jumps camera to be looking directly towards the target planet, if it
+    // is in the latest simulation snapshot
     public void jumpToPlanet(Planet planet) {
-        Transform cameraRotation = Transform.multiply(Transform.rotationX(pitch), Transform.rotationY(yaw));
+        SimulationSnapshot snapshot = SimulatorState.getInstance().getSnapshot();
+        int index = snapshot.indexOf(planet);
+        if (index == -1) {
+            return;
+        }
+        // NOTE:
+        // this runs on the UI thread rather than the render thread which ticks the
+        // camera, so it can't share the tick's scratch matrices
+        Transform cameraRotation = new Transform();
+        setCameraRotation(cameraRotation, new Transform());
         Vector3 pullbackPos = Transform.multiply(cameraRotation,
-                new Vector3(0.0f, 0.0f, planet.getRadius() * PLANET_JUMP_PULLBACK_FACTOR));
-        position = Vector3.add(planet.getPosition(), pullbackPos);
+                new Vector3(0.0f, 0.0f, snapshot.getRadius(index) * PLANET_JUMP_PULLBACK_FACTOR));
+        position = Vector3.add(snapshot.getPosition(index), pullbackPos);
     }
 
     // MODIFES: this
@@ -115,7 +130,7 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
 
         handleInputs(deltaTimeSeconds);
 
-        Transform velRotation = Transform.multiply(Transform.rotationX(pitch), Transform.rotationY(yaw));
+        setCameraRotation(velRotation, rotationScratch);
         float maxVelActual = MAX_VELOCITY;
         if (keysDown.contains(KeyEvent.VK_SHIFT)) {
             maxVelActual *= MAX_VELOCITY_SHIFT_FACTOR;
@@ -140,33 +155,43 @@ public class CameraController implements Tickable, KeyListener, MouseListener {
         pitch = Math.max(Math.min(pitch, PITCH_RANGE), -PITCH_RANGE);
         pitchVelocity *= Math.pow((1.0f - ANGULAR_DRAG), deltaTimeSeconds);
 
-        viewTransform = Transform.translation(Vector3.multiply(position, -1.0f));
-        viewTransform = Transform.multiply(viewTransform, Transform.rotationY(-yaw));
-        viewTransform = Transform.multiply(viewTransform, Transform.rotationX(-pitch));
-        parent.setViewTransform(viewTransform);
+        updateViewTransform();
 
         lastTickNanoseconds = System.nanoTime();
     }
 
+    // MODIFIES: this
+    // EFFECTS: rebuilds the view transform in place from the camera's position, yaw and pitch, multiplying the
+    // rotations onto the translation, and hands it to the parent
+    private void updateViewTransform() {
+        viewTransform.setTranslation(-position.getX(), -position.getY(), -position.getZ());
+        Transform.multiplyInto(viewTransform, rotationScratch.setRotationY(-yaw), viewTransform);
+        Transform.multiplyInto(viewTransform, rotationScratch.setRotationX(-pitch), viewTransform);
+        parent.setViewTransform(viewTransform);
+    }
+
+    // MODIFIES: dest, scratch
+    // EFFECTS: sets dest to the rotation of the camera, which pitches before it yaws, building the yaw in scratch
+    private void setCameraRotation(Transform dest, Transform scratch) {
+        dest.setRotationX(pitch);
+        Transform.multiplyInto(dest, scratch.setRotationY(yaw), dest);
+    }
+
     // MODIFIES: this
     // EFFECTS: de-intersects the camera with all planets
     private void handleCameraCollisions() {
-        SimulatorState simState = SimulatorState.getInstance();
-        simState.lock();
-
-        for (Planet planet : simState.getSimulation().getPlanets()) {
-            Vector3 displacement = Vector3.sub(position, planet.getPosition());
+        SimulationSnapshot snapshot = parent.getSnapshot();
+        for (int i = 0; i < snapshot.getPlanetCount(); i++) {
+            Vector3 displacement = Vector3.sub(position, snapshot.getPosition(i));
             float distance = displacement.magnitude();
             float boundRadius = Math.abs(RenderEngine.CLIPPING_PLANE_DEPTH * CAMERA_DECOLLIDE_FACTOR)
-                    + planet.getRadius();
+                    + snapshot.getRadius(i);
             if (distance < boundRadius) {
                 float pushbackDist = boundRadius - distance;
                 Vector3 pushbackVector = Vector3.multiply(Vector3.normalize(displacement), pushbackDist);
                 position = Vector3.add(position, pushbackVector);
             }
         }
-
-        simState.unlock();
     }
 
     // MODIFIES: this
@@ -17,6 +17,15 @@ public class Mesh {
     private Vector3[] uvs;
     private int[] indicies;
 
+    // NOTE:
+    // obj files index positions and uvs separately, so every distinct pair of
+    // position and uv used by a face becomes a single vertex in these buffers.
+    // this lets each vertex be transformed once per draw, no matter how many
+    // triangles share it
+    private float[] vertexPositions;
+    private float[] vertexUVs;
+    private int[] triangleIndicies;
+
     // REQUIRES: inidices must not index outside of verts, uvs, indicies.length must
     // be a multiple of INDICIE_ELEMENTS_PER_TRI
     // EFFECTS: initializes a mesh based on the given objects
@@ -24,6 +33,35 @@ public class Mesh {
         this.verts = Arrays.copyOf(verts, verts.length);
         this.uvs = Arrays.copyOf(uvs, uvs.length);
         this.indicies = Arrays.copyOf(indicies, indicies.length);
+        buildVertexBuffers();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: builds the flat vertex, uv and triangle index buffers out of the unique pairs of position and uv
+    // referenced by the faces of the mesh
+    private void buildVertexBuffers() {
+        Map<Long, Integer> vertexIndicies = new HashMap<>();
+        triangleIndicies = new int[getTriangleCount() * 3];
+        vertexPositions = new float[triangleIndicies.length * 3];
+        vertexUVs = new float[triangleIndicies.length * 2];
+        for (int i = 0; i < triangleIndicies.length; i++) {
+            int posIndex = indicies[i * 2];
+            int uvIndex = indicies[i * 2 + 1];
+            long key = ((long) posIndex << 32) | (uvIndex & 0xFFFFFFFFL);
+            Integer vertex = vertexIndicies.get(key);
+            if (vertex == null) {
+                vertex = vertexIndicies.size();
+                vertexIndicies.put(key, vertex);
+                vertexPositions[vertex * 3] = verts[posIndex].getX();
+                vertexPositions[vertex * 3 + 1] = verts[posIndex].getY();
+                vertexPositions[vertex * 3 + 2] = verts[posIndex].getZ();
+                vertexUVs[vertex * 2] = uvs[uvIndex].getX();
+                vertexUVs[vertex * 2 + 1] = uvs[uvIndex].getY();
+            }
+            triangleIndicies[i] = vertex;
+        }
+        vertexPositions = Arrays.copyOf(vertexPositions, vertexIndicies.size() * 3);
+        vertexUVs = Arrays.copyOf(vertexUVs, vertexIndicies.size() * 2);
     }
 
     // EFFECTS: returns the amount of triangles currently in the mesh
@@ -31,21 +69,95 @@ public class Mesh {
         return indicies.length / INDICIE_ELEMENTS_PER_TRI;
     }
 
-    // REQUIRES: triangle must be > 0 and <= getTriangleCount()
-    // EFFECTS: returns a given triangle contained within the mesh by a given
-    // triangle index
-    public Triangle getTriangle(int triangle) {
-        Triangle tri = new Triangle();
+    // EFFECTS: returns the amount of unique verticies in the vertex buffers
+    public int getVertexCount() {
+        return vertexPositions.length / 3;
+    }
+
+    // EFFECTS: returns the positions of every unique vertex, packed as xyz. the
+    // returned array must not be modified
+    public float[] getVertexPositions() {
+        return vertexPositions;
+    }
+
+    // EFFECTS: returns the uvs of every unique vertex, packed as uv. the returned
+    // array must not be modified
+    public float[] getVertexUVs() {
+        return vertexUVs;
+    }
+
+    // EFFECTS: returns the three unique vertex indicies of every triangle, in
+    // triangle order. the returned array must not be modified
+    public int[] getTriangleIndicies() {
+        return triangleIndicies;
+    }
+
+    // REQUIRES: segments >= 3, rings >= 2
+    // EFFECTS: generates a unit uv sphere with the given number of segments around
+    // its equator and rings from pole to pole. its uvs and winding match those of
+    // MESH_UVSPHERE_NAME, so that the same textures wrap around it the same way
+    public static Mesh createUVSphere(int segments, int rings) {
+        Vector3[] vertArray = new Vector3[(segments + 1) * (rings + 1)];
+        Vector3[] uvArray = new Vector3[vertArray.length];
+        for (int ring = 0; ring <= rings; ring++) {
+            for (int segment = 0; segment <= segments; segment++) {
+                // NOTE:
+                // each pole vertex is only used by one triangle, so its u is centered on that triangle
+                float poleOffset = (ring == 0) ? 0.5f : ((ring == rings) ? -0.5f : 0.0f);
+                float texU = ((float) segment + poleOffset) / (float) segments;
+                float texV = (float) ring / (float) rings;
+                vertArray[segment + ring * (segments + 1)] = getUVSpherePosition(texU, texV);
+                uvArray[segment + ring * (segments + 1)] = new Vector3(texU, texV, 0.0f);
+            }
+        }
+
+        ArrayList<Integer> indexList = new ArrayList<>();
+        for (int ring = 0; ring < rings; ring++) {
+            for (int segment = 0; segment < segments; segment++) {
+                addUVSphereQuad(indexList, segment + ring * (segments + 1), segments + 1, ring, rings);
+            }
+        }
+        return new Mesh(vertArray, uvArray, indexList.stream().mapToInt(Integer::intValue).toArray());
+    }
 
-        tri.verts[0] = verts[indicies[(triangle * INDICIE_ELEMENTS_PER_TRI) + 0]];
-        tri.verts[1] = verts[indicies[(triangle * INDICIE_ELEMENTS_PER_TRI) + 2]];
-        tri.verts[2] = verts[indicies[(triangle * INDICIE_ELEMENTS_PER_TRI) + 4]];
+    // EFFECTS: returns the point of the unit sphere which the given uv maps to,
+    // where u wraps around the y axis starting from -x and v goes from the bottom
+    // pole to the top pole
+    private static Vector3 getUVSpherePosition(float texU, float texV) {
+        double latitude = (texV - 0.5) * Math.PI;
+        double longitude = (0.75 - texU) * 2.0 * Math.PI;
+        float ringRadius = (float) Math.cos(latitude);
+        return new Vector3(ringRadius * (float) Math.sin(longitude), (float) Math.sin(latitude),
+                -ringRadius * (float) Math.cos(longitude));
+    }
 
-        tri.uvs[0] = uvs[indicies[(triangle * INDICIE_ELEMENTS_PER_TRI) + 1]];
-        tri.uvs[1] = uvs[indicies[(triangle * INDICIE_ELEMENTS_PER_TRI) + 3]];
-        tri.uvs[2] = uvs[indicies[(triangle * INDICIE_ELEMENTS_PER_TRI) + 5]];
+    // MODIFIES: indexList
+    // EFFECTS: adds the quad whose bottom left corner is the given vertex of the
+    // given ring to indexList as two triangles, split along the same diagonal as
+    // MESH_UVSPHERE_NAME. the quads touching the poles collapse into one triangle
+    private static void addUVSphereQuad(ArrayList<Integer> indexList, int corner, int rowLength, int ring,
+            int rings) {
+        int right = corner + 1;
+        int topRight = corner + rowLength + 1;
+        int top = corner + rowLength;
+        if (ring > 0) {
+            addUVSphereTriangle(indexList, corner, right, topRight);
+        }
+        if (ring < rings - 1) {
+            addUVSphereTriangle(indexList, corner, topRight, top);
+        }
+    }
 
-        return new Triangle(tri); // make copy so that references aren't to internal objects
+    // MODIFIES: indexList
+    // EFFECTS: adds a triangle whose verticies each share their position and uv
+    // index to indexList
+    private static void addUVSphereTriangle(ArrayList<Integer> indexList, int vert0, int vert1, int vert2) {
+        indexList.add(vert0);
+        indexList.add(vert0);
+        indexList.add(vert1);
+        indexList.add(vert1);
+        indexList.add(vert2);
+        indexList.add(vert2);
     }
 
     // REQUIRES: file must be a obj file, with no normal data exported within it,
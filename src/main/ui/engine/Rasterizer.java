@@ -0,0 +1,927 @@
+package ui.engine;
+
+import model.*;
+import java.util.*;
+import ui.engine.shader.*;
+
+// Rasterizes the triangles and lines of a frame into a color and depth buffer. Primitives are clipped, projected
+// and binned into square screen tiles as they are submitted, and are only drawn once the frame is finished, when
+// the tiles are shaded in parallel. every tile is drawn by a single worker which only writes to the pixels of
+// that tile, so no synchronization is needed on fragment writes, and the primitives of each tile are drawn in the
+// order they were submitted
+//
+// triangles are drawn with edge functions: the edge equations and the perspective-correct gradients of each
+// attribute are set up once per triangle, then stepped incrementally across every span. primitives are kept in
+// flat arrays which are re-used between frames, so drawing doesn't allocate anything once the arrays have grown
+//
+// every tile keeps a coarse depth buffer of HIZ_BLOCK_SIZE square blocks, holding the farthest depth of each block.
+// a primitive whose nearest depth is no nearer than the farthest depth of every block it overlaps is hidden and
+// skipped without drawing it, and the remaining fragments are depth tested before they are shaded. the coarse
+// depths are brought up to date between the objects marked by beginObject and endObject, rather than after every
+// primitive. primitives are drawn fastest when submitted from front to back
+public class Rasterizer {
+    public static final int TILE_SIZE = 32;
+    public static final int VERTEX_STRIDE = 5;
+    private static final int COLOR_CLEAR_VALUE = 0xFF000000;
+    private static final float DEPTH_CLEAR_VALUE = Float.NEGATIVE_INFINITY;
+    private static final float DRAWLINE_EPSILON = 0.0001f;
+    private static final float MIN_TRIANGLE_AREA = 0.0001f;
+    private static final float EDGE_EPSILON = 0.00001f;
+    private static final int INITIAL_BIN_CAPACITY = 16;
+    private static final int INITIAL_PRIMITIVE_CAPACITY = 256;
+    private static final float DISC_MIN_RADIUS = 0.75f;
+    private static final float SPHERE_MIN_FOOTPRINT_SCALE = 0.1f;
+    private static final int HIZ_BLOCK_SIZE = 8;
+    private static final int HIZ_BLOCKS_PER_AXIS = TILE_SIZE / HIZ_BLOCK_SIZE;
+    private static final int HIZ_BLOCKS_PER_TILE = HIZ_BLOCKS_PER_AXIS * HIZ_BLOCKS_PER_AXIS;
+
+    // NOTE:
+    // the layout of each primitive in primitiveData. a triangle holds its three
+    // barycentric edge planes, then its 1/z, u/z and v/z planes, each stored as the
+    // (x step, y step, value at the origin) of the plane, then its pixel bounds. a
+    // line holds the screenspace xyz of both of its ends. a disc holds the
+    // screenspace xyz of its center, then its radius in pixels. a sphere holds the
+    // viewspace xyz of its center, its radius, the rotation from viewspace into the
+    // sphere's own space. every primitive then holds its pixel bounds and the
+    // depth of its nearest point
+    private static final int PRIMITIVE_STRIDE = 23;
+    private static final int PLANE_INVZ = 9;
+    private static final int PLANE_UOVERZ = 12;
+    private static final int PLANE_VOVERZ = 15;
+    private static final int BOUNDS = 18;
+    private static final int NEAREST_DEPTH = 22;
+    private static final int SPHERE_ROTATION = 4;
+    private static final float TWO_PI = (float) (Math.PI * 2.0);
+
+    // Represents the kinds of primitives which can be drawn
+    private enum PrimitiveType {
+        Triangle,
+        Line,
+        Disc,
+        Sphere
+    }
+
+    // Represents the pixel bounds [minX, maxX) x [minY, maxY) of the tile being drawn
+    private static final class Tile {
+        final int minX;
+        final int minY;
+        final int maxX;
+        final int maxY;
+
+        // EFFECTS: creates the bounds of the tile at the given tile coordinates of a buffer of the given size
+        Tile(int tileX, int tileY, int bufferSize) {
+            minX = tileX * TILE_SIZE;
+            minY = tileY * TILE_SIZE;
+            maxX = Math.min(minX + TILE_SIZE, bufferSize);
+            maxY = Math.min(minY + TILE_SIZE, bufferSize);
+        }
+    }
+
+    private final int bufferSize;
+    private int[] colorBuffer;
+    private final float[] depthBuffer;
+    private final int tilesPerAxis;
+    private final Tile[] tiles;
+    private final ParallelExecutor executor;
+
+    private int primitiveCount;
+    private AbstractShader[] primitiveShaders;
+    private PrimitiveType[] primitiveTypes;
+    private int[] primitiveObjects;
+    private int currentObject;
+    private float[] primitiveData;
+    private int[][] tileBins;
+    private int[] tileBinCounts;
+    private float[] tileFarDepths;
+    private int[] tileOccludedCounts;
+
+    private float[] clipVertices;
+    private float[] lineVertices;
+
+    private boolean cullBackFaces;
+    private int culledTriangleCount;
+    private int[] background;
+
+    // REQUIRES: colorBuffer and depthBuffer both have bufferSize * bufferSize elements
+    // EFFECTS: creates a rasterizer which draws into the given buffers, shading the tiles across the threads of
+    // executor
+    public Rasterizer(int bufferSize, int[] colorBuffer, float[] depthBuffer, ParallelExecutor executor) {
+        this.bufferSize = bufferSize;
+        this.colorBuffer = colorBuffer;
+        this.depthBuffer = depthBuffer;
+        this.executor = executor;
+        tilesPerAxis = (bufferSize + TILE_SIZE - 1) / TILE_SIZE;
+        tiles = new Tile[tilesPerAxis * tilesPerAxis];
+        for (int tileIndex = 0; tileIndex < tiles.length; tileIndex++) {
+            tiles[tileIndex] = new Tile(tileIndex % tilesPerAxis, tileIndex / tilesPerAxis, bufferSize);
+        }
+        primitiveCount = 0;
+        primitiveShaders = new AbstractShader[INITIAL_PRIMITIVE_CAPACITY];
+        primitiveTypes = new PrimitiveType[INITIAL_PRIMITIVE_CAPACITY];
+        primitiveObjects = new int[INITIAL_PRIMITIVE_CAPACITY];
+        currentObject = 0;
+        primitiveData = new float[INITIAL_PRIMITIVE_CAPACITY * PRIMITIVE_STRIDE];
+        tileBins = new int[tilesPerAxis * tilesPerAxis][INITIAL_BIN_CAPACITY];
+        tileBinCounts = new int[tilesPerAxis * tilesPerAxis];
+        tileFarDepths = new float[tilesPerAxis * tilesPerAxis * HIZ_BLOCKS_PER_TILE];
+        tileOccludedCounts = new int[tilesPerAxis * tilesPerAxis];
+        clipVertices = new float[4 * VERTEX_STRIDE];
+        lineVertices = new float[2 * VERTEX_STRIDE];
+        cullBackFaces = false;
+        culledTriangleCount = 0;
+        background = null;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    // REQUIRES: colorBuffer has bufferSize * bufferSize elements
+    // MODIFIES: this
+    // EFFECTS: sets the color buffer which frames are drawn into from the next frame on
+    public void setColorBuffer(int[] colorBuffer) {
+        this.colorBuffer = colorBuffer;
+    }
+
+    // EFFECTS: returns the number of primitives submitted since the frame began
+    public int getPrimitiveCount() {
+        return primitiveCount;
+    }
+
+    // EFFECTS: returns the number of triangles dropped for facing away from the camera since the frame began
+    public int getCulledTriangleCount() {
+        return culledTriangleCount;
+    }
+
+    // EFFECTS: returns the number of times a primitive was skipped in a tile for being hidden behind what the tile
+    // had already drawn, in the last frame drawn
+    public int getOccludedCount() {
+        int count = 0;
+        for (int tileCount : tileOccludedCounts) {
+            count += tileCount;
+        }
+        return count;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets whether triangles submitted from now on are dropped when they face away from the camera. this
+    // should only be enabled for closed meshes which are viewed from the outside
+    public void setBackFaceCulling(boolean cullBackFaces) {
+        this.cullBackFaces = cullBackFaces;
+    }
+
+    // REQUIRES: background is null or has bufferSize * bufferSize elements, which aren't modified until the frame
+    // has ended
+    // MODIFIES: this
+    // EFFECTS: sets the colors the framebuffer is cleared to when the frame is drawn, or clears it to black if
+    // background is null
+    public void setBackground(int[] background) {
+        this.background = background;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards every primitive submitted so far, starting a new frame
+    public void beginFrame() {
+        Arrays.fill(primitiveShaders, 0, primitiveCount, null);
+        primitiveCount = 0;
+        currentObject = 0;
+        culledTriangleCount = 0;
+        Arrays.fill(tileBinCounts, 0);
+    }
+
+    // REQUIRES: the last object begun has been ended
+    // MODIFIES: this
+    // EFFECTS: starts a new object, which every primitive submitted until endObject is a part of. primitives
+    // submitted outside of an object are grouped together until the next object begins
+    public void beginObject() {
+        currentObject++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the current object, so that the primitives submitted after it aren't a part of it
+    public void endObject() {
+        currentObject++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the buffers and draws every primitive submitted since the frame began, with the tiles shaded
+    // in parallel. returns once the whole frame has been drawn
+    public void endFrame() {
+        executor.forEachRange(tileBinCounts.length, 1, (from, to) -> {
+            for (int tileIndex = from; tileIndex < to; tileIndex++) {
+                drawTile(tileIndex);
+            }
+        });
+    }
+
+    // REQUIRES: vertices holds viewspace vertices packed as VERTEX_STRIDE floats of x, y, z, u, v, and v0, v1, v2
+    // are vertex numbers within it
+    // MODIFIES: this
+    // EFFECTS: clips the triangle against the clipping plane, projects it to screenspace, sets up its edge and
+    // attribute planes, and bins it into every tile its pixel bounds overlap
+    public void submitTriangle(AbstractShader shader, float[] vertices, int v0, int v1, int v2) {
+        int clippedCount = 0;
+        clippedCount = clipEdge(vertices, v0, v1, clippedCount);
+        clippedCount = clipEdge(vertices, v1, v2, clippedCount);
+        clippedCount = clipEdge(vertices, v2, v0, clippedCount);
+        if (clippedCount < 3) {
+            return; // nothing to draw
+        }
+        for (int i = 0; i < clippedCount; i++) {
+            projectVertexToScreenSpace(clipVertices, i);
+        }
+        if (cullBackFaces && getClippedSignedArea(clippedCount) <= 0.0f) {
+            culledTriangleCount++;
+            return;
+        }
+
+        // NOTE:
+        // clipping a triangle leaves a convex polygon of 3 or 4 verticies, which is
+        // drawn as a fan of triangles
+        setupTriangle(shader, 0, 1, 2);
+        if (clippedCount == 4) {
+            setupTriangle(shader, 0, 2, 3);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clips the viewspace line against the clipping plane, projects it to screenspace, and bins it into
+    // every tile its bounds overlap
+    public void submitLine(AbstractShader shader, Vector3 from, Vector3 to) {
+        setVertex(lineVertices, 0, from);
+        setVertex(lineVertices, 1, to);
+        submitLine(shader, lineVertices, 0, 1);
+    }
+
+    // REQUIRES: vertices holds viewspace vertices packed as VERTEX_STRIDE floats of x, y, z, u, v, and from and to
+    // are vertex numbers within it
+    // MODIFIES: this
+    // EFFECTS: clips the line between the given verticies against the clipping plane, projects it to screenspace,
+    // and bins it into every tile its bounds overlap
+    public void submitLine(AbstractShader shader, float[] vertices, int from, int to) {
+        float fromDepth = vertices[from * VERTEX_STRIDE + 2];
+        float toDepth = vertices[to * VERTEX_STRIDE + 2];
+        if (fromDepth >= RenderEngine.CLIPPING_PLANE_DEPTH && toDepth >= RenderEngine.CLIPPING_PLANE_DEPTH) {
+            return;
+        }
+        System.arraycopy(vertices, from * VERTEX_STRIDE, lineVertices, 0, VERTEX_STRIDE);
+        System.arraycopy(vertices, to * VERTEX_STRIDE, lineVertices, VERTEX_STRIDE, VERTEX_STRIDE);
+        if (toDepth >= RenderEngine.CLIPPING_PLANE_DEPTH) {
+            interpolateVertex(lineVertices, 0, 1, getClippingFactor(fromDepth, toDepth), lineVertices, 1);
+        } else if (fromDepth >= RenderEngine.CLIPPING_PLANE_DEPTH) {
+            interpolateVertex(lineVertices, 1, 0, getClippingFactor(toDepth, fromDepth), lineVertices, 0);
+        }
+        projectVertexToScreenSpace(lineVertices, 0);
+        projectVertexToScreenSpace(lineVertices, 1);
+
+        int base = addPrimitive(shader, PrimitiveType.Line);
+        System.arraycopy(lineVertices, 0, primitiveData, base, 3);
+        System.arraycopy(lineVertices, VERTEX_STRIDE, primitiveData, base + 3, 3);
+        float[] data = primitiveData;
+        data[base + NEAREST_DEPTH] = Math.max(data[base + 2], data[base + 5]);
+        binPrimitive(Math.min(data[base], data[base + 3]) - 1.0f, Math.min(data[base + 1], data[base + 4]) - 1.0f,
+                Math.max(data[base], data[base + 3]) + 1.0f, Math.max(data[base + 1], data[base + 4]) + 1.0f);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a screen-facing disc covering the projection of a viewspace sphere with the given center and
+    // radius, flat shaded with the color at the center of the shader's texture, and bins it into every tile it
+    // overlaps. spheres whose centers are behind the clipping plane are skipped
+    public void submitDisc(AbstractShader shader, Vector3 center, float radius) {
+        if (center.getZ() >= RenderEngine.CLIPPING_PLANE_DEPTH) {
+            return;
+        }
+        setVertex(lineVertices, 0, center);
+        projectVertexToScreenSpace(lineVertices, 0);
+        float pixelRadius = Math.max(DISC_MIN_RADIUS, radius / Math.abs(center.getZ()) * 0.5f * (float) bufferSize);
+
+        int base = addPrimitive(shader, PrimitiveType.Disc);
+        primitiveData[base] = lineVertices[0];
+        primitiveData[base + 1] = lineVertices[1];
+        primitiveData[base + 2] = Math.min(center.getZ() + radius, RenderEngine.CLIPPING_PLANE_DEPTH);
+        primitiveData[base + 3] = pixelRadius;
+        primitiveData[base + NEAREST_DEPTH] = primitiveData[base + 2];
+        binPrimitive(lineVertices[0] - pixelRadius, lineVertices[1] - pixelRadius, lineVertices[0] + pixelRadius,
+                lineVertices[1] + pixelRadius);
+    }
+
+    // REQUIRES: transform maps the unit sphere into viewspace with a uniform scale, and the resulting sphere lies
+    // entirely in front of the clipping plane
+    // MODIFIES: this
+    // EFFECTS: adds a sphere which is drawn by casting a ray through every pixel of its screenspace bounds, giving
+    // exact depths and the same spherical uvs as Mesh.createUVSphere, and bins it into every tile it overlaps
+    public void submitSphere(AbstractShader shader, Transform transform) {
+        float[] comp = transform.getValues();
+        float radius = Transform.extractScale(transform).getX();
+        int base = addPrimitive(shader, PrimitiveType.Sphere);
+        for (int i = 0; i < 3; i++) {
+            primitiveData[base + i] = comp[12 + i];
+            for (int j = 0; j < 3; j++) {
+                // NOTE:
+                // the rotation is orthonormal, so its transpose is its inverse
+                primitiveData[base + SPHERE_ROTATION + i * 3 + j] = comp[i * 4 + j] / radius;
+            }
+        }
+        primitiveData[base + 3] = radius;
+        primitiveData[base + NEAREST_DEPTH] = comp[14] + radius;
+        setupSphereBounds(base + BOUNDS, comp[12], comp[14], radius);
+        setupSphereBounds(base + BOUNDS + 1, comp[13], comp[14], radius);
+        float[] data = primitiveData;
+        binPrimitive(data[base + BOUNDS], data[base + BOUNDS + 1], data[base + BOUNDS + 2], data[base + BOUNDS + 3]);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the first and last pixels along one screen axis which the sphere may cover at the given
+    // offset and two after it of primitiveData, from the two lines through the camera which are tangent to the
+    // sphere along that axis
+    private void setupSphereBounds(int offset, float center, float centerDepth, float radius) {
+        float distance = -centerDepth;
+        float denominator = distance * distance - radius * radius;
+        float spread = radius * (float) Math.sqrt(center * center + denominator);
+        float low = (center * distance - spread) / denominator;
+        float high = (center * distance + spread) / denominator;
+        primitiveData[offset] = Math.max(0.0f, (float) Math.floor((low + 1.0f) * 0.5f * bufferSize));
+        primitiveData[offset + 2] = Math.min(bufferSize - 1.0f, (float) Math.ceil((high + 1.0f) * 0.5f * bufferSize));
+    }
+
+    // MODIFIES: dest
+    // EFFECTS: sets the position of the given vertex of dest, leaving its uv as zero
+    private static void setVertex(float[] dest, int vertex, Vector3 position) {
+        dest[vertex * VERTEX_STRIDE] = position.getX();
+        dest[vertex * VERTEX_STRIDE + 1] = position.getY();
+        dest[vertex * VERTEX_STRIDE + 2] = position.getZ();
+        dest[vertex * VERTEX_STRIDE + 3] = 0.0f;
+        dest[vertex * VERTEX_STRIDE + 4] = 0.0f;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clips the edge from vertA to vertB against the clipping plane, appending the start of the edge to
+    // clipVertices if it is before the plane, and the point where the edge crosses the plane if it does. returns
+    // the new number of clipped verticies
+    private int clipEdge(float[] vertices, int vertA, int vertB, int clippedCount) {
+        float depthA = vertices[vertA * VERTEX_STRIDE + 2];
+        float depthB = vertices[vertB * VERTEX_STRIDE + 2];
+        boolean isBeforeA = depthA <= RenderEngine.CLIPPING_PLANE_DEPTH;
+        boolean isBeforeB = depthB <= RenderEngine.CLIPPING_PLANE_DEPTH;
+        if (isBeforeA) {
+            int destOffset = clippedCount * VERTEX_STRIDE;
+            System.arraycopy(vertices, vertA * VERTEX_STRIDE, clipVertices, destOffset, VERTEX_STRIDE);
+            clippedCount++;
+        }
+        if (isBeforeA != isBeforeB) {
+            float factor = getClippingFactor(depthA, depthB);
+            interpolateVertex(vertices, vertA, vertB, factor, clipVertices, clippedCount);
+            clippedCount++;
+        }
+        return clippedCount;
+    }
+
+    // MODIFIES: dest
+    // EFFECTS: writes the vertex interpolated from vertA to vertB of vertices by factor into the given vertex of dest
+    private static void interpolateVertex(float[] vertices, int vertA, int vertB, float factor, float[] dest,
+            int vertex) {
+        for (int i = 0; i < VERTEX_STRIDE; i++) {
+            float valueA = vertices[vertA * VERTEX_STRIDE + i];
+            float valueB = vertices[vertB * VERTEX_STRIDE + i];
+            dest[vertex * VERTEX_STRIDE + i] = valueA * (1.0f - factor) + valueB * factor;
+        }
+    }
+
+    // REQUIRES: one depth to be behind the clipping plane and the other to be before it
+    // EFFECTS: gets the interpolation factor from before to behind that places a
+    // vertex right on the clipping plane
+    private static float getClippingFactor(float beforeDepth, float behindDepth) {
+        return (RenderEngine.CLIPPING_PLANE_DEPTH - beforeDepth) / (behindDepth - beforeDepth);
+    }
+
+    // MODIFIES: vertices
+    // EFFECTS: projects the "worldspace" position of the given vertex into screenspace coordinates, keeping its
+    // depth
+    private void projectVertexToScreenSpace(float[] vertices, int vertex) {
+        int base = vertex * VERTEX_STRIDE;
+        // NOTE: despite facing down the -Z axis, we dont want X and Y axis to be
+        // inverted, so we take the Abs of the Z
+        float posX = vertices[base] / Math.abs(vertices[base + 2]);
+        float posY = vertices[base + 1] / Math.abs(vertices[base + 2]);
+        // NOTE: this transforms a point from [-1, 1] to [0, bufferSize]
+        vertices[base] = ((posX + 1.0f) * 0.5f) * (float) bufferSize;
+        vertices[base + 1] = ((posY + 1.0f) * 0.5f) * (float) bufferSize;
+    }
+
+    // EFFECTS: returns twice the signed screenspace area of the clipped polygon, which is positive when its
+    // verticies wind counter-clockwise on screen, meaning it faces the camera
+    private float getClippedSignedArea(int clippedCount) {
+        float area = 0.0f;
+        for (int i = 0; i < clippedCount; i++) {
+            int next = (i + 1) % clippedCount;
+            area += getClipCoord(i, 0) * getClipCoord(next, 1) - getClipCoord(next, 0) * getClipCoord(i, 1);
+        }
+        return area;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the screenspace triangle made of the given clipped verticies to the frame, with its edge
+    // planes normalized so that they give the barycentric weight of the opposite vertex. triangles which are too
+    // thin or lie off screen are dropped
+    private void setupTriangle(AbstractShader shader, int vertA, int vertB, int vertC) {
+        float area = (getClipCoord(vertB, 0) - getClipCoord(vertA, 0))
+                * (getClipCoord(vertC, 1) - getClipCoord(vertA, 1))
+                - (getClipCoord(vertC, 0) - getClipCoord(vertA, 0))
+                * (getClipCoord(vertB, 1) - getClipCoord(vertA, 1));
+        if (!(Math.abs(area) >= MIN_TRIANGLE_AREA) || Float.isInfinite(area)) {
+            return;
+        }
+        int base = addPrimitive(shader, PrimitiveType.Triangle);
+        setupEdge(base, vertB, vertC, area);
+        setupEdge(base + 3, vertC, vertA, area);
+        setupEdge(base + 6, vertA, vertB, area);
+        setupAttributePlanes(base, vertA, vertB, vertC);
+        primitiveData[base + NEAREST_DEPTH] = Math.max(getClipCoord(vertA, 2),
+                Math.max(getClipCoord(vertB, 2), getClipCoord(vertC, 2)));
+        if (!setupBounds(base, vertA, vertB, vertC)) {
+            primitiveShaders[--primitiveCount] = null;
+            return;
+        }
+        float[] data = primitiveData;
+        binPrimitive(data[base + BOUNDS], data[base + BOUNDS + 1], data[base + BOUNDS + 2], data[base + BOUNDS + 3]);
+    }
+
+    // EFFECTS: returns the given component of the given clipped vertex
+    private float getClipCoord(int vertex, int component) {
+        return clipVertices[vertex * VERTEX_STRIDE + component];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the plane of the edge from clipped vertex from to clipped vertex to, divided by area, at the
+    // given offset of primitiveData
+    private void setupEdge(int offset, int from, int to, float area) {
+        float fromX = clipVertices[from * VERTEX_STRIDE];
+        float fromY = clipVertices[from * VERTEX_STRIDE + 1];
+        float toX = clipVertices[to * VERTEX_STRIDE];
+        float toY = clipVertices[to * VERTEX_STRIDE + 1];
+        primitiveData[offset] = (fromY - toY) / area;
+        primitiveData[offset + 1] = (toX - fromX) / area;
+        primitiveData[offset + 2] = (fromX * toY - toX * fromY) / area;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the planes of 1/z, u/z and v/z of the triangle, which are the sums of each vertex's value
+    // weighted by its edge plane, so that they vary linearly in screenspace
+    private void setupAttributePlanes(int base, int vertA, int vertB, int vertC) {
+        Arrays.fill(primitiveData, base + PLANE_INVZ, base + PLANE_INVZ + 9, 0.0f);
+        addVertexToPlanes(base, 0, vertA);
+        addVertexToPlanes(base, 1, vertB);
+        addVertexToPlanes(base, 2, vertC);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the 1/z, u/z and v/z of the given clipped vertex, weighted by the plane of the edge opposite to
+    // it, which is the given edge of the triangle, to the triangle's attribute planes
+    private void addVertexToPlanes(int base, int edge, int vertex) {
+        float invDepth = 1.0f / clipVertices[vertex * VERTEX_STRIDE + 2];
+        for (int plane = 0; plane < 3; plane++) {
+            float value = (plane == 0) ? invDepth : clipVertices[vertex * VERTEX_STRIDE + 2 + plane] * invDepth;
+            int offset = base + PLANE_INVZ + plane * 3;
+            primitiveData[offset] += primitiveData[base + edge * 3] * value;
+            primitiveData[offset + 1] += primitiveData[base + edge * 3 + 1] * value;
+            primitiveData[offset + 2] += primitiveData[base + edge * 3 + 2] * value;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the bounds of the pixels whose centers the triangle may cover, clamped to the buffer, and
+    // returns whether any pixels are left
+    private boolean setupBounds(int base, int vertA, int vertB, int vertC) {
+        float minX = Math.min(getClipCoord(vertA, 0), Math.min(getClipCoord(vertB, 0), getClipCoord(vertC, 0)));
+        float maxX = Math.max(getClipCoord(vertA, 0), Math.max(getClipCoord(vertB, 0), getClipCoord(vertC, 0)));
+        float minY = Math.min(getClipCoord(vertA, 1), Math.min(getClipCoord(vertB, 1), getClipCoord(vertC, 1)));
+        float maxY = Math.max(getClipCoord(vertA, 1), Math.max(getClipCoord(vertB, 1), getClipCoord(vertC, 1)));
+        primitiveData[base + BOUNDS] = Math.max(0.0f, (float) Math.ceil(minX));
+        primitiveData[base + BOUNDS + 1] = Math.max(0.0f, (float) Math.ceil(minY));
+        primitiveData[base + BOUNDS + 2] = Math.min(bufferSize - 1.0f, (float) Math.floor(maxX));
+        primitiveData[base + BOUNDS + 3] = Math.min(bufferSize - 1.0f, (float) Math.floor(maxY));
+        return primitiveData[base + BOUNDS] <= primitiveData[base + BOUNDS + 2]
+                && primitiveData[base + BOUNDS + 1] <= primitiveData[base + BOUNDS + 3];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reserves space for a new primitive drawn with the given shader, growing the primitive arrays if
+    // needed, and returns the offset of its data in primitiveData
+    private int addPrimitive(AbstractShader shader, PrimitiveType type) {
+        if (primitiveCount == primitiveShaders.length) {
+            int capacity = primitiveCount * 2;
+            primitiveShaders = Arrays.copyOf(primitiveShaders, capacity);
+            primitiveTypes = Arrays.copyOf(primitiveTypes, capacity);
+            primitiveObjects = Arrays.copyOf(primitiveObjects, capacity);
+            primitiveData = Arrays.copyOf(primitiveData, capacity * PRIMITIVE_STRIDE);
+        }
+        primitiveShaders[primitiveCount] = shader;
+        primitiveTypes[primitiveCount] = type;
+        primitiveObjects[primitiveCount] = currentObject;
+        return (primitiveCount++) * PRIMITIVE_STRIDE;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the pixels within the given screenspace bounds as the newest primitive's pixel bounds, and
+    // adds it to the bin of every tile overlapping them. primitives with no finite bounds on screen are dropped
+    private void binPrimitive(float minX, float minY, float maxX, float maxY) {
+        int primitiveIndex = primitiveCount - 1;
+        if (!(Float.isFinite(minX) && Float.isFinite(minY) && Float.isFinite(maxX) && Float.isFinite(maxY))) {
+            primitiveShaders[--primitiveCount] = null;
+            return;
+        }
+        int bounds = primitiveIndex * PRIMITIVE_STRIDE + BOUNDS;
+        primitiveData[bounds] = Math.max(0.0f, (float) Math.floor(minX));
+        primitiveData[bounds + 1] = Math.max(0.0f, (float) Math.floor(minY));
+        primitiveData[bounds + 2] = Math.min(bufferSize - 1.0f, (float) Math.floor(maxX));
+        primitiveData[bounds + 3] = Math.min(bufferSize - 1.0f, (float) Math.floor(maxY));
+        int tileMinX = Math.max(0, (int) Math.floor(minX / TILE_SIZE));
+        int tileMinY = Math.max(0, (int) Math.floor(minY / TILE_SIZE));
+        int tileMaxX = Math.min(tilesPerAxis - 1, (int) Math.floor(maxX / TILE_SIZE));
+        int tileMaxY = Math.min(tilesPerAxis - 1, (int) Math.floor(maxY / TILE_SIZE));
+        if (tileMinX > tileMaxX || tileMinY > tileMaxY) {
+            primitiveShaders[--primitiveCount] = null;
+            return;
+        }
+        for (int tileY = tileMinY; tileY <= tileMaxY; tileY++) {
+            for (int tileX = tileMinX; tileX <= tileMaxX; tileX++) {
+                addToBin(tileX + tileY * tilesPerAxis, primitiveIndex);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends the primitive index to the bin of the given tile
+    private void addToBin(int tileIndex, int primitiveIndex) {
+        if (tileBinCounts[tileIndex] == tileBins[tileIndex].length) {
+            tileBins[tileIndex] = Arrays.copyOf(tileBins[tileIndex], tileBins[tileIndex].length * 2);
+        }
+        tileBins[tileIndex][tileBinCounts[tileIndex]++] = primitiveIndex;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the given tile and draws every primitive in its bin which isn't hidden, only touching the
+    // tile's own pixels
+    private void drawTile(int tileIndex) {
+        Tile tile = tiles[tileIndex];
+        clearTile(tile);
+        Arrays.fill(tileFarDepths, tileIndex * HIZ_BLOCKS_PER_TILE, (tileIndex + 1) * HIZ_BLOCKS_PER_TILE,
+                DEPTH_CLEAR_VALUE);
+        tileOccludedCounts[tileIndex] = 0;
+        int[] bin = tileBins[tileIndex];
+        int lastObject = -1;
+        int drawnBlocks = 0;
+        for (int i = 0; i < tileBinCounts[tileIndex]; i++) {
+            // NOTE:
+            // the coarse depths are only brought up to date in between objects rather than
+            // after every primitive, since rescanning the blocks costs more than it saves
+            // for primitives of the same object
+            if (primitiveObjects[bin[i]] != lastObject) {
+                updateFarDepths(tileIndex, tile, drawnBlocks);
+                drawnBlocks = 0;
+                lastObject = primitiveObjects[bin[i]];
+            }
+            int blocks = getOverlappedBlocks(bin[i], tile);
+            if (isHidden(bin[i], tileIndex, blocks)) {
+                tileOccludedCounts[tileIndex]++;
+                continue;
+            }
+            drawPrimitive(bin[i], tile);
+            drawnBlocks |= blocks;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: draws the part of the given primitive which lies in the tile
+    private void drawPrimitive(int primitive, Tile tile) {
+        switch (primitiveTypes[primitive]) {
+            case Line:
+                drawLine(primitive, tile);
+                break;
+
+            case Disc:
+                drawDisc(primitive, tile);
+                break;
+
+            case Sphere:
+                drawSphere(primitive, tile);
+                break;
+
+            default:
+                drawTriangle(primitive, tile);
+        }
+    }
+
+    // EFFECTS: returns the coarse depth blocks of the tile which the primitive's pixel bounds overlap, as a mask
+    // with one bit per block
+    private int getOverlappedBlocks(int primitive, Tile tile) {
+        int bounds = primitive * PRIMITIVE_STRIDE + BOUNDS;
+        int minX = Math.max(tile.minX, (int) primitiveData[bounds]) - tile.minX;
+        int minY = Math.max(tile.minY, (int) primitiveData[bounds + 1]) - tile.minY;
+        int maxX = Math.min(tile.maxX - 1, (int) primitiveData[bounds + 2]) - tile.minX;
+        int maxY = Math.min(tile.maxY - 1, (int) primitiveData[bounds + 3]) - tile.minY;
+        int blocks = 0;
+        for (int blockY = minY / HIZ_BLOCK_SIZE; blockY <= maxY / HIZ_BLOCK_SIZE && minY <= maxY; blockY++) {
+            for (int blockX = minX / HIZ_BLOCK_SIZE; blockX <= maxX / HIZ_BLOCK_SIZE && minX <= maxX; blockX++) {
+                blocks |= 1 << (blockX + blockY * HIZ_BLOCKS_PER_AXIS);
+            }
+        }
+        return blocks;
+    }
+
+    // EFFECTS: returns whether the primitive is no nearer than everything already drawn in each of the given
+    // blocks of the tile, which includes when it overlaps no blocks at all
+    private boolean isHidden(int primitive, int tileIndex, int blocks) {
+        float nearestDepth = primitiveData[primitive * PRIMITIVE_STRIDE + NEAREST_DEPTH];
+        for (int remaining = blocks; remaining != 0; remaining &= remaining - 1) {
+            int block = Integer.numberOfTrailingZeros(remaining);
+            if (nearestDepth > tileFarDepths[tileIndex * HIZ_BLOCKS_PER_TILE + block]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the coarse depth of each of the given blocks of the tile to the farthest depth in the block
+    private void updateFarDepths(int tileIndex, Tile tile, int blocks) {
+        for (int remaining = blocks; remaining != 0; remaining &= remaining - 1) {
+            int block = Integer.numberOfTrailingZeros(remaining);
+            int minX = tile.minX + (block % HIZ_BLOCKS_PER_AXIS) * HIZ_BLOCK_SIZE;
+            int minY = tile.minY + (block / HIZ_BLOCKS_PER_AXIS) * HIZ_BLOCK_SIZE;
+            int maxX = Math.min(minX + HIZ_BLOCK_SIZE, tile.maxX);
+            int maxY = Math.min(minY + HIZ_BLOCK_SIZE, tile.maxY);
+            float farDepth = Float.POSITIVE_INFINITY;
+            for (int posY = minY; posY < maxY; posY++) {
+                int rowStart = getBufferIndex(minX, posY);
+                for (int index = rowStart; index < rowStart + maxX - minX; index++) {
+                    farDepth = Math.min(farDepth, depthBuffer[index]);
+                }
+            }
+            tileFarDepths[tileIndex * HIZ_BLOCKS_PER_TILE + block] = farDepth;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: clears the tile's pixels in the framebuffer to the background and the depth buffer
+    private void clearTile(Tile tile) {
+        for (int posY = tile.minY; posY < tile.maxY; posY++) {
+            int rowStart = getBufferIndex(tile.minX, posY);
+            if (background == null) {
+                Arrays.fill(colorBuffer, rowStart, rowStart + tile.maxX - tile.minX, COLOR_CLEAR_VALUE);
+            } else {
+                System.arraycopy(background, rowStart, colorBuffer, rowStart, tile.maxX - tile.minX);
+            }
+            Arrays.fill(depthBuffer, rowStart, rowStart + tile.maxX - tile.minX, DEPTH_CLEAR_VALUE);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shades every pixel of the tile whose center is covered by the triangle
+    private void drawTriangle(int primitive, Tile tile) {
+        int base = primitive * PRIMITIVE_STRIDE;
+        int minX = Math.max(tile.minX, (int) primitiveData[base + BOUNDS]);
+        int minY = Math.max(tile.minY, (int) primitiveData[base + BOUNDS + 1]);
+        int maxX = Math.min(tile.maxX - 1, (int) primitiveData[base + BOUNDS + 2]);
+        int maxY = Math.min(tile.maxY - 1, (int) primitiveData[base + BOUNDS + 3]);
+        for (int posY = minY; posY <= maxY; posY++) {
+            drawTriangleSpan(primitiveShaders[primitive], base, minX, maxX, posY);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shades the pixels from minX to maxX of the given row which the triangle covers, evaluating its
+    // planes once at the start of the span and stepping them from pixel to pixel
+    private void drawTriangleSpan(AbstractShader shader, int base, int minX, int maxX, int posY) {
+        float[] data = primitiveData;
+        float weight0 = evaluatePlane(base, minX, posY);
+        float weight1 = evaluatePlane(base + 3, minX, posY);
+        float weight2 = evaluatePlane(base + 6, minX, posY);
+        float invDepth = evaluatePlane(base + PLANE_INVZ, minX, posY);
+        float texUOverZ = evaluatePlane(base + PLANE_UOVERZ, minX, posY);
+        float texVOverZ = evaluatePlane(base + PLANE_VOVERZ, minX, posY);
+        for (int posX = minX; posX <= maxX; posX++) {
+            if (weight0 >= -EDGE_EPSILON && weight1 >= -EDGE_EPSILON && weight2 >= -EDGE_EPSILON) {
+                shadeTriangleFragment(shader, base, posX, posY, invDepth, texUOverZ, texVOverZ);
+            }
+            weight0 += data[base];
+            weight1 += data[base + 3];
+            weight2 += data[base + 6];
+            invDepth += data[base + PLANE_INVZ];
+            texUOverZ += data[base + PLANE_UOVERZ];
+            texVOverZ += data[base + PLANE_VOVERZ];
+        }
+    }
+
+    // EFFECTS: returns the value of the plane stored at the given offset of primitiveData at the given pixel
+    private float evaluatePlane(int offset, int posX, int posY) {
+        return primitiveData[offset] * posX + primitiveData[offset + 1] * posY + primitiveData[offset + 2];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shades a fragment of the triangle from its 1/z, u/z and v/z at the given pixel, unless it fails the
+    // depth test, in which case it isn't shaded at all. the footprint
+    // of the uv along each axis is the larger of its x and y derivatives, and the derivative of u is the derivative
+    // of u/z less u times the derivative of 1/z, all times z
+    private void shadeTriangleFragment(AbstractShader shader, int base, int posX, int posY, float invDepth,
+            float texUOverZ, float texVOverZ) {
+        float depth = 1.0f / invDepth;
+        if (depthBuffer[getBufferIndex(posX, posY)] >= depth) {
+            return;
+        }
+        float[] data = primitiveData;
+        float texU = texUOverZ * depth;
+        float texV = texVOverZ * depth;
+        float footprintU = Math.max(Math.abs(data[base + PLANE_UOVERZ] - texU * data[base + PLANE_INVZ]),
+                Math.abs(data[base + PLANE_UOVERZ + 1] - texU * data[base + PLANE_INVZ + 1]));
+        float footprintV = Math.max(Math.abs(data[base + PLANE_VOVERZ] - texV * data[base + PLANE_INVZ]),
+                Math.abs(data[base + PLANE_VOVERZ + 1] - texV * data[base + PLANE_INVZ + 1]));
+        float depthScale = Math.abs(depth);
+        shadeFragment(shader, posX, posY, depth, texU, texV, footprintU * depthScale, footprintV * depthScale);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shades a fragment at the given pixel, depth, uv and uv footprint, and writes it to the pixel if it
+    // isn't culled and passes the depth test
+    private void shadeFragment(AbstractShader shader, int posX, int posY, float depth, float texU, float texV,
+            float texFootprintU, float texFootprintV) {
+        int color = shader.shade(posX, posY, texU, texV, texFootprintU, texFootprintV);
+        if (color == AbstractShader.CULL_FRAGMENT) {
+            return;
+        }
+        writeFragment(getBufferIndex(posX, posY), depth, 0xFF000000 | color);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: draws the pixels of the tile whose centers lie inside of the disc at the depth of its nearest point
+    private void drawDisc(int primitive, Tile tile) {
+        int base = primitive * PRIMITIVE_STRIDE;
+        // NOTE:
+        // a disc is far too small to show any detail, so it is shaded once with a
+        // footprint covering the whole texture, which gives its average color
+        int color = primitiveShaders[primitive].shade(0, 0, 0.5f, 0.5f, 1.0f, 1.0f);
+        if (color == AbstractShader.CULL_FRAGMENT) {
+            return;
+        }
+        float centerX = primitiveData[base];
+        float centerY = primitiveData[base + 1];
+        float radius = primitiveData[base + 3];
+        int minY = Math.max(tile.minY, (int) Math.ceil(centerY - radius));
+        int maxY = Math.min(tile.maxY - 1, (int) Math.floor(centerY + radius));
+        for (int posY = minY; posY <= maxY; posY++) {
+            float halfWidth = (float) Math.sqrt(radius * radius - (posY - centerY) * (posY - centerY));
+            int minX = Math.max(tile.minX, (int) Math.ceil(centerX - halfWidth));
+            int maxX = Math.min(tile.maxX - 1, (int) Math.floor(centerX + halfWidth));
+            for (int posX = minX; posX <= maxX; posX++) {
+                writeFragment(getBufferIndex(posX, posY), primitiveData[base + 2], 0xFF000000 | color);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shades every pixel of the tile whose ray hits the sphere, at the depth and uv of the nearest hit
+    private void drawSphere(int primitive, Tile tile) {
+        int base = primitive * PRIMITIVE_STRIDE;
+        int minX = Math.max(tile.minX, (int) primitiveData[base + BOUNDS]);
+        int minY = Math.max(tile.minY, (int) primitiveData[base + BOUNDS + 1]);
+        int maxX = Math.min(tile.maxX - 1, (int) primitiveData[base + BOUNDS + 2]);
+        int maxY = Math.min(tile.maxY - 1, (int) primitiveData[base + BOUNDS + 3]);
+        for (int posY = minY; posY <= maxY; posY++) {
+            for (int posX = minX; posX <= maxX; posX++) {
+                castSphereRay(primitive, base, posX, posY);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: intersects the ray through the given pixel with the sphere, and shades the nearest hit if there is
+    // one which passes the depth test. the ray is (x, y, -1) scaled by distance, which undoes the projection of the
+    // pixel
+    private void castSphereRay(int primitive, int base, int posX, int posY) {
+        float[] data = primitiveData;
+        float rayX = posX * 2.0f / bufferSize - 1.0f;
+        float rayY = posY * 2.0f / bufferSize - 1.0f;
+        float rayLengthSquared = rayX * rayX + rayY * rayY + 1.0f;
+        float centerAlongRay = rayX * data[base] + rayY * data[base + 1] - data[base + 2];
+        float centerDistanceSquared = data[base] * data[base] + data[base + 1] * data[base + 1]
+                + data[base + 2] * data[base + 2];
+        float radius = data[base + 3];
+        float discriminant = centerAlongRay * centerAlongRay
+                - rayLengthSquared * (centerDistanceSquared - radius * radius);
+        if (discriminant < 0.0f) {
+            return;
+        }
+        float distance = (centerAlongRay - (float) Math.sqrt(discriminant)) / rayLengthSquared;
+        if (depthBuffer[getBufferIndex(posX, posY)] >= -distance) {
+            return;
+        }
+        float normalX = (rayX * distance - data[base]) / radius;
+        float normalY = (rayY * distance - data[base + 1]) / radius;
+        float normalZ = (-distance - data[base + 2]) / radius;
+        float facing = Math.abs(normalX * rayX + normalY * rayY - normalZ) / (float) Math.sqrt(rayLengthSquared);
+        shadeSphereFragment(primitive, posX, posY, distance, facing, normalX, normalY, normalZ);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shades the hit at the given distance along the ray, where the sphere has the given viewspace normal
+    // and faces the ray by the given cosine. the footprint is the angle which one pixel spans on the surface, which
+    // grows with distance and as the surface turns away, converted into uv, where u is stretched near the poles
+    private void shadeSphereFragment(int primitive, int posX, int posY, float distance, float facing, float normalX,
+            float normalY, float normalZ) {
+        float[] data = primitiveData;
+        int rotation = primitive * PRIMITIVE_STRIDE + SPHERE_ROTATION;
+        float localX = normalX * data[rotation] + normalY * data[rotation + 1] + normalZ * data[rotation + 2];
+        float localY = normalX * data[rotation + 3] + normalY * data[rotation + 4] + normalZ * data[rotation + 5];
+        float localZ = normalX * data[rotation + 6] + normalY * data[rotation + 7] + normalZ * data[rotation + 8];
+        float pixelAngle = distance * 2.0f / bufferSize
+                / (data[primitive * PRIMITIVE_STRIDE + 3] * Math.max(facing, SPHERE_MIN_FOOTPRINT_SCALE));
+        float latitudeScale = Math.max((float) Math.sqrt(localX * localX + localZ * localZ),
+                SPHERE_MIN_FOOTPRINT_SCALE);
+        shadeFragment(primitiveShaders[primitive], posX, posY, -distance, getSphereTexU(localX, localZ),
+                getSphereTexV(localY), pixelAngle / (TWO_PI * latitudeScale), pixelAngle / (float) Math.PI);
+    }
+
+    // EFFECTS: returns the u coordinate which Mesh.createUVSphere gives to a point of the unit sphere, from 0 to 1
+    public static float getSphereTexU(float localX, float localZ) {
+        float texU = 0.75f - (float) Math.atan2(localX, -localZ) / TWO_PI;
+        return (texU < 0.0f) ? texU + 1.0f : texU;
+    }
+
+    // EFFECTS: returns the v coordinate which Mesh.createUVSphere gives to a point of the unit sphere, from 0 to 1
+    public static float getSphereTexV(float localY) {
+        return 0.5f + (float) Math.asin(Math.max(-1.0f, Math.min(1.0f, localY))) / (float) Math.PI;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the color and depth to the given buffer index if it passes the depth test
+    private void writeFragment(int index, float depth, int color) {
+        if (depthBuffer[index] >= depth) {
+            return;
+        }
+        colorBuffer[index] = color;
+        depthBuffer[index] = depth;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: draws the part of a 2D line which lies in the tile, stepping once along each axis
+    private void drawLine(int primitive, Tile tile) {
+        int base = primitive * PRIMITIVE_STRIDE;
+        int color = primitiveShaders[primitive].shade(0, 0, 0.0f, 0.0f, 0.0f, 0.0f);
+        drawLineAlongAxis(color, base, 0, tile);
+        drawLineAlongAxis(color, base, 1, tile);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: draws the part of a 2D line which lies in the tile to the framebuffer in screenspace, stepping a
+    // pixel at a time along the given axis, where 0 is x and 1 is y
+    private void drawLineAlongAxis(int color, int base, int axis, Tile tile) {
+        float[] data = primitiveData;
+        int low = (data[base + axis] <= data[base + 3 + axis]) ? base : base + 3;
+        int high = (low == base) ? base + 3 : base;
+        float delta = data[high + axis] - data[low + axis];
+        if (delta <= DRAWLINE_EPSILON) {
+            return;
+        }
+        int other = 1 - axis;
+        float slope = (data[high + other] - data[low + other]) / delta;
+        float start = skipToPixel(Math.max(0.0f, data[low + axis]), (axis == 0) ? tile.minX : tile.minY);
+        float end = Math.min(((axis == 0) ? tile.maxX : tile.maxY) - 0.5f, data[high + axis]);
+        for (float drawPos = start; drawPos <= end; drawPos += 1.0f) {
+            float interp = (drawPos - data[low + axis]) / delta;
+            float otherPos = data[low + other] + (drawPos - data[low + axis]) * slope;
+            float depth = data[low + 2] * (1.0f - interp) + interp * data[high + 2];
+            if (axis == 0) {
+                drawLineFragment(drawPos, otherPos, depth, color, tile);
+            } else {
+                drawLineFragment(otherPos, drawPos, depth, color, tile);
+            }
+        }
+    }
+
+    // EFFECTS: returns the first of start, start + 1, start + 2, ... which rounds to a pixel at or past min, so that
+    // lines which began outside of a tile keep the same sample positions inside of it
+    private static float skipToPixel(float start, int min) {
+        float skip = (float) Math.ceil(min - 0.5f - start);
+        return (skip > 0.0f) ? start + skip : start;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: draws a single line pixel to the framebuffer using the specified color,
+    // given that it lies in the tile and passes the depth test
+    private void drawLineFragment(float posX, float posY, float depth, int color, Tile tile) {
+        int pixelX = (int) (posX + 0.5f);
+        int pixelY = (int) (posY + 0.5f);
+
+        if (pixelX < tile.minX || pixelX >= tile.maxX || pixelY < tile.minY || pixelY >= tile.maxY) {
+            return;
+        }
+
+        writeFragment(getBufferIndex(pixelX, pixelY), depth, color);
+    }
+
+    // EFFECTS: returns the 1D index for the framebuffer and depth buffer given a 2D
+    // (x,y) coordinate
+    private int getBufferIndex(int x, int y) {
+        return x + (bufferSize * (bufferSize - 1 - y));
+    }
+}
@@ -7,84 +7,167 @@ import javax.swing.*;
 import java.awt.image.*;
 import ui.engine.shader.*;
 import java.util.ArrayList;
-import java.util.concurrent.locks.*;
-
-// Hosts the rendering logic code for ViewportPanel, functions similarly to ui.legacy's ViewportEngine class
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.*;
+
+// Hosts the rendering logic code for ViewportPanel, functions similarly to ui.legacy's ViewportEngine class. frames
+// are drawn on a render thread into one of three framebuffers, and each finished frame is published by atomically
+// swapping it with the latest one. the swing thread takes the latest frame the same way when it paints, so the
+// render thread always has a framebuffer of its own to draw into and neither thread ever waits on the other
 public class RenderEngine implements Tickable {
     public static final float CLIPPING_PLANE_DEPTH = -0.1f;
-    private static final int COLOR_CLEAR_VALUE = 0xFF000000;
-    private static final float DEPTH_CLEAR_VALUE = Float.NEGATIVE_INFINITY;
     private static final float VIEWPORT_SCALE_FACTOR = 0.97f;
     private static final float SELECTOR_SCALE = 1.15f;
     private static final Mesh DEBUG_MESH = Mesh.loadMeshByFileName(Mesh.MESH_DEBUG_NAME);
     private static final Mesh PLANET_MESH = Mesh.loadMeshByFileName(Mesh.MESH_UVSPHERE_NAME);
     private static final Mesh PLANET_SELECTOR_MESH = Mesh.loadMeshByFileName(Mesh.MESH_ICOSPHERE_NAME);
-    private static final BufferedImage TEXTURE_DEBUG = SimulatorUtils.loadImage("debug.jpg");
-    private static final BufferedImage TEXTURE_EARTH = SimulatorUtils.loadImage("special/earth.jpg");
-    private static final BufferedImage TEXTURE_PAUL = SimulatorUtils.loadImage("special/paul.jpg");
-    private static final BufferedImage TEXTURE_UNIVERSE = SimulatorUtils.loadImage("special/universe.png");
-    private static final float UNIVERSE_SCALE = 500000.0f;
-    private static final BufferedImage TEXTURE_SUN = SimulatorUtils.loadImage("sun.jpg");
-    private static final BufferedImage[] TEXTURE_ROCKY_PLANETS = {
-            SimulatorUtils.loadImage("rockyA.jpg"),
-            SimulatorUtils.loadImage("rockyB.jpg"),
-            SimulatorUtils.loadImage("rockyC.jpg"),
-            SimulatorUtils.loadImage("rockyD.jpg"),
-            SimulatorUtils.loadImage("rockyE.jpg"),
-            SimulatorUtils.loadImage("rockyF.jpg"),
+    private static final Mesh[] PLANET_LOD_MESHES = {
+            Mesh.createUVSphere(32, 16),
+            PLANET_MESH,
+            Mesh.createUVSphere(8, 4)
+    };
+    private static final float[] PLANET_LOD_MIN_PIXEL_RADII = { 96.0f, 24.0f, 0.0f };
+    private static final float IMPOSTOR_MAX_PIXEL_RADIUS = 2.0f;
+    private static final Texture TEXTURE_DEBUG = SimulatorUtils.loadTexture("debug.jpg");
+    private static final Texture TEXTURE_EARTH = SimulatorUtils.loadTexture("special/earth.jpg");
+    private static final Texture TEXTURE_PAUL = SimulatorUtils.loadTexture("special/paul.jpg");
+    private static final Texture TEXTURE_UNIVERSE = SimulatorUtils.loadTexture("special/universe.png");
+    private static final int UNIVERSE_FACE_SIZE = 256;
+    private static final Texture TEXTURE_SUN = SimulatorUtils.loadTexture("sun.jpg");
+    private static final Texture[] TEXTURE_ROCKY_PLANETS = {
+            SimulatorUtils.loadTexture("rockyA.jpg"),
+            SimulatorUtils.loadTexture("rockyB.jpg"),
+            SimulatorUtils.loadTexture("rockyC.jpg"),
+            SimulatorUtils.loadTexture("rockyD.jpg"),
+            SimulatorUtils.loadTexture("rockyE.jpg"),
+            SimulatorUtils.loadTexture("rockyF.jpg"),
     };
-    private static final BufferedImage[] TEXTURE_GASGIANT_PLANETS = {
-            SimulatorUtils.loadImage("gasA.jpg"),
-            SimulatorUtils.loadImage("gasB.jpg"),
-            SimulatorUtils.loadImage("gasC.jpg"),
-            SimulatorUtils.loadImage("gasD.jpg"),
-            SimulatorUtils.loadImage("gasE.jpg"),
-            SimulatorUtils.loadImage("gasF.jpg")
+    private static final Texture[] TEXTURE_GASGIANT_PLANETS = {
+            SimulatorUtils.loadTexture("gasA.jpg"),
+            SimulatorUtils.loadTexture("gasB.jpg"),
+            SimulatorUtils.loadTexture("gasC.jpg"),
+            SimulatorUtils.loadTexture("gasD.jpg"),
+            SimulatorUtils.loadTexture("gasE.jpg"),
+            SimulatorUtils.loadTexture("gasF.jpg")
     };
     private static final float PLANET_SPIN_MAX = 500.0f;
     private static final float TRAIL_UPDATE_FACTOR = 0.2f;
     private static final float TRAIL_UPDATE_MINDISTANCE = 5.0f;
-    private static final float DRAWLINE_EPSILON = 0.0001f;
-
-    private int bufferSize;
-    private float[] depthBuffer;
-    private int[] colorBuffer;
-    private BufferedImage image;
-    private ReentrantLock imageSync;
+    private static final int FRAME_COUNT = 3;
+    private static final int FRAME_FRESH_FLAG = 4;
+    private static final int MIN_RESOLUTION = 160;
+    private static final int MAX_RESOLUTION = 800;
+    private static final int RESOLUTION_STEP = 10;
+    private static final float DEFAULT_TARGET_FRAME_MILLISECONDS = 16.0f;
+    private static final float FRAME_TIME_SMOOTHING = 0.1f;
+    private static final float FRAME_TIME_TOLERANCE = 0.15f;
+    private static final float MAX_RESIZE_FACTOR = 1.25f;
+    private static final int RESIZE_COOLDOWN_FRAMES = 20;
+
+    // Represents how planets are drawn, either as triangle meshes or as ray-cast spheres. this is a setting of the
+    // viewer, so it isn't part of the simulation or saved with it
+    public enum PlanetRenderMode {
+        Mesh, RayCast
+    }
+
+    private BufferedImage[] frames;
+    private int[][] frameColorBuffers;
+    private int renderFrame;
+    private int displayFrame;
+    private AtomicInteger latestFrame;
+    private AtomicBoolean isRepaintPending;
+    private Thread renderThread;
+    private ParallelExecutor executor;
+    private Rasterizer rasterizer;
+    private volatile int resolution;
+    private volatile float frameMilliseconds;
+    private volatile float targetFrameMilliseconds;
+    private volatile PlanetRenderMode planetRenderMode;
+    private int framesSinceResize;
+    private int frameNumber;
+    private Skybox universe;
+    private float[] viewVertices;
 
     private SimulatorState simState;
+    private SimulationSnapshot snapshot;
     private JPanel parent;
 
     private Transform viewTransform;
+    private TransformStack transformStack;
+    private volatile int culledPlanetCount;
+    private volatile int culledTriangleCount;
+    private volatile int occludedCount;
+    private long[] visiblePlanetKeys;
+    private Vector3[] planetViewPositions;
     private CameraController cameraController;
 
     private Planet lastSelectedPlanet;
     private ArrayList<Vector3> selectedPlanetTrail;
+    private HashMap<Integer, LineShader> lineShaders;
 
-    // EFFECTS: initializes the framebuffer to be size x size dimensions,
+    // EFFECTS: initializes the framebuffers to be size x size dimensions, clamped to the resolution bounds,
     // initializes a cameracontroller and viewtransfrom
     public RenderEngine(JPanel parent, int size) {
         this.parent = parent;
         parent.setFocusable(true);
 
         simState = SimulatorState.getInstance();
+        snapshot = simState.getSnapshot();
 
-        bufferSize = size;
-        depthBuffer = new float[size * size];
-        image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
-        imageSync = new ReentrantLock();
-
+        resolution = Math.max(MIN_RESOLUTION, Math.min(MAX_RESOLUTION, size));
+        targetFrameMilliseconds = DEFAULT_TARGET_FRAME_MILLISECONDS;
         // NOTE:
-        // this is a real hack of voodo magic to allow me to directly acess the internal
-        // data of a buffered image object. the alternative would be to create a new
-        // buffered image every frame which would be horribly slow
-        colorBuffer = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        // ray-casting gives exact silhouettes, but measured two to four times slower
+        // than drawing the level of detail mesh for the same sphere, so meshes are the
+        // default
+        planetRenderMode = PlanetRenderMode.Mesh;
+        frameMilliseconds = targetFrameMilliseconds;
+        framesSinceResize = 0;
+        createFrames(resolution);
+        executor = new ParallelExecutor(Runtime.getRuntime().availableProcessors());
+        rasterizer = new Rasterizer(resolution, frameColorBuffers[renderFrame], new float[resolution * resolution],
+                executor);
+        universe = new Skybox(TEXTURE_UNIVERSE, UNIVERSE_FACE_SIZE, executor);
+        viewVertices = new float[0];
+        visiblePlanetKeys = new long[0];
+        planetViewPositions = new Vector3[0];
 
         viewTransform = new Transform();
+        transformStack = new TransformStack();
         cameraController = new CameraController(this);
 
         lastSelectedPlanet = null;
         selectedPlanetTrail = new ArrayList<>();
+        lineShaders = new HashMap<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates the three size x size framebuffers, one to be drawn into, one holding the latest finished
+    // frame and one being displayed
+    private void createFrames(int size) {
+        frames = new BufferedImage[FRAME_COUNT];
+        frameColorBuffers = new int[FRAME_COUNT][];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            createFrame(i, size);
+        }
+        renderFrame = 0;
+        latestFrame = new AtomicInteger(1);
+        displayFrame = 2;
+        isRepaintPending = new AtomicBoolean(false);
+        renderThread = null;
+    }
+
+    // REQUIRES: the given frame isn't being displayed or held as the latest frame
+    // MODIFIES: this
+    // EFFECTS: replaces the given framebuffer with a new size x size one
+    private void createFrame(int frame, int size) {
+        frames[frame] = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        // NOTE:
+        // this is a real hack of voodo magic to allow me to directly acess the internal
+        // data of a buffered image object. the alternative would be to create a new
+        // buffered image every frame which would be horribly slow
+        frameColorBuffers[frame] = ((DataBufferInt) frames[frame].getRaster().getDataBuffer()).getData();
     }
 
     public void setViewTransform(Transform viewTransform) {
@@ -95,703 +178,476 @@ public class RenderEngine implements Tickable {
         return parent;
     }
 
-    public CameraController getCameraController() {
-        return cameraController;
+    // EFFECTS: returns the width and height in pixels which frames are currently drawn at
+    public int getResolution() {
+        return resolution;
     }
 
-    // EFFECTS: synchronously draws the current state of the framebuffer to the
-    // given Graphics object
-    public void drawCurrentFrame(Graphics gfx) {
-        Rectangle bounds = gfx.getClipBounds();
-        int imageSize = (int) ((float) Math.min(bounds.width, bounds.height) * VIEWPORT_SCALE_FACTOR);
-        int offsetX = (int) ((double) (bounds.width - imageSize) * 0.5);
-        int offsetY = (int) ((double) (bounds.height - imageSize) * 0.5);
+    // EFFECTS: returns the recent average time taken to draw a frame, in milliseconds
+    public float getFrameMilliseconds() {
+        return frameMilliseconds;
+    }
 
-        imageSync.lock();
-        gfx.drawImage(image, offsetX, offsetY, imageSize, imageSize, null);
-        imageSync.unlock();
+    public float getTargetFrameMilliseconds() {
+        return targetFrameMilliseconds;
     }
 
+    // REQUIRES: targetFrameMilliseconds > 0
     // MODIFIES: this
-    // EFFECTS: synchronously updates the camera controller, clears the framebuffer,
-    // and draws all graphics
-    @Override
-    public void tick() {
-        simState.lock();
-        imageSync.lock();
-        cameraController.tick();
-
-        clearBuffers();
-        for (Planet planet : simState.getSimulation().getPlanets()) {
-            drawPlanet(planet);
-        }
-
-        drawSelectedPlanetTrail();
-        drawUniverse();
-
-        imageSync.unlock();
-        simState.unlock();
+    // EFFECTS: sets the frame time which the resolution is adjusted to hold
+    public void setTargetFrameMilliseconds(float targetFrameMilliseconds) {
+        this.targetFrameMilliseconds = targetFrameMilliseconds;
     }
 
-    // MODIFIES: this
-    // EFFECTS: draws a massive universe skybox which tracks to the camera
-    private void drawUniverse() {
-        Transform uniTransform = Transform.scale(new Vector3(UNIVERSE_SCALE, UNIVERSE_SCALE, UNIVERSE_SCALE));
-        uniTransform = Transform.multiply(uniTransform, viewTransform);
-        Vector3 cameraOffset = Transform.extractTranslation(viewTransform);
-        uniTransform = Transform.multiply(uniTransform, Transform.translation(Vector3.multiply(cameraOffset, -1.0f)));
-        TextureShader shader = new TextureShader(TEXTURE_UNIVERSE);
-        shadeMesh(shader, PLANET_MESH, uniTransform);
+    public PlanetRenderMode getPlanetRenderMode() {
+        return planetRenderMode;
     }
 
     // MODIFIES: this
-    // EFFECTS: ensures that the trail is following the correct planet, adds new
-    // verticies to the trail when appropriate, and draws the trail
-    private void drawSelectedPlanetTrail() {
-        if (SimulatorGUI.getInstance().getSelectedPlanet() != lastSelectedPlanet) {
-            selectedPlanetTrail.clear();
-            lastSelectedPlanet = SimulatorGUI.getInstance().getSelectedPlanet();
-        }
-
-        if (lastSelectedPlanet == null) {
-            return;
-        }
+    // EFFECTS: sets how planets are drawn from the next frame on
+    public void setPlanetRenderMode(PlanetRenderMode planetRenderMode) {
+        this.planetRenderMode = planetRenderMode;
+    }
 
-        if (selectedPlanetTrail.size() == 0) {
-            selectedPlanetTrail.add(lastSelectedPlanet.getPosition());
-        }
+    public CameraController getCameraController() {
+        return cameraController;
+    }
 
-        int lastIndex = selectedPlanetTrail.size() - 1;
-        Vector3 deltaPos = Vector3.sub(selectedPlanetTrail.get(lastIndex), lastSelectedPlanet.getPosition());
-        float planetVelMag = lastSelectedPlanet.getVelocity().magnitude();
-        if (deltaPos.magnitude() > planetVelMag * TRAIL_UPDATE_FACTOR
-                && deltaPos.magnitude() >= TRAIL_UPDATE_MINDISTANCE) {
-            selectedPlanetTrail.add(lastSelectedPlanet.getPosition());
-        }
+    // REQUIRES: called on the swing thread
+    // MODIFIES: this
+    // EFFECTS: draws the latest finished frame to the given Graphics object, taking it over from the render thread
+    // if a newer frame has been published since the last paint
+    public void drawCurrentFrame(Graphics gfx) {
+        Rectangle bounds = gfx.getClipBounds();
+        int imageSize = (int) ((float) Math.min(bounds.width, bounds.height) * VIEWPORT_SCALE_FACTOR);
+        int offsetX = (int) ((double) (bounds.width - imageSize) * 0.5);
+        int offsetY = (int) ((double) (bounds.height - imageSize) * 0.5);
 
-        selectedPlanetTrail.add(lastSelectedPlanet.getPosition());
-        for (int i = 0; i < selectedPlanetTrail.size() - 1; i++) {
-            Vector3 linePosI = Transform.multiply(viewTransform, selectedPlanetTrail.get(i));
-            Vector3 linePosF = Transform.multiply(viewTransform, selectedPlanetTrail.get(i + 1));
-            drawLine(new LineShader(0xFFFFFFFF), linePosI, linePosF);
+        if ((latestFrame.get() & FRAME_FRESH_FLAG) != 0) {
+            displayFrame = latestFrame.getAndSet(displayFrame) & ~FRAME_FRESH_FLAG;
         }
-        selectedPlanetTrail.remove(selectedPlanetTrail.size() - 1);
+        gfx.drawImage(frames[displayFrame], offsetX, offsetY, imageSize, imageSize, null);
     }
 
     // MODIFIES: this
-    // EFFECTS: generates a transformation matrix for the current planet, draws an
-    // outline if the planet is selected, selects the appropriate shader for the
-    // planet, and then renders the planet to the framebuffer
-    private void drawPlanet(Planet planet) {
-        Vector3 planetScale = new Vector3(planet.getRadius(), planet.getRadius(), planet.getRadius());
-        Transform planetTransform = Transform.transform(planet.getPosition(), new Vector3(), planetScale);
-        Transform meshTransform = Transform.multiply(planetTransform, viewTransform);
-
-        if (planet == SimulatorGUI.getInstance().getSelectedPlanet()) {
-            Vector3 scaleVector = new Vector3(SELECTOR_SCALE, SELECTOR_SCALE, SELECTOR_SCALE);
-            drawWireMesh(PLANET_SELECTOR_MESH, Transform.multiply(Transform.scale(scaleVector), meshTransform),
-                    0xFFFFFFFF);
-        }
-
-        AbstractShader shader = null;
-        int planetSeed = Math.abs(planet.getName().hashCode());
-        float planeSpinSpeed = getPlanetSpinRate(planet);
-        Transform planetSpin = Transform
-                .rotationY(planeSpinSpeed * SimulatorState.getInstance().getSimulation().getTimeElapsed());
-        switch (SimulatorUtils.getPlanetType(planet)) {
-            case Star:
-                drawPlanetSun(planet, Transform.multiply(planetSpin, meshTransform));
-                break;
-
-            case GasGiant:
-                drawPlanetGasGiant(planetSeed, planet, Transform.multiply(planetSpin, meshTransform));
-                break;
-
-            case Rocky:
-                drawPlanetRocky(planetSeed, planet, Transform.multiply(planetSpin, meshTransform));
-                break;
-
-            default:
-                // NOTE:
-                // this should not be reached ever
-                shader = new TextureShader(TEXTURE_DEBUG);
-                shadeMesh(shader, DEBUG_MESH, meshTransform);
+    // EFFECTS: starts the render thread which ticks this engine until the program exits, if it hasn't been
+    // started already
+    public void startRenderThread() {
+        if (renderThread != null) {
+            return;
         }
+        renderThread = new Thread(this::runRenderLoop, "Render");
+        renderThread.setDaemon(true);
+        renderThread.start();
     }
 
     // MODIFIES: this
-    // EFFECTS: selects the sun shader and renders the planet with it
-    private void drawPlanetSun(Planet planet, Transform transform) {
-        AbstractShader shader = new SunShader(TEXTURE_SUN);
-        if (planet.getName().equals("Paul")) {
-            shader = new TextureShader(TEXTURE_PAUL);
+    // EFFECTS: draws frames forever
+    private void runRenderLoop() {
+        while (true) {
+            tick();
         }
-        shadeMesh(shader, PLANET_MESH, transform);
     }
 
     // MODIFIES: this
-    // EFFECTS: chooses a random gas giant texture based on the planet's name,
-    // initializes the appropriate shaders, and renders the planet in layers
-    private void drawPlanetGasGiant(int planetSeed, Planet planet, Transform transform) {
-        planetSeed %= TEXTURE_GASGIANT_PLANETS.length;
-        BufferedImage texture = TEXTURE_GASGIANT_PLANETS[planetSeed];
+    // EFFECTS: updates the camera controller, submits all graphics from the latest simulation snapshot to the
+    // rasterizer, draws them into the framebuffer owned by the render thread, and publishes it
+    @Override
+    public void tick() {
+        // NOTE:
+        // the whole frame is drawn from one snapshot, so that it is consistent without
+        // having to hold the simulation lock while drawing
+        long tickStartNanoseconds = System.nanoTime();
+        snapshot = simState.getSnapshot();
+        cameraController.tick();
+        frameNumber++;
 
-        GasGiantLayerShader layer0 = new GasGiantLayerShader(texture, 5.0f, 1.0f);
-        shadeMesh(layer0, PLANET_MESH, Transform.multiply(Transform.scale(uniformScaleVector(1.0f)), transform));
+        if (frames[renderFrame].getWidth() != resolution) {
+            createFrame(renderFrame, resolution);
+        }
+        rasterizer.setColorBuffer(frameColorBuffers[renderFrame]);
+        rasterizer.beginFrame();
+        drawVisiblePlanets();
+        drawSelectedPlanetTrail();
+        rasterizer.setBackground(universe.getBackground(viewTransform, rasterizer.getBufferSize()));
+        rasterizer.endFrame();
+        culledTriangleCount = rasterizer.getCulledTriangleCount();
+        occludedCount = rasterizer.getOccludedCount();
 
-        GasGiantLayerShader layer1 = new GasGiantLayerShader(texture, 25.0f, 0.6f);
-        shadeMesh(layer1, PLANET_MESH, Transform.multiply(Transform.scale(uniformScaleVector(1.02f)), transform));
+        publishFrame();
+        updateResolution(System.nanoTime() - tickStartNanoseconds);
+    }
 
-        GasGiantLayerShader layer2 = new GasGiantLayerShader(texture, 50.0f, 0.3f);
-        shadeMesh(layer2, PLANET_MESH, Transform.multiply(Transform.scale(uniformScaleVector(1.05f)), transform));
+    // MODIFIES: this
+    // EFFECTS: adds the time taken by the last frame to the average frame time, and resizes the framebuffers if
+    // the average has strayed too far from the target. the cost of a frame grows with its area, so the resolution
+    // is scaled by the square root of how far off the average is, by at most MAX_RESIZE_FACTOR at a time. the
+    // average must stay outside of the tolerance for a while after each resize before it is resized again, so
+    // that the resolution doesn't bounce back and forth
+    private void updateResolution(long frameNanoseconds) {
+        float average = frameMilliseconds;
+        average += ((float) frameNanoseconds / 1000000.0f - average) * FRAME_TIME_SMOOTHING;
+        frameMilliseconds = average;
+        framesSinceResize++;
+        float load = average / targetFrameMilliseconds;
+        if (framesSinceResize < RESIZE_COOLDOWN_FRAMES || Math.abs(load - 1.0f) <= FRAME_TIME_TOLERANCE) {
+            return;
+        }
+        float scale = Math.max(1.0f / MAX_RESIZE_FACTOR, Math.min(MAX_RESIZE_FACTOR, (float) Math.sqrt(1.0f / load)));
+        int size = Math.round(resolution * scale / RESOLUTION_STEP) * RESOLUTION_STEP;
+        size = Math.max(MIN_RESOLUTION, Math.min(MAX_RESOLUTION, size));
+        if (size != resolution) {
+            // NOTE:
+            // the average is scaled to what the new size is expected to take, so that
+            // it doesn't keep pushing the resolution the same way while it catches up
+            frameMilliseconds = average * ((float) size * size) / ((float) resolution * resolution);
+            resolution = size;
+            createFrame(renderFrame, size);
+            rasterizer = new Rasterizer(size, frameColorBuffers[renderFrame], new float[size * size], executor);
+        }
+        framesSinceResize = 0;
     }
 
     // MODIFIES: this
-    // EFFECTS: chooses a random rocky texture and cloud texture based on the
-    // planets name, inits the appropriate shaders, and then renders the planet in
-    // layers
-    private void drawPlanetRocky(int planetSeed, Planet planet, Transform transform) {
-        int groundSeed = planetSeed % TEXTURE_ROCKY_PLANETS.length;
-        BufferedImage groundTexture = TEXTURE_ROCKY_PLANETS[groundSeed];
-        if (planet.getName().equals("Earth")) {
-            groundTexture = TEXTURE_EARTH;
+    // EFFECTS: swaps the frame just drawn in as the latest finished frame, takes back whichever frame was latest
+    // before it to draw the next frame into, and asks the swing thread to repaint the viewport unless a repaint is
+    // already on its way
+    private void publishFrame() {
+        renderFrame = latestFrame.getAndSet(renderFrame | FRAME_FRESH_FLAG) & ~FRAME_FRESH_FLAG;
+        if (isRepaintPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                isRepaintPending.set(false);
+                parent.repaint();
+            });
         }
+    }
 
-        TextureShader groundShader = new TextureShader(groundTexture);
-        shadeMesh(groundShader, PLANET_MESH, transform);
+    // EFFECTS: returns the snapshot the current frame is being drawn from
+    public SimulationSnapshot getSnapshot() {
+        return snapshot;
     }
 
-    // EFFECTS: creates a vector with all components set to scale
-    private Vector3 uniformScaleVector(float scale) {
-        return new Vector3(scale, scale, scale);
+    // EFFECTS: returns the number of planets skipped in the last frame for lying outside of the view
+    public int getCulledPlanetCount() {
+        return culledPlanetCount;
     }
 
-    // EFFECTS: returns a random planet angular velocity based on its name and
-    // radius
-    private float getPlanetSpinRate(Planet planet) {
-        int seed = Math.abs(planet.getName().hashCode());
-        float norm = ((float) (seed & 0xFFFFFF) / (float) 0xFFFFFF);
-        return norm * (PLANET_SPIN_MAX / Math.max(1.0f, planet.getRadius()));
+    // EFFECTS: returns the number of planet triangles skipped in the last frame for facing away from the camera
+    public int getCulledTriangleCount() {
+        return culledTriangleCount;
     }
 
-    // MODIFIES: this
-    // EFFECTS: draws a wireframe of the specified mesh with the given color,
-    // transformed by the specified matrix
-    private void drawWireMesh(Mesh mesh, Transform transform, int color) {
-        for (int triIndex = 0; triIndex < mesh.getTriangleCount(); triIndex++) {
-            Triangle tri = mesh.getTriangle(triIndex);
-            tri.verts[0] = Transform.multiply(transform, tri.verts[0]);
-            tri.verts[1] = Transform.multiply(transform, tri.verts[1]);
-            tri.verts[2] = Transform.multiply(transform, tri.verts[2]);
-            LineShader shader = new LineShader(color);
-            drawLine(shader, tri.verts[0], tri.verts[1]);
-            drawLine(shader, tri.verts[1], tri.verts[2]);
-            drawLine(shader, tri.verts[2], tri.verts[0]);
-        }
+    // EFFECTS: returns the number of times a primitive was skipped in a tile in the last frame for being hidden
+    // behind nearer planets
+    public int getOccludedCount() {
+        return occludedCount;
     }
 
     // MODIFIES: this
-    // EFFECTS: renders a given mesh
-    private void shadeMesh(AbstractShader shader, Mesh mesh, Transform transform) {
-        for (int triIndex = 0; triIndex < mesh.getTriangleCount(); triIndex++) {
-            Triangle tri = mesh.getTriangle(triIndex);
-            tri.verts[0] = Transform.multiply(transform, tri.verts[0]);
-            tri.verts[1] = Transform.multiply(transform, tri.verts[1]);
-            tri.verts[2] = Transform.multiply(transform, tri.verts[2]);
-            shadeTriangle(shader, tri);
+    // EFFECTS: draws every planet whose bounds lie at least partly inside of the view from nearest to farthest, so
+    // that the rasterizer can skip whatever nearer planets hide, with back-facing triangles culled, and counts the
+    // planets which don't
+    private void drawVisiblePlanets() {
+        Vector3 viewScaleVector = Transform.extractScale(viewTransform);
+        float viewScale = Math.max(viewScaleVector.getX(), Math.max(viewScaleVector.getY(), viewScaleVector.getZ()));
+        int visibleCount = sortVisiblePlanets(viewScale);
+        rasterizer.setBackFaceCulling(true);
+        for (int i = 0; i < visibleCount; i++) {
+            int index = (int) visiblePlanetKeys[i];
+            Vector3 viewPos = planetViewPositions[index];
+            float viewRadius = snapshot.getRadius(index) * viewScale;
+            float pixelRadius = getProjectedPixelRadius(viewPos, viewRadius);
+            rasterizer.beginObject();
+            if (pixelRadius < IMPOSTOR_MAX_PIXEL_RADIUS) {
+                drawPlanetImpostor(index, viewPos, viewRadius);
+            } else {
+                drawPlanet(index, getPlanetLodMesh(pixelRadius));
+            }
+            rasterizer.endObject();
         }
+        rasterizer.setBackFaceCulling(false);
     }
 
     // MODIFIES: this
-    // EFFECTS: renders a given triangle
-    private void shadeTriangle(AbstractShader shader, Triangle tri) {
-        Triangle[] clippedTris = clipTriangle(tri);
-
-        for (Triangle clippedTri : clippedTris) {
-            clippedTri = projectTriangleToScreenSpace(clippedTri);
-
+    // EFFECTS: finds the viewspace position of every planet, counts the planets which lie outside of the view, and
+    // sorts the rest from nearest to farthest into the start of visiblePlanetKeys, returning how many there are.
+    // each key holds a planet's distance in its upper half, so that sorting the keys sorts by distance, and the
+    // planet's index in its lower half
+    private int sortVisiblePlanets(float viewScale) {
+        int planetCount = snapshot.getPlanetCount();
+        if (planetViewPositions.length < planetCount) {
+            planetViewPositions = new Vector3[planetCount];
+            visiblePlanetKeys = new long[planetCount];
+        }
+        int visibleCount = 0;
+        for (int i = 0; i < planetCount; i++) {
+            Vector3 viewPos = Transform.multiply(viewTransform, snapshot.getPosition(i));
+            planetViewPositions[i] = viewPos;
+            if (!isSphereInView(viewPos, snapshot.getRadius(i) * viewScale * SELECTOR_SCALE)) {
+                continue;
+            }
             // NOTE:
-            // the standard procedure for rendering an arbitrary triangle is to split it in
-            // the middle, and render the flattop/flatbottom parts of it each
-            Triangle sortedTri = sortTriangleByHeight(clippedTri);
-            Triangle[] cutTris = cutSortedTriangle(sortedTri);
-
-            shadeTriangleFlatBottom(shader, cutTris[0], sortedTri);
-            shadeTriangleFlatTop(shader, cutTris[1], sortedTri);
+            // the bits of a float which isn't negative sort in the same order as the float,
+            // and only planets the camera is inside of can have their centers behind it
+            int distanceBits = Float.floatToIntBits(Math.max(0.0f, -viewPos.getZ()));
+            visiblePlanetKeys[visibleCount++] = ((long) distanceBits << 32) | i;
         }
+        Arrays.sort(visiblePlanetKeys, 0, visibleCount);
+        culledPlanetCount = planetCount - visibleCount;
+        return visibleCount;
     }
 
-    // MODIFIES: this
-    // EFFECTS: renders a triangle with a flat bottom
-    private void shadeTriangleFlatBottom(AbstractShader shader, Triangle flatBotTri, Triangle target) {
-        // NOTE: the verticies of the tri are as follows:
-        // verts[0] -> top pointy
-        // verts[1] -> left bottom vertex
-        // verts[2] -> right bottom vertex
-
-        float dyBottomToTop = flatBotTri.verts[0].getY() - flatBotTri.verts[1].getY();
-        if (dyBottomToTop <= 0.0f) {
-            return;
-        }
-
-        float dxLeftToTop = flatBotTri.verts[0].getX() - flatBotTri.verts[1].getX();
-        float dxRightToTop = flatBotTri.verts[0].getX() - flatBotTri.verts[2].getX();
-
-        float invSlopeLeftToTop = dxLeftToTop / dyBottomToTop;
-        float invSlopeRightToTop = dxRightToTop / dyBottomToTop;
-
-        float startY = flatBotTri.verts[1].getY();
-        startY = Math.max(0, startY);
-
-        float endY = flatBotTri.verts[0].getY();
-        endY = Math.min(endY, (float) bufferSize);
-
-        if (!(Float.isFinite(startY) && Float.isFinite(endY))) {
-            return; // sanity check
+    // EFFECTS: returns roughly how many pixels the radius of a viewspace sphere covers on screen, or infinity if
+    // the camera is inside of it
+    private float getProjectedPixelRadius(Vector3 center, float radius) {
+        float distance = -center.getZ();
+        if (distance <= radius) {
+            return Float.POSITIVE_INFINITY;
         }
+        return radius / distance * 0.5f * (float) rasterizer.getBufferSize();
+    }
 
-        for (float drawY = startY; drawY <= endY; drawY += 1.0f) {
-            float travelledY = drawY - flatBotTri.verts[2].getY();
-
-            float startX = flatBotTri.verts[1].getX() + (travelledY * invSlopeLeftToTop);
-            startX = Math.max(0, startX);
-
-            float endX = flatBotTri.verts[2].getX() + (travelledY * invSlopeRightToTop);
-            endX = Math.min(endX, (float) bufferSize);
-
-            if (!(Float.isFinite(startX) && Float.isFinite(endX))) {
-                return; // sanity check
-            }
-
-            for (float drawX = startX; drawX <= endX; drawX += 1.0f) {
-                prepareAndDrawFragment(shader, new Vector3(drawX, drawY, 0.0f), target);
+    // EFFECTS: returns the most detailed planet mesh whose minimum pixel radius is covered by the given radius
+    private static Mesh getPlanetLodMesh(float pixelRadius) {
+        for (int i = 0; i < PLANET_LOD_MESHES.length - 1; i++) {
+            if (pixelRadius >= PLANET_LOD_MIN_PIXEL_RADII[i]) {
+                return PLANET_LOD_MESHES[i];
             }
         }
+        return PLANET_LOD_MESHES[PLANET_LOD_MESHES.length - 1];
     }
 
-    // MODIFIES: this
-    // EFFECTS: interpolates the input values for the given fragment based on the
-    // current fragment's position with respect to the original triangle, and the
-    // draws the fragment
-    private void prepareAndDrawFragment(AbstractShader shader, Vector3 fragPos, Triangle target) {
-        Vector3 attribWeights = generateAttribWeightings(fragPos, target);
-
-        float[] texUVals = { target.uvs[0].getX(), target.uvs[1].getX(), target.uvs[2].getX() };
-        float texU = interpolateAttrib(texUVals, attribWeights, target);
-
-        float[] texVVals = { target.uvs[0].getY(), target.uvs[1].getY(), target.uvs[2].getY() };
-        float texV = interpolateAttrib(texVVals, attribWeights, target);
-
-        fragPos = new Vector3(fragPos.getX(), fragPos.getY(), interpolateDepth(attribWeights, target));
-        int color = shader.shade(attribWeights, new Vector3(texU, texV, 0.0f));
-        if (color == AbstractShader.CULL_FRAGMENT) {
-            return;
+    // EFFECTS: returns whether a viewspace sphere lies at least partly in front of the clipping plane and inside of
+    // the four side planes of the view, which are at 45 degrees to the view direction since screenspace is x / -z
+    // and y / -z
+    private static boolean isSphereInView(Vector3 center, float radius) {
+        if (center.getZ() - radius > CLIPPING_PLANE_DEPTH) {
+            return false;
         }
-        drawFragment(fragPos, 0xFF000000 | color);
-    }
-
-    // EFFECTS: interpolates the depth properly
-    private float interpolateDepth(Vector3 weights, Triangle target) {
-        float w0 = weights.getX() / target.verts[0].getZ();
-        float w1 = weights.getY() / target.verts[1].getZ();
-        float w2 = weights.getZ() / target.verts[2].getZ();
-        return 1.0f / (w0 + w1 + w2);
-    }
-
-    // EFFECTS: interpolates an attbribute depth-correctly based on a given
-    // weighting
-    private float interpolateAttrib(float[] valArray, Vector3 weight, Triangle parent) {
-        float w0 = weight.getX() / parent.verts[0].getZ();
-        float w1 = weight.getY() / parent.verts[1].getZ();
-        float w2 = weight.getZ() / parent.verts[2].getZ();
-        return (valArray[0] * w0 + valArray[1] * w1 + valArray[2] * w2) / (w0 + w1 + w2);
-    }
-
-    // Refer to:
-    // https://gamedev.stackexchange.com/questions/23743/whats-the-most-efficient-way-to-find-barycentric-coordinates
-    // EFFECTS: generates a weighting for the vertex attributes of the target
-    // triangle for this fragment
-    private Vector3 generateAttribWeightings(Vector3 fragPos, Triangle target) {
-        Vector3 vert0 = target.verts[0];
-        Vector3 vert1 = target.verts[1];
-        Vector3 vert2 = target.verts[2];
-        float det = (vert1.getY() - vert2.getY()) * (vert0.getX() - vert2.getX())
-                + (vert2.getX() - vert1.getX()) * (vert0.getY() - vert2.getY());
-        float weight1 = (vert1.getY() - vert2.getY()) * (fragPos.getX() - vert2.getX())
-                + (vert2.getX() - vert1.getX()) * (fragPos.getY() - vert2.getY());
-        weight1 /= det;
-        float weight2 = (vert2.getY() - vert0.getY()) * (fragPos.getX() - vert2.getX())
-                + (vert0.getX() - vert2.getX()) * (fragPos.getY() - vert2.getY());
-        weight2 /= det;
-        float weight3 = 1.0f - weight2 - weight1;
-        return new Vector3(weight1, weight2, weight3);
+        float sideRadius = radius * (float) Math.sqrt(2.0);
+        return center.getX() + center.getZ() <= sideRadius && -center.getX() + center.getZ() <= sideRadius
+                && center.getY() + center.getZ() <= sideRadius && -center.getY() + center.getZ() <= sideRadius;
     }
 
     // MODIFIES: this
-    // EFFECTS: renders a triangle with a flat top
-    private void shadeTriangleFlatTop(AbstractShader shader, Triangle flatBotTri, Triangle target) {
-        // NOTE: the verticies of the tri are as follows:
-        // verts[0] -> top left
-        // verts[1] -> top right
-        // verts[2] -> bottom pointy
-
-        float dyBottomToTop = flatBotTri.verts[0].getY() - flatBotTri.verts[2].getY();
-        if (dyBottomToTop <= 0.0f) {
-            return;
+    // EFFECTS: ensures that the trail is following the correct planet, adds new
+    // verticies to the trail when appropriate, and draws the trail
+    private void drawSelectedPlanetTrail() {
+        if (SimulatorGUI.getInstance().getSelectedPlanet() != lastSelectedPlanet) {
+            selectedPlanetTrail.clear();
+            lastSelectedPlanet = SimulatorGUI.getInstance().getSelectedPlanet();
         }
 
-        float dxBottomToLeft = flatBotTri.verts[0].getX() - flatBotTri.verts[2].getX();
-        float dxBottomToRight = flatBotTri.verts[1].getX() - flatBotTri.verts[2].getX();
-
-        float invSlopeBottomToLeft = dxBottomToLeft / dyBottomToTop;
-        float invSlopeBottomToRight = dxBottomToRight / dyBottomToTop;
-
-        float startY = flatBotTri.verts[2].getY();
-        startY = Math.max(0, startY);
-
-        float endY = flatBotTri.verts[0].getY();
-        endY = Math.min(endY, (float) bufferSize);
-
-        for (float drawY = startY; drawY <= endY; drawY += 1.0f) {
-            float travelledY = drawY - flatBotTri.verts[2].getY();
-
-            float startX = flatBotTri.verts[2].getX() + (travelledY * invSlopeBottomToLeft);
-            startX = Math.max(0, startX);
-
-            float endX = flatBotTri.verts[2].getX() + (travelledY * invSlopeBottomToRight);
-            endX = Math.min(endX, (float) bufferSize);
-
-            for (float drawX = startX; drawX <= endX; drawX += 1.0f) {
-                prepareAndDrawFragment(shader, new Vector3(drawX, drawY, 0.0f), target);
-            }
+        int planetIndex = snapshot.indexOf(lastSelectedPlanet);
+        if (planetIndex == -1) {
+            return;
         }
 
-    }
-
-    // EFFECTS: cuts a sorted triangle in half along the middle vertex and returns
-    // each piece, where the top verticies are sorted from left to right
-    private Triangle[] cutSortedTriangle(Triangle sortedTri) {
-        float dxLowToHigh = sortedTri.verts[0].getX() - sortedTri.verts[2].getX();
-        float dyLowToHigh = sortedTri.verts[0].getY() - sortedTri.verts[2].getY();
-        float invSlopeLowToHigh = dxLowToHigh / dyLowToHigh;
-        float distLowToMid = (sortedTri.verts[1].getY() - sortedTri.verts[2].getY());
-        float middleX = sortedTri.verts[2].getX() + distLowToMid * invSlopeLowToHigh;
-
-        // NOTE: depth interpolation will be done with respect to the original sorted
-        // tri, so the depth values of each cut tri doesn't actually matter
-        Vector3 middleVert = new Vector3(middleX, sortedTri.verts[1].getY(), 0.0f);
-
-        // NOTE: construct triangle such that
-        // verts[0] -> top pointy
-        // verts[1] -> bottom left
-        // verts[2] -> bottom right
-        Triangle topTriFlatBottom = new Triangle(sortedTri);
-        topTriFlatBottom.verts[2] = new Vector3(middleVert);
-        if (topTriFlatBottom.verts[1].getX() > topTriFlatBottom.verts[2].getX()) {
-            Vector3 tempVert = topTriFlatBottom.verts[1];
-            topTriFlatBottom.verts[1] = topTriFlatBottom.verts[2];
-            topTriFlatBottom.verts[2] = tempVert;
+        Vector3 planetPos = snapshot.getPosition(planetIndex);
+        if (selectedPlanetTrail.size() == 0) {
+            selectedPlanetTrail.add(planetPos);
         }
 
-        // NOTE: constructs a triangle such that
-        // verts[0] -> top left
-        // verts[1] -> top right
-        // verts[2] -> bottom pointy
-        Triangle bottomTriFlatTop = new Triangle(sortedTri);
-        bottomTriFlatTop.verts[0] = new Vector3(middleVert);
-        if (bottomTriFlatTop.verts[0].getX() > bottomTriFlatTop.verts[1].getX()) {
-            Vector3 tempVert = bottomTriFlatTop.verts[0];
-            bottomTriFlatTop.verts[0] = bottomTriFlatTop.verts[1];
-            bottomTriFlatTop.verts[1] = tempVert;
+        int lastIndex = selectedPlanetTrail.size() - 1;
+        Vector3 deltaPos = Vector3.sub(selectedPlanetTrail.get(lastIndex), planetPos);
+        float planetVelMag = snapshot.getVelocity(planetIndex).magnitude();
+        if (deltaPos.magnitude() > planetVelMag * TRAIL_UPDATE_FACTOR
+                && deltaPos.magnitude() >= TRAIL_UPDATE_MINDISTANCE) {
+            selectedPlanetTrail.add(planetPos);
         }
 
-        return new Triangle[] { topTriFlatBottom, bottomTriFlatTop };
+        selectedPlanetTrail.add(planetPos);
+        rasterizer.beginObject();
+        drawTrailLines();
+        rasterizer.endObject();
+        selectedPlanetTrail.remove(selectedPlanetTrail.size() - 1);
     }
 
-    // EFFECTS: returns a new triangle which is the original triangle with the
-    // verticies sorted by height, such that 0 is the highest and 2 is the lowest
-    private Triangle sortTriangleByHeight(Triangle toSort) {
-        Triangle sorted = new Triangle(toSort);
-        Vector3 tempVert = null;
-        Vector3 tempUV = null;
-
-        if (sorted.verts[0].getY() < sorted.verts[1].getY()) {
-            tempVert = sorted.verts[0];
-            tempUV = sorted.uvs[0];
-            sorted.verts[0] = sorted.verts[1];
-            sorted.verts[1] = tempVert;
-            sorted.uvs[0] = sorted.uvs[1];
-            sorted.uvs[1] = tempUV;
-        }
-        if (sorted.verts[1].getY() < sorted.verts[2].getY()) {
-            tempVert = sorted.verts[1];
-            tempUV = sorted.uvs[1];
-            sorted.verts[1] = sorted.verts[2];
-            sorted.verts[2] = tempVert;
-            sorted.uvs[1] = sorted.uvs[2];
-            sorted.uvs[2] = tempUV;
-        }
-        if (sorted.verts[0].getY() < sorted.verts[1].getY()) {
-            tempVert = sorted.verts[0];
-            tempUV = sorted.uvs[0];
-            sorted.verts[0] = sorted.verts[1];
-            sorted.verts[1] = tempVert;
-            sorted.uvs[0] = sorted.uvs[1];
-            sorted.uvs[1] = tempUV;
+    // MODIFIES: this
+    // EFFECTS: draws a line between each pair of consecutive trail verticies
+    private void drawTrailLines() {
+        LineShader shader = getLineShader(0xFFFFFFFF);
+        for (int i = 0; i < selectedPlanetTrail.size() - 1; i++) {
+            Vector3 linePosI = Transform.multiply(viewTransform, selectedPlanetTrail.get(i));
+            Vector3 linePosF = Transform.multiply(viewTransform, selectedPlanetTrail.get(i + 1));
+            rasterizer.submitLine(shader, linePosI, linePosF);
         }
-
-        return sorted;
     }
 
-    // EFFECTS: cuts up a given triangle such that none of its verticies go past the
-    // clipping plane (this is highly non-trivial), and returns the generated
-    // triangles for when it has been clipped
-    private Triangle[] clipTriangle(Triangle tri) {
-        ArrayList<Integer> vertsBehind = new ArrayList<>();
-        ArrayList<Integer> vertsBefore = new ArrayList<>();
-        for (int i = 0; i < 3; i++) {
-            if (tri.verts[i].getZ() > CLIPPING_PLANE_DEPTH) {
-                vertsBehind.add(i);
-            } else {
-                vertsBefore.add(i);
-            }
-        }
-        if (vertsBehind.size() == 3) {
-            return new Triangle[0]; // nothing to draw
-        }
-        if (vertsBehind.size() == 0) {
-            return new Triangle[] { tri }; // original triangle was fine
-        }
-        if (vertsBehind.size() == 1) {
-            return clipTriangleCase1(vertsBehind.get(0), vertsBefore.get(0), vertsBefore.get(1), tri);
-        }
-        if (vertsBehind.size() == 2) {
-            return clipTriangleCase2(vertsBefore.get(0), vertsBehind.get(0), vertsBehind.get(1), tri);
+    // MODIFIES: this
+    // EFFECTS: returns the flat shader of the given color, creating it the first
+    // time the color is asked for, so that the lines of a color don't each need a
+    // shader of their own every frame
+    private LineShader getLineShader(int color) {
+        LineShader shader = lineShaders.get(color);
+        if (shader == null) {
+            shader = new LineShader(color);
+            lineShaders.put(color, shader);
         }
-
-        // should never reach here
-        throw new IllegalStateException();
-    }
-
-    // EFFECTS: clips a triangle in the case that only one of the inidices is behind
-    // the clipping plane
-    private Triangle[] clipTriangleCase1(int behind, int beforeL, int beforeR, Triangle original) {
-        // interpolate between beforeL to behind
-        float factorLToB = getClippingFactor(original.verts[beforeL], original.verts[behind]);
-        Vector3 vertexLToB = interpolateVector3(original.verts[beforeL], original.verts[behind], factorLToB);
-        Vector3 uvLToB = interpolateVector3(original.uvs[beforeL], original.uvs[behind], factorLToB);
-
-        // interpolate between beforeR to behind
-        float factorRToB = getClippingFactor(original.verts[beforeR], original.verts[behind]);
-        Vector3 vertexRToB = interpolateVector3(original.verts[beforeR], original.verts[behind], factorRToB);
-        Vector3 uvRToB = interpolateVector3(original.uvs[beforeR], original.uvs[behind], factorRToB);
-
-        // generate two new triangles, (L, LtoB, RtoB) and (L, R, RtoB)
-        Triangle triLeft = new Triangle();
-        triLeft.verts[0] = new Vector3(original.verts[beforeL]);
-        triLeft.uvs[0] = new Vector3(original.uvs[beforeL]);
-        triLeft.verts[1] = new Vector3(vertexLToB);
-        triLeft.uvs[1] = new Vector3(uvLToB);
-        triLeft.verts[2] = new Vector3(vertexRToB);
-        triLeft.uvs[2] = new Vector3(uvRToB);
-
-        Triangle triRight = new Triangle();
-        triRight.verts[0] = new Vector3(original.verts[beforeL]);
-        triRight.uvs[0] = new Vector3(original.uvs[beforeL]);
-        triRight.verts[1] = new Vector3(original.verts[beforeR]);
-        triRight.uvs[1] = new Vector3(original.uvs[beforeR]);
-        triRight.verts[2] = new Vector3(vertexRToB);
-        triRight.uvs[2] = new Vector3(uvRToB);
-
-        return new Triangle[] { triLeft, triRight };
-    }
-
-    // EFFECTS: clips a triangle in the case that two of the verticies are behind
-    // the clipping plane
-    private Triangle[] clipTriangleCase2(int before, int behindL, int behindR, Triangle original) {
-        float factorBToL = getClippingFactor(original.verts[before], original.verts[behindL]);
-        Vector3 vertexBToL = interpolateVector3(original.verts[before], original.verts[behindL], factorBToL);
-        Vector3 uvBToL = interpolateVector3(original.uvs[before], original.uvs[behindL], factorBToL);
-
-        float factorBToR = getClippingFactor(original.verts[before], original.verts[behindR]);
-        Vector3 vertexBToR = interpolateVector3(original.verts[before], original.verts[behindR], factorBToR);
-        Vector3 uvBToR = interpolateVector3(original.uvs[before], original.uvs[behindR], factorBToR);
-
-        // construct a triangle (B, BtoL, BtoR)
-        Triangle clipped = new Triangle();
-        clipped.verts[0] = new Vector3(original.verts[before]);
-        clipped.uvs[0] = new Vector3(original.uvs[before]);
-        clipped.verts[1] = new Vector3(vertexBToL);
-        clipped.uvs[1] = new Vector3(uvBToL);
-        clipped.verts[2] = new Vector3(vertexBToR);
-        clipped.uvs[2] = new Vector3(uvBToR);
-
-        return new Triangle[] { clipped };
-    }
-
-    // REQUIRES: behind to be behind the clipping plane and before to be before the
-    // clipping plane
-    // EFFECTS: gets the interpolation factor from before to behind that places a
-    // vertex right on the clipping plane
-    private float getClippingFactor(Vector3 before, Vector3 behind) {
-        return (CLIPPING_PLANE_DEPTH - before.getZ()) / (behind.getZ() - before.getZ());
-    }
-
-    // EFFECTS: interpolates a given vector3 from a to b based on an interpolation
-    // factor
-    private Vector3 interpolateVector3(Vector3 a, Vector3 b, float factor) {
-        return Vector3.add(Vector3.multiply(a, 1.0f - factor), Vector3.multiply(b, factor));
-    }
-
-    // EFFECTS: creates a new triangle which has been projected into screenspace
-    // coordinates
-    private Triangle projectTriangleToScreenSpace(Triangle triangle) {
-        Triangle projTri = new Triangle(triangle);
-        projTri.verts[0] = projectVectorToScreenSpace(projTri.verts[0]);
-        projTri.verts[1] = projectVectorToScreenSpace(projTri.verts[1]);
-        projTri.verts[2] = projectVectorToScreenSpace(projTri.verts[2]);
-        return projTri;
-    }
-
-    // EFFECTS: projects a "worldspace" Vector3 into screenspace coordinates
-    private Vector3 projectVectorToScreenSpace(Vector3 point) {
-        // NOTE: despite facing down the -Z axis, we dont want X and Y axis to be
-        // inverted, so we take the Abs of the Z
-        float posX = point.getX() / Math.abs(point.getZ());
-        float posY = point.getY() / Math.abs(point.getZ());
-        // NOTE: this transforms a point from [-1, 1] to [0, bufferSize]
-        posX = ((posX + 1.0f) * 0.5f) * (float) bufferSize;
-        posY = ((posY + 1.0f) * 0.5f) * (float) bufferSize;
-        return new Vector3(posX, posY, point.getZ());
+        return shader;
     }
 
     // MODIFIES: this
-    // EFFECTS: draws a 3D line with the specified shader, with proper camera
-    // clipping
-    private void drawLine(AbstractShader shader, Vector3 from, Vector3 to) {
-        // order from furthest to closest to camera
-        if (from.getZ() > to.getZ()) {
-            Vector3 temp = from;
-            from = to;
-            to = temp;
-        }
+    // EFFECTS: generates a transformation matrix for the planet at the given index
+    // of the snapshot, draws an outline if the planet is selected, selects the
+    // appropriate shader for the planet, and then renders the planet to the
+    // framebuffer with the given mesh
+    private void drawPlanet(int index, Mesh mesh) {
+        float radius = snapshot.getRadius(index);
+        String name = snapshot.getName(index);
+        transformStack.reset(viewTransform);
+        transformStack.pushTransform(snapshot.getPosition(index), new Vector3(), uniformScaleVector(radius));
+        drawPlanetSelector(index);
+
+        Texture texture = getPlanetTexture(name, radius);
+        float planeSpinSpeed = getPlanetSpinRate(name, radius);
+        Vector3 planetSpin = new Vector3(0.0f, planeSpinSpeed * snapshot.getTimeElapsed(), 0.0f);
+        Transform spinTransform = transformStack.pushTransform(new Vector3(), planetSpin, uniformScaleVector(1.0f));
+        switch (SimulatorUtils.getPlanetType(radius)) {
+            case Star:
+                AbstractShader sunShader = (texture == TEXTURE_PAUL) ? new TextureShader(texture)
+                        : new SunShader(texture, frameNumber);
+                shadePlanet(sunShader, mesh, spinTransform);
+                break;
 
-        if (from.getZ() >= CLIPPING_PLANE_DEPTH && to.getZ() >= CLIPPING_PLANE_DEPTH) {
-            return;
-        }
+            case GasGiant:
+                drawPlanetGasGiant(texture, mesh, spinTransform);
+                break;
 
-        if (to.getZ() >= CLIPPING_PLANE_DEPTH) {
-            float factor = getClippingFactor(from, to);
-            to = interpolateVector3(from, to, factor);
+            default:
+                shadePlanet(new TextureShader(texture), mesh, spinTransform);
         }
+    }
 
-        Vector3 projectedFrom = projectVectorToScreenSpace(from);
-        Vector3 projectedTo = projectVectorToScreenSpace(to);
+    // MODIFIES: this
+    // EFFECTS: draws the planet at the given index of the snapshot as a single disc
+    // in the average color of its texture, along with its outline if it is selected
+    private void drawPlanetImpostor(int index, Vector3 viewPos, float viewRadius) {
+        float radius = snapshot.getRadius(index);
+        transformStack.reset(viewTransform);
+        transformStack.pushTransform(snapshot.getPosition(index), new Vector3(), uniformScaleVector(radius));
+        drawPlanetSelector(index);
 
-        drawLineScreenspace(shader, projectedFrom, projectedTo);
+        Texture texture = getPlanetTexture(snapshot.getName(index), radius);
+        rasterizer.submitDisc(getLineShader(texture.getAverageColor()), viewPos, viewRadius);
     }
 
     // MODIFIES: this
-    // EFFECTS: draws a 2D line to the framebuffer with the given shader
-    private void drawLineScreenspace(AbstractShader shader, Vector3 from, Vector3 to) {
-        Vector3 left = null;
-        Vector3 right = null;
-        if (from.getX() > to.getX()) {
-            right = from;
-            left = to;
-        } else {
-            left = from;
-            right = to;
-        }
+    // EFFECTS: draws an outline around the planet at the given index of the
+    // snapshot if it is selected, around the sphere on top of the transform stack
+    private void drawPlanetSelector(int index) {
+        if (snapshot.getPlanet(index) == SimulatorGUI.getInstance().getSelectedPlanet()) {
+            Transform selectorTransform = transformStack.pushTransform(new Vector3(), new Vector3(),
+                    uniformScaleVector(SELECTOR_SCALE));
+            drawWireMesh(PLANET_SELECTOR_MESH, selectorTransform, 0xFFFFFFFF);
+            transformStack.pop();
+        }
+    }
+
+    // EFFECTS: chooses the texture of a planet based on its type, and on its name
+    // for the planets which have special textures or a random texture
+    private static Texture getPlanetTexture(String name, float radius) {
+        int planetSeed = Math.abs(name.hashCode());
+        switch (SimulatorUtils.getPlanetType(radius)) {
+            case Star:
+                return name.equals("Paul") ? TEXTURE_PAUL : TEXTURE_SUN;
 
-        Vector3 top = null;
-        Vector3 bottom = null;
-        if (from.getY() > to.getY()) {
-            top = from;
-            bottom = to;
-        } else {
-            bottom = from;
-            top = to;
+            case GasGiant:
+                return TEXTURE_GASGIANT_PLANETS[planetSeed % TEXTURE_GASGIANT_PLANETS.length];
+
+            case Rocky:
+                return name.equals("Earth") ? TEXTURE_EARTH
+                        : TEXTURE_ROCKY_PLANETS[planetSeed % TEXTURE_ROCKY_PLANETS.length];
+
+            default:
+                return TEXTURE_DEBUG;
         }
-        drawLineScreenspaceXAxis(shader, left, right);
-        drawLineScreenspaceYAxis(shader, bottom, top);
     }
 
-    // REQUIRES: left.getX() < right.getX()
     // MODIFIES: this
-    // EFFECTS: draws a 2D line to the framebuffer in screenspace, based on the x
-    // axis
-    private void drawLineScreenspaceXAxis(AbstractShader shader, Vector3 left, Vector3 right) {
-        float deltaX = right.getX() - left.getX();
-        float deltaY = right.getY() - left.getY();
-        if (deltaX <= DRAWLINE_EPSILON) {
-            return;
-        }
-        float slope = deltaY / deltaX;
-        float startX = Math.max(0.0f, left.getX());
-        float endX = Math.min(bufferSize - 1.0f, right.getX());
-        for (float drawX = startX; drawX <= endX; drawX += 1.0f) {
-            float drawY = left.getY() + (drawX - left.getX()) * slope;
-            float interp = (drawX - left.getX()) / deltaX;
-            float depth = left.getZ() * (1.0f - interp) + interp * right.getZ();
-            drawFragment(new Vector3(drawX, drawY, depth), shader.shade(new Vector3(), new Vector3()));
-        }
+    // EFFECTS: renders the planet as its outermost shell, with a shader which
+    // resolves all of its layers in one pass
+    private void drawPlanetGasGiant(Texture texture, Mesh mesh, Transform transform) {
+        GasGiantShader shader = new GasGiantShader(texture, transform, rasterizer.getBufferSize(), frameNumber);
+        Transform shellTransform = transformStack.pushTransform(new Vector3(), new Vector3(),
+                uniformScaleVector(GasGiantShader.getOuterScale()));
+        shadePlanet(shader, mesh, shellTransform);
+        transformStack.pop();
     }
 
-    // REQUIRES: bottom.getY() < top.getY()
-    // MODIFIES: this
-    // EFFECTS: draws a 2D line to the framebuffer in screenspace, based on the x
-    // axis
-    private void drawLineScreenspaceYAxis(AbstractShader shader, Vector3 bottom, Vector3 top) {
-        float deltaX = top.getX() - bottom.getX();
-        float deltaY = top.getY() - bottom.getY();
-        if (deltaY <= DRAWLINE_EPSILON) {
-            return;
-        }
-        float invSlope = deltaX / deltaY;
-        float startY = Math.max(0.0f, bottom.getY());
-        float endY = Math.min(bufferSize - 1.0f, top.getY());
-        for (float drawY = startY; drawY <= endY; drawY += 1.0f) {
-            float drawX = bottom.getX() + (drawY - bottom.getY()) * invSlope;
-            float interp = (drawY - bottom.getY()) / deltaY;
-            float depth = bottom.getZ() * (1.0f - interp) + interp * top.getZ();
-            drawFragment(new Vector3(drawX, drawY, depth), shader.shade(new Vector3(), new Vector3()));
-        }
+    // EFFECTS: creates a vector with all components set to scale
+    private Vector3 uniformScaleVector(float scale) {
+        return new Vector3(scale, scale, scale);
     }
 
-    // MODIFIES: this
-    // EFFECTS: draws a single pixel to the framebuffer using the specified color,
-    // given that it passes the depth test
-    private void drawFragment(Vector3 position, int color) {
-        int posX = (int) (position.getX() + 0.5f);
-        int posY = (int) (position.getY() + 0.5f);
+    // EFFECTS: returns a random planet angular velocity based on its name and
+    // radius
+    private float getPlanetSpinRate(String name, float radius) {
+        int seed = Math.abs(name.hashCode());
+        float norm = ((float) (seed & 0xFFFFFF) / (float) 0xFFFFFF);
+        return norm * (PLANET_SPIN_MAX / Math.max(1.0f, radius));
+    }
 
-        if (posX < 0 || posX >= bufferSize || posY < 0 || posY >= bufferSize) {
-            return;
+    // MODIFIES: this
+    // EFFECTS: draws a wireframe of the specified mesh with the given color,
+    // transformed by the specified matrix
+    private void drawWireMesh(Mesh mesh, Transform transform, int color) {
+        transformVertices(mesh, transform);
+        int[] indicies = mesh.getTriangleIndicies();
+        LineShader shader = getLineShader(color);
+        for (int i = 0; i < indicies.length; i += 3) {
+            rasterizer.submitLine(shader, viewVertices, indicies[i], indicies[i + 1]);
+            rasterizer.submitLine(shader, viewVertices, indicies[i + 1], indicies[i + 2]);
+            rasterizer.submitLine(shader, viewVertices, indicies[i + 2], indicies[i]);
         }
+    }
 
-        // depth test
-        float depth = depthBuffer[getBufferIndex(posX, posY)];
-        if (depth >= position.getZ()) {
-            return;
+    // MODIFIES: this
+    // EFFECTS: renders a planet's sphere, which is the unit sphere moved into
+    // viewspace by transform. the sphere is ray-cast if the render mode asks for
+    // it and it lies entirely in front of the clipping plane, otherwise the given
+    // mesh is rendered in its place
+    private void shadePlanet(AbstractShader shader, Mesh mesh, Transform transform) {
+        boolean isRayCast = (planetRenderMode == PlanetRenderMode.RayCast);
+        float nearestDepth = Transform.extractTranslation(transform).getZ() + Transform.extractScale(transform).getX();
+        if (isRayCast && nearestDepth < CLIPPING_PLANE_DEPTH) {
+            rasterizer.submitSphere(shader, transform);
+        } else {
+            shadeMesh(shader, mesh, transform);
         }
-
-        colorBuffer[getBufferIndex(posX, posY)] = color;
-        depthBuffer[getBufferIndex(posX, posY)] = position.getZ();
     }
 
     // MODIFIES: this
-    // EFFECTS: clears the framebuffer and depth buffer
-    private void clearBuffers() {
-        for (int i = 0; i < bufferSize * bufferSize; i++) {
-            colorBuffer[i] = COLOR_CLEAR_VALUE;
-            depthBuffer[i] = DEPTH_CLEAR_VALUE;
+    // EFFECTS: renders a given mesh
+    private void shadeMesh(AbstractShader shader, Mesh mesh, Transform transform) {
+        transformVertices(mesh, transform);
+        int[] indicies = mesh.getTriangleIndicies();
+        for (int i = 0; i < indicies.length; i += 3) {
+            rasterizer.submitTriangle(shader, viewVertices, indicies[i], indicies[i + 1], indicies[i + 2]);
         }
     }
 
-    // EFFECTS: returns the 1D index for the framebuffer and depth buffer given a 2D
-    // (x,y) coordinate
-    private int getBufferIndex(int x, int y) {
-        return x + (bufferSize * (bufferSize - 1 - y));
+    // MODIFIES: this
+    // EFFECTS: transforms every unique vertex of the mesh once by the given matrix
+    // into viewVertices, packed as the rasterizer expects, growing it if needed
+    private void transformVertices(Mesh mesh, Transform transform) {
+        int vertexCount = mesh.getVertexCount();
+        if (viewVertices.length < vertexCount * Rasterizer.VERTEX_STRIDE) {
+            viewVertices = new float[vertexCount * Rasterizer.VERTEX_STRIDE];
+        }
+        float[] positions = mesh.getVertexPositions();
+        float[] uvs = mesh.getVertexUVs();
+        float[] comp = transform.getValues();
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            float posX = positions[vertex * 3];
+            float posY = positions[vertex * 3 + 1];
+            float posZ = positions[vertex * 3 + 2];
+            int base = vertex * Rasterizer.VERTEX_STRIDE;
+            for (int i = 0; i < 3; i++) {
+                viewVertices[base + i] = comp[i] * posX + comp[4 + i] * posY + comp[8 + i] * posZ + comp[12 + i];
+            }
+            viewVertices[base + 3] = uvs[vertex * 2];
+            viewVertices[base + 4] = uvs[vertex * 2 + 1];
+        }
     }
 }
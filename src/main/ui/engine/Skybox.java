@@ -0,0 +1,149 @@
+package ui.engine;
+
+import model.*;
+import ui.engine.shader.*;
+
+// Represents the universe background as a cubemap baked once from an equirectangular texture. the background of a
+// frame is filled pixel by pixel by looking up the direction of each pixel's ray in the cubemap, which only depends
+// on the rotation of the camera, so the filled background is kept and re-used until the camera rotates
+public class Skybox {
+    private static final int FACE_COUNT = 6;
+
+    // NOTE:
+    // each face is stored as its outward normal, then the directions which its
+    // texel x and y coordinates increase along
+    private static final float[][] FACE_BASES = {
+            { 1, 0, 0, 0, 0, -1, 0, 1, 0 },
+            { -1, 0, 0, 0, 0, 1, 0, 1, 0 },
+            { 0, 1, 0, 1, 0, 0, 0, 0, -1 },
+            { 0, -1, 0, 1, 0, 0, 0, 0, 1 },
+            { 0, 0, 1, 1, 0, 0, 0, 1, 0 },
+            { 0, 0, -1, -1, 0, 0, 0, 1, 0 }
+    };
+
+    private final int faceSize;
+    private final int[][] faces;
+    private final ParallelExecutor executor;
+
+    private int[] background;
+    private int backgroundSize;
+    private float[] backgroundRotation;
+
+    // REQUIRES: faceSize >= 1
+    // EFFECTS: bakes the texture, as it would be mapped onto a sphere made by Mesh.createUVSphere around the
+    // camera, into a cubemap with faces of faceSize x faceSize texels, filling backgrounds across the threads of
+    // executor
+    public Skybox(Texture texture, int faceSize, ParallelExecutor executor) {
+        this.faceSize = faceSize;
+        this.executor = executor;
+        faces = new int[FACE_COUNT][faceSize * faceSize];
+        executor.forEachRange(FACE_COUNT, 1, (from, to) -> {
+            for (int face = from; face < to; face++) {
+                bakeFace(texture, face);
+            }
+        });
+        background = new int[0];
+        backgroundSize = 0;
+        backgroundRotation = new float[9];
+    }
+
+    public int getFaceSize() {
+        return faceSize;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the background seen through the given view transform, as size x size packed colors laid
+    // out like the framebuffer. the background is only filled again if the size or the rotation of the view has
+    // changed since the last call, so the returned array must not be modified
+    public int[] getBackground(Transform viewTransform, int size) {
+        float[] components = viewTransform.getValues();
+        boolean isRotated = false;
+        for (int i = 0; i < 9; i++) {
+            float component = components[i / 3 * 4 + i % 3];
+            isRotated |= backgroundRotation[i] != component;
+            backgroundRotation[i] = component;
+        }
+        if (size != backgroundSize) {
+            background = new int[size * size];
+            backgroundSize = size;
+        } else if (!isRotated) {
+            return background;
+        }
+        executor.forEachRange(size, (from, to) -> {
+            for (int posY = from; posY < to; posY++) {
+                fillRow(posY);
+            }
+        });
+        return background;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: fills every texel of the given face with the texture's color in the texel's direction
+    private void bakeFace(Texture texture, int face) {
+        float[] basis = FACE_BASES[face];
+        // NOTE:
+        // a face spans a quarter of the texture's width and half of its height
+        float footprintU = 0.25f / faceSize;
+        float footprintV = 0.5f / faceSize;
+        for (int posY = 0; posY < faceSize; posY++) {
+            float faceY = (posY + 0.5f) * 2.0f / faceSize - 1.0f;
+            for (int posX = 0; posX < faceSize; posX++) {
+                float faceX = (posX + 0.5f) * 2.0f / faceSize - 1.0f;
+                float dirX = basis[0] + faceX * basis[3] + faceY * basis[6];
+                float dirY = basis[1] + faceX * basis[4] + faceY * basis[7];
+                float dirZ = basis[2] + faceX * basis[5] + faceY * basis[8];
+                float length = (float) Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+                faces[face][posX + posY * faceSize] = texture.sample(Rasterizer.getSphereTexU(dirX, dirZ),
+                        Rasterizer.getSphereTexV(dirY / length), footprintU, footprintV);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: fills the given row of the background, stepping the worldspace direction of each pixel's ray from
+    // pixel to pixel. the ray of a pixel is (x, y, -1) in viewspace, which the transpose of the view's rotation
+    // turns back into worldspace, starting from the ray of the row's first pixel at x = -1
+    private void fillRow(int posY) {
+        float[] rotation = backgroundRotation;
+        float rayY = posY * 2.0f / backgroundSize - 1.0f;
+        float step = 2.0f / backgroundSize;
+        float dirX = -rotation[0] + rotation[1] * rayY - rotation[2];
+        float dirY = -rotation[3] + rotation[4] * rayY - rotation[5];
+        float dirZ = -rotation[6] + rotation[7] * rayY - rotation[8];
+        // NOTE:
+        // the framebuffer stores its rows from the top of the screen down
+        int index = (backgroundSize - 1 - posY) * backgroundSize;
+        for (int posX = 0; posX < backgroundSize; posX++) {
+            background[index + posX] = lookup(dirX, dirY, dirZ);
+            dirX += rotation[0] * step;
+            dirY += rotation[3] * step;
+            dirZ += rotation[6] * step;
+        }
+    }
+
+    // EFFECTS: returns the color of the cubemap texel in the given worldspace direction, which is on the face
+    // whose normal the direction is closest to
+    private int lookup(float dirX, float dirY, float dirZ) {
+        float absX = Math.abs(dirX);
+        float absY = Math.abs(dirY);
+        float absZ = Math.abs(dirZ);
+        int face;
+        float major;
+        if (absX >= absY && absX >= absZ) {
+            face = (dirX >= 0.0f) ? 0 : 1;
+            major = absX;
+        } else if (absY >= absZ) {
+            face = (dirY >= 0.0f) ? 2 : 3;
+            major = absY;
+        } else {
+            face = (dirZ >= 0.0f) ? 4 : 5;
+            major = absZ;
+        }
+        float[] basis = FACE_BASES[face];
+        float faceX = (dirX * basis[3] + dirY * basis[4] + dirZ * basis[5]) / major;
+        float faceY = (dirX * basis[6] + dirY * basis[7] + dirZ * basis[8]) / major;
+        int texelX = Math.min(faceSize - 1, (int) ((faceX + 1.0f) * 0.5f * faceSize));
+        int texelY = Math.min(faceSize - 1, (int) ((faceY + 1.0f) * 0.5f * faceSize));
+        return faces[face][texelX + texelY * faceSize];
+    }
+}
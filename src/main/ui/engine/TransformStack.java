@@ -0,0 +1,63 @@
+package ui.engine;
+
+import model.*;
+
+// Represents a stack of transforms which the renderer composes its matrices on, where each transform pushed is
+// multiplied onto the one below it. the matrices are kept and written over in place from frame to frame, so
+// composing a planet's transforms doesn't allocate any. a transform returned by the stack belongs to it, and is
+// only valid until the stack is next pushed past it or reset
+public class TransformStack {
+    private Transform[] transforms;
+    private int depth;
+    private Transform local;
+
+    // EFFECTS: creates a stack holding only the identity matrix
+    public TransformStack() {
+        transforms = new Transform[] { new Transform() };
+        depth = 0;
+        local = new Transform();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the stack down to just the given transform, and returns the top of the stack
+    public Transform reset(Transform base) {
+        depth = 0;
+        return transforms[0].set(base);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: pushes the given transform, applied before the one on top of the stack, and returns the new top
+    public Transform push(Transform transform) {
+        if (depth + 1 == transforms.length) {
+            Transform[] grown = new Transform[transforms.length * 2];
+            System.arraycopy(transforms, 0, grown, 0, transforms.length);
+            for (int i = transforms.length; i < grown.length; i++) {
+                grown[i] = new Transform();
+            }
+            transforms = grown;
+        }
+        Transform.multiplyInto(transform, transforms[depth], transforms[depth + 1]);
+        depth++;
+        return transforms[depth];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: pushes the TRS matrix of the given translation, rotation and scale, applied before the one on top of
+    // the stack, and returns the new top
+    public Transform pushTransform(Vector3 trl, Vector3 rot, Vector3 scl) {
+        return push(local.setTransform(trl, rot, scl));
+    }
+
+    // REQUIRES: something has been pushed since the stack was last reset
+    // MODIFIES: this
+    // EFFECTS: removes the top of the stack, and returns the transform beneath it
+    public Transform pop() {
+        depth--;
+        return transforms[depth];
+    }
+
+    // EFFECTS: returns the top of the stack
+    public Transform peek() {
+        return transforms[depth];
+    }
+}
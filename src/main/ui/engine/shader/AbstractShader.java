@@ -1,26 +1,12 @@
 package ui.engine.shader;
 
-import model.*;
-import java.awt.image.*;
-
 // An abstract shader class with some built in functionality for shaders which implement it
 public abstract class AbstractShader {
     public static final int CULL_FRAGMENT = 0x00000000;
 
-    public abstract int shade(Vector3 weights, Vector3 uv);
-
-    // EFFECTS: samples a buffered image, while wrapping the UVs around
-    protected static int sample(BufferedImage image, Vector3 uv) {
-        int sampleU = (int) (uv.getX() * (image.getWidth() - 1) + 0.5f);
-        int sampleV = (int) (uv.getY() * (image.getHeight() - 1) + 0.5f);
-        sampleU %= image.getWidth();
-        if (sampleU < 0) {
-            sampleU += image.getWidth();
-        }
-        sampleV %= image.getHeight();
-        if (sampleV < 0) {
-            sampleV += image.getHeight();
-        }
-        return image.getRGB(sampleU, image.getHeight() - 1 - sampleV);
-    }
+    // EFFECTS: returns the color of the fragment at the given pixel and texture coordinates, or CULL_FRAGMENT if it
+    // should be discarded. the footprint is how far the texture coordinates move across one pixel along each axis,
+    // which textures use to pick a mipmap, and the pixel is where shaders read their Noise from
+    public abstract int shade(int posX, int posY, float texU, float texV, float texFootprintU,
+            float texFootprintV);
 }
@@ -1,33 +1,48 @@
 package ui.engine.shader;
 
-import model.*;
-import java.util.*;
-import java.awt.image.*;
-
 // Fuzzy shader to represent semi-transparent gas giant surface
 public class GasGiantLayerShader extends TextureShader {
-    private static final Random RANDOM = new Random();
     private static final float SKEW_VERTICAL_FACTOR = 0.15f;
+    private static final int CHANNEL_ALPHA = 0;
+    private static final int CHANNEL_SKEW = 1;
+    private static final int CHANNEL_SKEW_VERTICAL = 2;
     private final float uvSkew;
     private final float alpha;
+    private final int alphaOffset;
+    private final int skewOffset;
+    private final int skewVertOffset;
 
-    // EFFECTS: initializes current texture, UV skewfactor, and alpha values
-    public GasGiantLayerShader(BufferedImage texture, float skewFactor, float alpha) {
+    // EFFECTS: initializes current texture, UV skewfactor, and alpha values, and picks the noise to discard and
+    // skew by from the seed
+    public GasGiantLayerShader(Texture texture, float skewFactor, float alpha, int seed) {
         super(texture);
         this.alpha = alpha;
         uvSkew = skewFactor / (float) texture.getWidth();
+        alphaOffset = Noise.getOffset(seed, CHANNEL_ALPHA);
+        skewOffset = Noise.getOffset(seed, CHANNEL_SKEW);
+        skewVertOffset = Noise.getOffset(seed, CHANNEL_SKEW_VERTICAL);
     }
 
     // EFFECTS: discards fragments based on random noise, shifts UVs based on the
     // skew factor provided by the user, and then samples the texture and returns it
     @Override
-    public int shade(Vector3 weights, Vector3 uvs) {
-        if (RANDOM.nextFloat() > alpha) {
+    public int shade(int posX, int posY, float texU, float texV, float texFootprintU, float texFootprintV) {
+        if (isDiscarded(posX, posY)) {
             return CULL_FRAGMENT;
         }
-        float skew = uvSkew * RANDOM.nextFloat();
-        float skewVert = SKEW_VERTICAL_FACTOR * uvSkew * RANDOM.nextFloat();
-        uvs = Vector3.add(uvs, new Vector3(skew, skewVert, 0.0f));
-        return super.shade(weights, uvs);
+        return shadeLayer(posX, posY, texU, texV, texFootprintU, texFootprintV);
+    }
+
+    // EFFECTS: returns whether the fragment at the given pixel is discarded, which happens to roughly 1 - alpha of
+    // all pixels
+    public boolean isDiscarded(int posX, int posY) {
+        return Noise.sample(posX, posY, alphaOffset) > alpha;
+    }
+
+    // EFFECTS: shifts UVs based on the skew factor and samples the texture, without discarding the fragment
+    public int shadeLayer(int posX, int posY, float texU, float texV, float texFootprintU, float texFootprintV) {
+        float skew = uvSkew * Noise.sample(posX, posY, skewOffset);
+        float skewVert = SKEW_VERTICAL_FACTOR * uvSkew * Noise.sample(posX, posY, skewVertOffset);
+        return super.shade(posX, posY, texU + skew, texV + skewVert, texFootprintU, texFootprintV);
     }
 }
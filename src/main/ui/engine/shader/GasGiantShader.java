@@ -0,0 +1,101 @@
+package ui.engine.shader;
+
+import model.*;
+import ui.engine.Rasterizer;
+
+// Shader which draws every semi-transparent layer of a gas giant in one pass. the gas giant is drawn as its outermost
+// shell, and a pixel which the outermost layer discards looks further in along its ray, intersecting the inner
+// shells one at a time until a layer keeps it, which gives the same picture as drawing each shell on top of the last
+// while only drawing the planet once
+public class GasGiantShader extends AbstractShader {
+    private static final float[] LAYER_SCALES = { 1.0f, 1.02f, 1.05f };
+    private static final float[] LAYER_SKEW_FACTORS = { 5.0f, 25.0f, 50.0f };
+    private static final float[] LAYER_ALPHAS = { 1.0f, 0.6f, 0.3f };
+
+    private final GasGiantLayerShader[] layers;
+    private final float[] layerRadiiSquared;
+    private final float[] rotation;
+    private final float centerX;
+    private final float centerY;
+    private final float centerZ;
+    private final float centerDistanceSquared;
+    private final float pixelScale;
+
+    // REQUIRES: transform maps the unit sphere into viewspace with a uniform scale, bufferSize is the size of the
+    // framebuffer being drawn to
+    // EFFECTS: initializes a layer shader for each shell with the given texture, each seeded differently so that
+    // their noise doesn't line up, and keeps the viewspace center, radii and inverse rotation of the shells
+    public GasGiantShader(Texture texture, Transform transform, int bufferSize, int seed) {
+        float[] comp = transform.getValues();
+        float radius = Transform.extractScale(transform).getX();
+        layers = new GasGiantLayerShader[LAYER_SCALES.length];
+        layerRadiiSquared = new float[LAYER_SCALES.length];
+        for (int layer = 0; layer < LAYER_SCALES.length; layer++) {
+            layers[layer] = new GasGiantLayerShader(texture, LAYER_SKEW_FACTORS[layer], LAYER_ALPHAS[layer],
+                    seed * LAYER_SCALES.length + layer);
+            layerRadiiSquared[layer] = radius * LAYER_SCALES[layer] * radius * LAYER_SCALES[layer];
+        }
+        // NOTE:
+        // the rotation is orthonormal, so its transpose is its inverse
+        rotation = new float[9];
+        for (int i = 0; i < 9; i++) {
+            rotation[i] = comp[i / 3 * 4 + i % 3] / radius;
+        }
+        centerX = comp[12];
+        centerY = comp[13];
+        centerZ = comp[14];
+        centerDistanceSquared = centerX * centerX + centerY * centerY + centerZ * centerZ;
+        pixelScale = 2.0f / bufferSize;
+    }
+
+    // EFFECTS: returns how much larger the outermost shell is than the planet, which is the shell that should be
+    // drawn with this shader
+    public static float getOuterScale() {
+        return LAYER_SCALES[LAYER_SCALES.length - 1];
+    }
+
+    // EFFECTS: shades the outermost layer at the given uv, which is where the pixel's ray meets the outermost shell.
+    // if that layer is discarded, shades the first inner layer along the ray which both the ray hits and isn't
+    // discarded, or discards the fragment if there isn't one. the shells are nested, so once the ray misses one it
+    // misses all of the shells inside it too
+    @Override
+    public int shade(int posX, int posY, float texU, float texV, float texFootprintU, float texFootprintV) {
+        int outer = layers.length - 1;
+        if (!layers[outer].isDiscarded(posX, posY)) {
+            return layers[outer].shadeLayer(posX, posY, texU, texV, texFootprintU, texFootprintV);
+        }
+        float rayX = posX * pixelScale - 1.0f;
+        float rayY = posY * pixelScale - 1.0f;
+        float rayLengthSquared = rayX * rayX + rayY * rayY + 1.0f;
+        float centerAlongRay = rayX * centerX + rayY * centerY - centerZ;
+        for (int layer = outer - 1; layer >= 0; layer--) {
+            float discriminant = centerAlongRay * centerAlongRay
+                    - rayLengthSquared * (centerDistanceSquared - layerRadiiSquared[layer]);
+            if (discriminant < 0.0f) {
+                return CULL_FRAGMENT;
+            }
+            if (!layers[layer].isDiscarded(posX, posY)) {
+                float distance = (centerAlongRay - (float) Math.sqrt(discriminant)) / rayLengthSquared;
+                return shadeHit(layer, posX, posY, rayX * distance, rayY * distance, -distance, texFootprintU,
+                        texFootprintV);
+            }
+        }
+        return CULL_FRAGMENT;
+    }
+
+    // EFFECTS: shades the given layer where the pixel's ray meets its shell at the given viewspace position, at the
+    // same spherical uv which the shell's mesh would have there. the footprint of the outermost shell is used for
+    // every layer, since the shells are nearly the same size
+    private int shadeHit(int layer, int posX, int posY, float hitX, float hitY, float hitZ, float texFootprintU,
+            float texFootprintV) {
+        float normalX = hitX - centerX;
+        float normalY = hitY - centerY;
+        float normalZ = hitZ - centerZ;
+        float localX = normalX * rotation[0] + normalY * rotation[1] + normalZ * rotation[2];
+        float localY = normalX * rotation[3] + normalY * rotation[4] + normalZ * rotation[5];
+        float localZ = normalX * rotation[6] + normalY * rotation[7] + normalZ * rotation[8];
+        float length = (float) Math.sqrt(localX * localX + localY * localY + localZ * localZ);
+        return layers[layer].shadeLayer(posX, posY, Rasterizer.getSphereTexU(localX, localZ),
+                Rasterizer.getSphereTexV(localY / length), texFootprintU, texFootprintV);
+    }
+}
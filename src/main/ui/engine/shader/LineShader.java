@@ -1,7 +1,5 @@
 package ui.engine.shader;
 
-import model.*;
-
 // Primitive line shader which shades in a flat color
 public class LineShader extends AbstractShader {
     private int color;
@@ -13,7 +11,7 @@ public class LineShader extends AbstractShader {
 
     // EFFECTS: returns color provided by the user, regardless of UV
     @Override
-    public int shade(Vector3 weights, Vector3 uv) {
+    public int shade(int posX, int posY, float texU, float texV, float texFootprintU, float texFootprintV) {
         return color;
     }
 }
@@ -0,0 +1,52 @@
+package ui.engine.shader;
+
+// Holds a table of noise which shaders read by pixel, instead of drawing random numbers for every fragment. the
+// table is generated once from a fixed hash, so the same pixel, seed and channel always give the same value, which
+// keeps animated shaders reproducible and lets any number of threads read it without synchronization. the table
+// tiles across the screen, and every seed and channel reads it from its own offset
+public class Noise {
+    private static final int TABLE_BITS = 6;
+    private static final int TABLE_SIZE = 1 << TABLE_BITS;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+    private static final float[] TABLE = createTable();
+
+    private Noise() {
+        // instantiation not allowed
+    }
+
+    // EFFECTS: returns the offset which the given seed and channel read the table from, which a shader should work
+    // out once rather than for every fragment. seeds such as the frame number pick a different pattern for each
+    // frame, and channels give independent values for the same pixel and seed
+    public static int getOffset(int seed, int channel) {
+        return hash(hash(seed) + channel) & (TABLE_SIZE * TABLE_SIZE - 1);
+    }
+
+    // EFFECTS: returns the noise at the given pixel read from the given offset, from 0 (inclusive) to 1 (exclusive)
+    public static float sample(int posX, int posY, int offset) {
+        int tableX = (posX + offset) & TABLE_MASK;
+        int tableY = (posY + (offset >>> TABLE_BITS)) & TABLE_MASK;
+        return TABLE[tableX | (tableY << TABLE_BITS)];
+    }
+
+    // EFFECTS: returns the table, with every entry set from the hash of its index
+    private static float[] createTable() {
+        float[] table = new float[TABLE_SIZE * TABLE_SIZE];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (float) (hash(i) >>> 8) / (float) (1 << 24);
+        }
+        return table;
+    }
+
+    // EFFECTS: returns a hash of the value whose bits each depend on every bit of the value
+    private static int hash(int value) {
+        // NOTE:
+        // this is the finalizer of the murmur3 hash
+        int hash = value;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
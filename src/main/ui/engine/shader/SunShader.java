@@ -1,29 +1,28 @@
 package ui.engine.shader;
 
-import model.*;
-
-import java.util.*;
-import java.awt.image.*;
-
 // Sunshader which jitters around a texture to give a firey effect
 public class SunShader extends TextureShader {
-    private static final Random RANDOM = new Random();
     private static final float WIGGLE_FACTOR = 10.0f;
+    private static final int CHANNEL_WIGGLE_U = 0;
+    private static final int CHANNEL_WIGGLE_V = 1;
     private final float uvWiggle;
+    private final int wiggleOffsetU;
+    private final int wiggleOffsetV;
 
-    // EFFECTS: initializes the texture and uv wiggle factor
-    public SunShader(BufferedImage texture) {
+    // EFFECTS: initializes the texture and uv wiggle factor, and picks the noise to wiggle by from the seed
+    public SunShader(Texture texture, int seed) {
         super(texture);
         uvWiggle = WIGGLE_FACTOR / (float) texture.getWidth();
+        wiggleOffsetU = Noise.getOffset(seed, CHANNEL_WIGGLE_U);
+        wiggleOffsetV = Noise.getOffset(seed, CHANNEL_WIGGLE_V);
     }
 
     // EFFECTS: jiggles the uv based on noise and returns the texture with the
     // jiggled uv
     @Override
-    public int shade(Vector3 weights, Vector3 uv) {
-        float uvWiggleU = RANDOM.nextFloat() * uvWiggle;
-        float uvWiggleV = RANDOM.nextFloat() * uvWiggle;
-        uv = Vector3.add(new Vector3(uvWiggleU, uvWiggleV, 0.0f), uv);
-        return super.shade(weights, uv);
+    public int shade(int posX, int posY, float texU, float texV, float texFootprintU, float texFootprintV) {
+        float uvWiggleU = Noise.sample(posX, posY, wiggleOffsetU) * uvWiggle;
+        float uvWiggleV = Noise.sample(posX, posY, wiggleOffsetV) * uvWiggle;
+        return super.shade(posX, posY, texU + uvWiggleU, texV + uvWiggleV, texFootprintU, texFootprintV);
     }
 }
@@ -0,0 +1,151 @@
+package ui.engine.shader;
+
+import java.awt.image.*;
+
+// Represents an image converted once into packed ARGB texel arrays with power of two dimensions, along with a chain
+// of mipmaps which each halve the size of the one before, down to a single texel. sampling reads the arrays
+// directly instead of going through the image's color model, and picks the mipmap whose texels best match the size
+// of a pixel so that distant surfaces read a small, cache friendly level
+public class Texture {
+    private static final int BLEND_ONE = 256;
+
+    private final int[][] levels;
+    private final int[] levelWidths;
+    private final int[] levelHeights;
+
+    // EFFECTS: converts the image into a texture, resizing it to the nearest power of two dimensions not smaller
+    // than its own, and builds its mipmaps
+    public Texture(BufferedImage image) {
+        int width = nextPowerOfTwo(image.getWidth());
+        int height = nextPowerOfTwo(image.getHeight());
+        int levelCount = 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+        levels = new int[levelCount][];
+        levelWidths = new int[levelCount];
+        levelHeights = new int[levelCount];
+        levels[0] = readTexels(image, width, height);
+        levelWidths[0] = width;
+        levelHeights[0] = height;
+        for (int level = 1; level < levelCount; level++) {
+            levelWidths[level] = Math.max(1, levelWidths[level - 1] / 2);
+            levelHeights[level] = Math.max(1, levelHeights[level - 1] / 2);
+            levels[level] = downsample(level);
+        }
+    }
+
+    public int getWidth() {
+        return levelWidths[0];
+    }
+
+    public int getHeight() {
+        return levelHeights[0];
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    // EFFECTS: returns the average color of the whole texture, which is the single texel of its last mipmap
+    public int getAverageColor() {
+        return levels[levels.length - 1][0];
+    }
+
+    // EFFECTS: samples the texture at the given uv, wrapping u around and clamping v, by blending the four nearest
+    // texels of the coarsest mipmap whose texels are no larger than the given footprint, which is how far the uv moves
+    // across one pixel along each axis. v goes up the image
+    public int sample(float texU, float texV, float texFootprintU, float texFootprintV) {
+        int level = getLevel(texFootprintU, texFootprintV);
+        int width = levelWidths[level];
+        int height = levelHeights[level];
+        float texelX = texU * width - 0.5f;
+        float texelY = (1.0f - texV) * height - 0.5f;
+        int floorX = floor(texelX);
+        int floorY = floor(texelY);
+        int weightX = (int) ((texelX - floorX) * BLEND_ONE);
+        int weightY = (int) ((texelY - floorY) * BLEND_ONE);
+        int[] texels = levels[level];
+        int row0 = Math.max(0, Math.min(height - 1, floorY)) * width;
+        int row1 = Math.max(0, Math.min(height - 1, floorY + 1)) * width;
+        int col0 = floorX & (width - 1);
+        int col1 = (floorX + 1) & (width - 1);
+        int top = blend(texels[row0 + col0], texels[row0 + col1], weightX);
+        int bottom = blend(texels[row1 + col0], texels[row1 + col1], weightX);
+        return blend(top, bottom, weightY);
+    }
+
+    // EFFECTS: returns the largest integer which is not greater than value
+    private static int floor(float value) {
+        int truncated = (int) value;
+        return (value < truncated) ? truncated - 1 : truncated;
+    }
+
+    // EFFECTS: returns the coarsest mipmap level whose texels are no larger than the footprint, so that the texture
+    // is never blurrier than a pixel, clamped to the levels which exist
+    private int getLevel(float texFootprintU, float texFootprintV) {
+        float footprint = Math.max(texFootprintU * levelWidths[0], texFootprintV * levelHeights[0]);
+        if (!(footprint >= 1.0f)) {
+            return 0;
+        }
+        // NOTE:
+        // the exponent of a float is the floor of its log2
+        return Math.min(levels.length - 1, Math.getExponent(footprint));
+    }
+
+    // EFFECTS: returns the color between colorA and colorB by the given weight out of BLEND_ONE, blending the red
+    // and blue channels together and the green channel separately
+    private static int blend(int colorA, int colorB, int weightB) {
+        int weightA = BLEND_ONE - weightB;
+        int redBlue = ((colorA & 0xFF00FF) * weightA + (colorB & 0xFF00FF) * weightB) >>> 8;
+        int green = ((colorA & 0x00FF00) * weightA + (colorB & 0x00FF00) * weightB) >>> 8;
+        return 0xFF000000 | (redBlue & 0xFF00FF) | (green & 0x00FF00);
+    }
+
+    // EFFECTS: returns the texels of the image resized to the given dimensions by picking the nearest pixel, packed
+    // row by row from the top of the image
+    private static int[] readTexels(BufferedImage image, int width, int height) {
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        if (width == image.getWidth() && height == image.getHeight()) {
+            return pixels;
+        }
+        int[] texels = new int[width * height];
+        for (int posY = 0; posY < height; posY++) {
+            int sourceY = posY * image.getHeight() / height;
+            for (int posX = 0; posX < width; posX++) {
+                texels[posX + posY * width] = pixels[posX * image.getWidth() / width + sourceY * image.getWidth()];
+            }
+        }
+        return texels;
+    }
+
+    // EFFECTS: returns the texels of the given level, each the average of the block of texels it covers in the
+    // level before it
+    private int[] downsample(int level) {
+        int[] source = levels[level - 1];
+        int sourceWidth = levelWidths[level - 1];
+        int stepX = sourceWidth / levelWidths[level];
+        int stepY = levelHeights[level - 1] / levelHeights[level];
+        int[] texels = new int[levelWidths[level] * levelHeights[level]];
+        for (int posY = 0; posY < levelHeights[level]; posY++) {
+            for (int posX = 0; posX < levelWidths[level]; posX++) {
+                int corner = posX * stepX + posY * stepY * sourceWidth;
+                int right = corner + stepX - 1;
+                int below = (stepY - 1) * sourceWidth;
+                texels[posX + posY * levelWidths[level]] = average(source[corner], source[right],
+                        source[corner + below], source[right + below]);
+            }
+        }
+        return texels;
+    }
+
+    // EFFECTS: returns the average of the four colors, averaging each channel separately
+    private static int average(int color0, int color1, int color2, int color3) {
+        int red = ((color0 >> 16 & 0xFF) + (color1 >> 16 & 0xFF) + (color2 >> 16 & 0xFF) + (color3 >> 16 & 0xFF)) / 4;
+        int green = ((color0 >> 8 & 0xFF) + (color1 >> 8 & 0xFF) + (color2 >> 8 & 0xFF) + (color3 >> 8 & 0xFF)) / 4;
+        int blue = ((color0 & 0xFF) + (color1 & 0xFF) + (color2 & 0xFF) + (color3 & 0xFF)) / 4;
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+
+    // EFFECTS: returns the smallest power of two which is at least value
+    private static int nextPowerOfTwo(int value) {
+        return Math.max(1, Integer.highestOneBit(value - 1) << 1);
+    }
+}
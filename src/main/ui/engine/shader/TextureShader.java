@@ -1,22 +1,18 @@
 package ui.engine.shader;
 
-import model.*;
-
-import java.awt.image.*;
-
 // Simple texture shader which always samples the color from a specified texture
 public class TextureShader extends AbstractShader {
-    private BufferedImage texture;
+    private Texture texture;
 
     // EFFECTS: saves the specified texture for later
-    public TextureShader(BufferedImage texture) {
+    public TextureShader(Texture texture) {
         this.texture = texture;
     }
 
     // EFFECTS: returns the color of the specified texture at the given UV
     @Override
-    public int shade(Vector3 weights, Vector3 uv) {
-        int texSample = sample(texture, uv);
+    public int shade(int posX, int posY, float texU, float texV, float texFootprintU, float texFootprintV) {
+        int texSample = texture.sample(texU, texV, texFootprintU, texFootprintV);
         return texSample;
     }
 }
@@ -28,6 +28,16 @@ public abstract class AbstractListPanel<T> extends JPanel implements Tickable {
             return targetListData;
         }
 
+        // EFFECTS: sets the internal target list to point at listData, removing any
+        // elements past its end
+        public void setListData(java.util.List<T> listData) {
+            int oldSize = targetListData.size();
+            targetListData = listData;
+            if (listData.size() < oldSize) {
+                fireIntervalRemoved(this, listData.size(), oldSize - 1);
+            }
+        }
+
         // EFFECTS: returns internal list size
         @Override
         public int getSize() {
@@ -76,6 +86,12 @@ public abstract class AbstractListPanel<T> extends JPanel implements Tickable {
         return listModel.getListData();
     }
 
+    // MODIFIES: this
+    // EFFECTS: makes the list show listData instead, as of the next tick
+    protected void setListData(java.util.List<T> listData) {
+        listModel.setListData(listData);
+    }
+
     // EFFECTS: expected that the user defines a means to initialize the editor
     // panel in this method, and returns it
     protected abstract JPanel initEditorPanel();
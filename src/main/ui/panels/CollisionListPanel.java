@@ -8,9 +8,10 @@ import ui.SimulatorState;
 public class CollisionListPanel extends AbstractListPanel<Collision> {
     private CollisionEditorPanel collisionEditorPanel;
 
-    // EFFECTS: initializes the list to represent SimulatorState's collision list
+    // EFFECTS: initializes the list to represent the collision list of the latest
+    // simulation snapshot
     public CollisionListPanel() {
-        super(SimulatorState.getInstance().getSimulation().getCollisions());
+        super(SimulatorState.getInstance().getSnapshot().getCollisions());
     }
 
     // EFFECTS: returns the PlanetEditorPanel class
@@ -21,9 +22,11 @@ public class CollisionListPanel extends AbstractListPanel<Collision> {
     }
 
     // MODIFIES: this
-    // EFFECTS: updates the collision editor panel
+    // EFFECTS: shows the collision list of the latest simulation snapshot, and
+    // updates the collision editor panel
     @Override
     public void tick() {
+        setListData(SimulatorState.getInstance().getSnapshot().getCollisions());
         super.tick();
         collisionEditorPanel.tick();
     }
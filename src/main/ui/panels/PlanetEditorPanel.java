@@ -16,6 +16,8 @@ public class PlanetEditorPanel extends JPanel implements ActionListener, Tickabl
     private JButton addPlanetButton;
     private JButton removePlaneButton;
     private JButton jumpToPlanetButton;
+    private Planet pendingSelection;
+    private Planet pendingRemoval;
 
     // EFFECTS: initializes all UI elements
     public PlanetEditorPanel(PlanetListPanel parent) {
@@ -100,13 +102,11 @@ public class PlanetEditorPanel extends JPanel implements ActionListener, Tickabl
         if (buttonSrc == addPlanetButton) {
             Planet newPlanet = SimulatorUtils.createNewPlanet();
             SimulatorState.getInstance().getSimulation().addPlanet(newPlanet);
-            parent.getSwingList().setSelectedValue(newPlanet, true);
+            pendingSelection = newPlanet;
         }
         if (buttonSrc == removePlaneButton) {
-            SimulatorState.getInstance().getSimulation().removePlanet(getSelectedPlanet());
-            if (getSelectedPlanet() == null) {
-                parent.getSwingList().setSelectedIndex(parent.getSwingList().getModel().getSize() - 1);
-            }
+            pendingRemoval = getSelectedPlanet();
+            SimulatorState.getInstance().getSimulation().removePlanet(pendingRemoval);
         }
         if (buttonSrc == jumpToPlanetButton) {
             // LMAO
@@ -119,15 +119,36 @@ public class PlanetEditorPanel extends JPanel implements ActionListener, Tickabl
     // EFFECTS: updates itself and all relevant sub-components
     public void tick() {
         SimulatorState simState = SimulatorState.getInstance();
+        applyPendingSelection();
         Planet selPlanet = parent.getSwingList().getSelectedValue();
         handleShouldPanelsBeEditable(simState, selPlanet);
-        handleEditFieldText(simState, selPlanet);
+        handleEditFieldText(simState.getSnapshot(), selPlanet);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: updates the selection for a planet which was added or removed, once the list shows the snapshot
+    // which was published after the change. the list only changes when a new snapshot is published, so selecting
+    // straight away would act on the list from before the change
+    private void applyPendingSelection() {
+        java.util.List<Planet> listData = parent.getListData();
+        if (pendingSelection != null && listData.contains(pendingSelection)) {
+            parent.getSwingList().setSelectedValue(pendingSelection, true);
+            pendingSelection = null;
+        }
+        if (pendingRemoval != null && !listData.contains(pendingRemoval)) {
+            if (getSelectedPlanet() == null) {
+                parent.getSwingList().setSelectedIndex(listData.size() - 1);
+            }
+            pendingRemoval = null;
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: sets the text of each editing field
-    private void handleEditFieldText(SimulatorState simState, Planet selPlanet) {
-        if (selPlanet == null) {
+    // EFFECTS: sets the text of each editing field to the state of the selected
+    // planet in the latest simulation snapshot
+    private void handleEditFieldText(SimulationSnapshot snapshot, Planet selPlanet) {
+        int selIndex = snapshot.indexOf(selPlanet);
+        if (selIndex == -1) {
             nameEditField.setText("");
             posEditField.setText("");
             velEditField.setText("");
@@ -135,18 +156,18 @@ public class PlanetEditorPanel extends JPanel implements ActionListener, Tickabl
             return;
         }
         if (!nameEditField.isFocusOwner()) {
-            nameEditField.setText(selPlanet.getName());
+            nameEditField.setText(snapshot.getName(selIndex));
         }
         if (!posEditField.isFocusOwner()) {
-            String posString = selPlanet.getPosition().toString();
+            String posString = snapshot.getPosition(selIndex).toString();
             posEditField.setText(SimulatorUtils.convertVectorStringToParseable(posString));
         }
         if (!velEditField.isFocusOwner()) {
-            String velString = selPlanet.getVelocity().toString();
+            String velString = snapshot.getVelocity(selIndex).toString();
             velEditField.setText(SimulatorUtils.convertVectorStringToParseable(velString));
         }
         if (!radEditField.isFocusOwner()) {
-            radEditField.setText(Float.toString(selPlanet.getRadius()));
+            radEditField.setText(Float.toString(snapshot.getRadius(selIndex)));
         }
     }
 
@@ -8,9 +8,10 @@ import ui.SimulatorState;
 public class PlanetListPanel extends AbstractListPanel<Planet> {
     private PlanetEditorPanel planetEditorPanel;
 
-    // EFFECTS: constructs the list editor with the SimulationManager's planet list
+    // EFFECTS: constructs the list editor with the planet list of the latest
+    // simulation snapshot
     public PlanetListPanel() {
-        super(SimulatorState.getInstance().getSimulation().getPlanets());
+        super(SimulatorState.getInstance().getSnapshot().getPlanets());
     }
 
     // MODIFIES: this
@@ -22,8 +23,10 @@ public class PlanetListPanel extends AbstractListPanel<Planet> {
     }
 
     // MODIFIES: this
-    // EFFECTS: updates itself and all relevant sub-components
+    // EFFECTS: shows the planet list of the latest simulation snapshot, and updates
+    // itself and all relevant sub-components
     public void tick() {
+        setListData(SimulatorState.getInstance().getSnapshot().getPlanets());
         super.tick();
         planetEditorPanel.tick();
     }
@@ -12,12 +12,15 @@ public class ViewportPanel extends JPanel implements ActionListener, Tickable {
     private static final float SPLIT_WEIGHT_TOP = 0.0f;
     private static final float SPLIT_WEIGHT_BOTTOM = 1.0f;
     private static final int VIEWPORT_RESOLUTION = 350;
+    private static final float VIEWPORT_TARGET_FRAME_MILLISECONDS = 16.0f;
 
     private JButton startButton;
     private JButton stopButton;
     private JButton resetButton;
     private JButton resetCameraButton;
+    private JCheckBox rayCastCheckBox;
     private JLabel timeElapsedLabel;
+    private JLabel renderStatsLabel;
     private JSlider timeScaleSlider;
     private RenderEngine renderEngine;
 
@@ -46,28 +49,11 @@ public class ViewportPanel extends JPanel implements ActionListener, Tickable {
     public ViewportPanel() {
         setLayout(new BorderLayout());
 
-        JPanel topSimControlPanel = new JPanel(new FlowLayout());
-        startButton = new JButton("Start");
-        startButton.addActionListener(this);
-        topSimControlPanel.add(startButton);
-
-        stopButton = new JButton("Stop");
-        stopButton.addActionListener(this);
-        topSimControlPanel.add(stopButton);
-
-        resetButton = new JButton("Reset");
-        resetButton.addActionListener(this);
-        topSimControlPanel.add(resetButton);
-
-        resetCameraButton = new JButton("Reset Camera");
-        resetCameraButton.addActionListener(this);
-        topSimControlPanel.add(resetCameraButton);
-
-        timeElapsedLabel = new JLabel();
-        topSimControlPanel.add(timeElapsedLabel);
+        JPanel topSimControlPanel = createTopSimControlPanel();
 
         viewport = new ActualViewport(this);
         renderEngine = new RenderEngine(viewport, VIEWPORT_RESOLUTION);
+        renderEngine.setTargetFrameMilliseconds(VIEWPORT_TARGET_FRAME_MILLISECONDS);
 
         JSplitPane topSplitter = new JSplitPane(JSplitPane.VERTICAL_SPLIT, topSimControlPanel, viewport);
         topSplitter.setResizeWeight(SPLIT_WEIGHT_TOP);
@@ -92,6 +78,38 @@ public class ViewportPanel extends JPanel implements ActionListener, Tickable {
         add(bottomSplitter);
     }
 
+    // MODIFIES: this
+    // EFFECTS: creates the panel of buttons, toggles and labels above the viewport
+    private JPanel createTopSimControlPanel() {
+        JPanel topSimControlPanel = new JPanel(new FlowLayout());
+        startButton = new JButton("Start");
+        startButton.addActionListener(this);
+        topSimControlPanel.add(startButton);
+
+        stopButton = new JButton("Stop");
+        stopButton.addActionListener(this);
+        topSimControlPanel.add(stopButton);
+
+        resetButton = new JButton("Reset");
+        resetButton.addActionListener(this);
+        topSimControlPanel.add(resetButton);
+
+        resetCameraButton = new JButton("Reset Camera");
+        resetCameraButton.addActionListener(this);
+        topSimControlPanel.add(resetCameraButton);
+
+        rayCastCheckBox = new JCheckBox("Ray-cast Planets");
+        rayCastCheckBox.addActionListener(this);
+        topSimControlPanel.add(rayCastCheckBox);
+
+        timeElapsedLabel = new JLabel();
+        topSimControlPanel.add(timeElapsedLabel);
+
+        renderStatsLabel = new JLabel();
+        topSimControlPanel.add(renderStatsLabel);
+        return topSimControlPanel;
+    }
+
     public RenderEngine getRenderEngine() {
         return renderEngine;
     }
@@ -117,6 +135,11 @@ public class ViewportPanel extends JPanel implements ActionListener, Tickable {
         if (actionEvent.getSource() == resetCameraButton) {
             renderEngine.getCameraController().resetCamera();
         }
+        if (actionEvent.getSource() == rayCastCheckBox) {
+            RenderEngine.PlanetRenderMode mode = rayCastCheckBox.isSelected() ? RenderEngine.PlanetRenderMode.RayCast
+                    : RenderEngine.PlanetRenderMode.Mesh;
+            renderEngine.setPlanetRenderMode(mode);
+        }
 
         SimulatorState.getInstance().unlock();
     }
@@ -129,14 +152,16 @@ public class ViewportPanel extends JPanel implements ActionListener, Tickable {
 
         SimulatorState simState = SimulatorState.getInstance();
         simState.setTimeScale(timeScaleSlider.getValue());
-        float timeElapsed = simState.getSimulation().getTimeElapsed();
+        float timeElapsed = simState.getSnapshot().getTimeElapsed();
         timeElapsedLabel.setText(String.format("Time Elapsed: %03.3fs", timeElapsed));
+        renderStatsLabel.setText(String.format("Render: %dpx %.1fms, culled %d planets %d tris, occluded %d",
+                renderEngine.getResolution(), renderEngine.getFrameMilliseconds(), renderEngine.getCulledPlanetCount(),
+                renderEngine.getCulledTriangleCount(), renderEngine.getOccludedCount()));
 
-        renderEngine.tick();
-
-        // FORCE viewport to update
+        // NOTE:
+        // the viewport is drawn by the render engine's own thread, which asks for a
+        // repaint whenever it has finished a frame
         handleActualViewportBorderVisuals();
-        viewport.repaint();
     }
 
     // MODIFIES: this
@@ -153,7 +178,7 @@ public class ViewportPanel extends JPanel implements ActionListener, Tickable {
     // MODIFIES: this
     // EFFECTS: handles whether the start, stop and reset buttons can be used
     private void handleButtonsUsability() {
-        boolean hasPlanets = (SimulatorState.getInstance().getSimulation().getPlanets().size() > 0);
+        boolean hasPlanets = (SimulatorState.getInstance().getSnapshot().getPlanetCount() > 0);
         boolean isRunning = SimulatorState.getInstance().getIsRunning();
         startButton.setEnabled(hasPlanets && !isRunning);
         stopButton.setEnabled(hasPlanets && isRunning);
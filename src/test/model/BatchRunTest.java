@@ -0,0 +1,104 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+public class BatchRunTest {
+    private static final float EPSILON = 0.001f;
+    private Simulation sim;
+
+    @Before
+    public void init() {
+        sim = new Simulation();
+        sim.addPlanet(new Planet("A", new Vector3(0.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        sim.addPlanet(new Planet("B", new Vector3(100.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        sim.addPlanet(new Planet("C", new Vector3(0.0f, 100.0f, 0.0f), new Vector3(), 1.0f));
+    }
+
+    @Test
+    public void testCtor() {
+        BatchRun batchRun = new BatchRun(0.5f, 10);
+        assertEquals(0.5f, batchRun.getDeltaTime(), EPSILON);
+        assertEquals(10, batchRun.getStepCount());
+        assertEquals(0.0, batchRun.getElapsedSeconds(), EPSILON);
+        assertEquals(0.0, batchRun.getStepsPerSecond(), EPSILON);
+        assertEquals(0.0, batchRun.getPairsPerSecond(), EPSILON);
+    }
+
+    @Test
+    public void testCtorThrowDeltaTime() {
+        try {
+            new BatchRun(0.0f, 10);
+        } catch (ArgumentOutOfBoundsException e) {
+            return;
+        }
+        fail("expected throw ArgumentOutOfBoundsException");
+    }
+
+    @Test
+    public void testCtorThrowStepCount() {
+        try {
+            new BatchRun(0.1f, -1);
+        } catch (ArgumentOutOfBoundsException e) {
+            return;
+        }
+        fail("expected throw ArgumentOutOfBoundsException");
+    }
+
+    @Test
+    public void testRun() {
+        BatchRun batchRun = new BatchRun(0.25f, 8);
+        batchRun.run(sim);
+        assertEquals(2.0f, sim.getTimeElapsed(), EPSILON);
+        assertEquals(24.0, batchRun.getPairInteractions(), EPSILON);
+        assertTrue(batchRun.getElapsedSeconds() > 0.0);
+        assertTrue(batchRun.getStepsPerSecond() > 0.0);
+        assertEquals(3.0, batchRun.getPairsPerSecond() / batchRun.getStepsPerSecond(), EPSILON);
+    }
+
+    @Test
+    public void testRunMatchesProgressBySeconds() {
+        Simulation other = new Simulation();
+        Planet otherPlanet = new Planet("A", new Vector3(0.0f, 0.0f, 0.0f), new Vector3(), 1.0f);
+        other.addPlanet(otherPlanet);
+        other.addPlanet(new Planet("B", new Vector3(100.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        other.addPlanet(new Planet("C", new Vector3(0.0f, 100.0f, 0.0f), new Vector3(), 1.0f));
+        for (int i = 0; i < 5; i++) {
+            other.progressBySeconds(0.1f);
+        }
+        new BatchRun(0.1f, 5).run(sim);
+        assertEquals(otherPlanet.getPosition().getX(), sim.getPlanets().get(0).getPosition().getX(), 0.0f);
+    }
+
+    @Test
+    public void testToTargetTime() {
+        sim.setTimeElapsed(1.0f);
+        assertEquals(10, BatchRun.toTargetTime(sim, 2.0f, 0.1f).getStepCount());
+        assertEquals(4, BatchRun.toTargetTime(sim, 2.1f, 0.3f).getStepCount());
+        assertEquals(0, BatchRun.toTargetTime(sim, 0.5f, 0.1f).getStepCount());
+    }
+
+    @Test
+    public void testToTargetTimeThrow() {
+        try {
+            BatchRun.toTargetTime(sim, 2.0f, -0.1f);
+        } catch (ArgumentOutOfBoundsException e) {
+            return;
+        }
+        fail("expected throw ArgumentOutOfBoundsException");
+    }
+
+    @Test
+    public void testRunMergesCollidedPlanets() {
+        sim.addPlanet(new Planet("D", new Vector3(0.5f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        new BatchRun(0.01f, 10).run(sim);
+        assertEquals(3, sim.getPlanets().size());
+        assertEquals(1, sim.getCollisions().size());
+    }
+}
@@ -0,0 +1,139 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CollisionRegistryTest {
+    private CollisionRegistry registry;
+    private Planet p1;
+    private Planet p2;
+    private Planet p3;
+
+    @Before
+    public void init() {
+        registry = new CollisionRegistry();
+        p1 = new Planet("P1", 1.0f);
+        p2 = new Planet("P2", 2.0f);
+        p3 = new Planet("P3", 3.0f);
+    }
+
+    @Test
+    public void testCtor() {
+        assertEquals(0, registry.size());
+        assertEquals(0, registry.getCollisions().size());
+        assertFalse(registry.wasPlanetInvolved(p1));
+        assertEquals(0, registry.getCollisionsInvolving(p1).size());
+    }
+
+    @Test
+    public void testAddKeepsOrder() {
+        Collision col1 = new Collision(p1, p2, 2.0f);
+        Collision col2 = new Collision(p2, p3, 1.0f);
+        registry.add(col1);
+        registry.add(col2);
+        assertEquals(2, registry.size());
+        assertSame(col1, registry.getCollisions().get(0));
+        assertSame(col2, registry.getCollisions().get(1));
+    }
+
+    @Test
+    public void testContainsIgnoresPlanetOrder() {
+        registry.add(new Collision(p1, p2, 2.0f));
+        assertTrue(registry.contains(new Collision(p2, p1, 2.0f)));
+        assertFalse(registry.contains(new Collision(p1, p2, 3.0f)));
+        assertFalse(registry.contains(new Collision(p1, p3, 2.0f)));
+    }
+
+    @Test
+    public void testCollisionsInvolving() {
+        Collision col1 = new Collision(p1, p2, 1.0f);
+        Collision col2 = new Collision(p3, p1, 2.0f);
+        Collision col3 = new Collision(p2, p3, 3.0f);
+        registry.add(col1);
+        registry.add(col2);
+        registry.add(col3);
+        assertTrue(registry.wasPlanetInvolved(p1));
+        assertEquals(2, registry.getCollisionsInvolving(p1).size());
+        assertSame(col1, registry.getCollisionsInvolving(p1).get(0));
+        assertSame(col2, registry.getCollisionsInvolving(p1).get(1));
+        assertSame(col3, registry.getCollisionsInvolving(p3).get(1));
+    }
+
+    @Test
+    public void testCollisionsInvolvingSamePlanetTwice() {
+        registry.add(new Collision(p1, p1, 1.0f));
+        assertEquals(1, registry.getCollisionsInvolving(p1).size());
+    }
+
+    @Test
+    public void testCollisionsIsReadOnly() {
+        try {
+            registry.getCollisions().add(new Collision(p1, p2, 1.0f));
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        fail("expected throw UnsupportedOperationException");
+    }
+
+    @Test
+    public void testClear() {
+        registry.add(new Collision(p1, p2, 1.0f));
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertFalse(registry.contains(new Collision(p1, p2, 1.0f)));
+        assertFalse(registry.wasPlanetInvolved(p2));
+    }
+
+    @Test
+    public void testCollisionsSoFarUnchangedByAdd() {
+        Collision col1 = new Collision(p1, p2, 1.0f);
+        registry.add(col1);
+        List<Collision> soFar = registry.getCollisionsSoFar();
+        for (int i = 0; i < 40; i++) {
+            registry.add(new Collision(p2, p3, 2.0f + i));
+        }
+        assertEquals(1, soFar.size());
+        assertSame(col1, soFar.get(0));
+        assertEquals(41, registry.getCollisions().size());
+    }
+
+    @Test
+    public void testCollisionsSoFarUnchangedByClear() {
+        Collision col1 = new Collision(p1, p2, 1.0f);
+        registry.add(col1);
+        List<Collision> soFar = registry.getCollisionsSoFar();
+        registry.clear();
+        registry.add(new Collision(p2, p3, 2.0f));
+        assertEquals(1, soFar.size());
+        assertSame(col1, soFar.get(0));
+    }
+
+    @Test
+    public void testCollisionsSoFarIsReadOnly() {
+        try {
+            registry.getCollisionsSoFar().add(new Collision(p1, p2, 1.0f));
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        fail("expected throw UnsupportedOperationException");
+    }
+
+    @Test
+    public void testCollisionsOutOfBoundsThrow() {
+        registry.add(new Collision(p1, p2, 1.0f));
+        try {
+            registry.getCollisions().get(1);
+        } catch (IndexOutOfBoundsException e) {
+            return;
+        }
+        fail("expected throw IndexOutOfBoundsException");
+    }
+}
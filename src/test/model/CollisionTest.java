@@ -92,4 +92,11 @@ public class CollisionTest {
                 col1.getCollisionTime());
         assertEquals(toExpect, col1.toString());
     }
+
+    @Test
+    public void testHashCodeMatchesEquals() {
+        assertEquals(col1.hashCode(), col2.hashCode());
+        assertEquals(col1.hashCode(), new Collision(p1, p2, 50.0f).hashCode());
+        assertEquals(new Collision(p1, p2, 0.0f).hashCode(), new Collision(p2, p1, -0.0f).hashCode());
+    }
 }
@@ -0,0 +1,105 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntegratorTest {
+    private static final float EPSILON = 0.001f;
+    private static final float ORBIT_RADIUS = 100.0f;
+    private static final float DELTA_TIME = 1.0f;
+    private static final int STEP_COUNT = 500;
+
+    private ParticleStore store;
+    private ParallelExecutor executor;
+    private int evaluations;
+
+    @Before
+    public void init() {
+        store = new ParticleStore();
+        executor = new ParallelExecutor(1);
+        evaluations = 0;
+    }
+
+    @Test
+    public void testNames() {
+        assertEquals(SemiImplicitEulerIntegrator.NAME, new SemiImplicitEulerIntegrator().getName());
+        assertEquals(LeapfrogIntegrator.NAME, new LeapfrogIntegrator().getName());
+        assertEquals(VelocityVerletIntegrator.NAME, new VelocityVerletIntegrator().getName());
+    }
+
+    @Test
+    public void testSemiImplicitEulerStep() {
+        store.add(new Planet("A", new Vector3(1.0f, 0.0f, 0.0f), new Vector3(2.0f, 0.0f, 0.0f), 1.0f));
+        store.getAccelerationX()[0] = 4.0f;
+        assertFalse(new SemiImplicitEulerIntegrator().step(store, 0.5f, () -> evaluations++, executor));
+        assertEquals(0, evaluations);
+        assertEquals(4.0f, store.getVelocityX()[0], EPSILON);
+        assertEquals(3.0f, store.getPositionX()[0], EPSILON);
+    }
+
+    @Test
+    public void testLeapfrogStep() {
+        assertSecondOrderStep(new LeapfrogIntegrator());
+    }
+
+    @Test
+    public void testVelocityVerletStep() {
+        assertSecondOrderStep(new VelocityVerletIntegrator());
+    }
+
+    @Test
+    public void testSecondOrderConservesEnergyBetter() {
+        float eulerError = getMaxEnergyError(new SemiImplicitEulerIntegrator());
+        float leapfrogError = getMaxEnergyError(new LeapfrogIntegrator());
+        float verletError = getMaxEnergyError(new VelocityVerletIntegrator());
+        assertTrue(leapfrogError * 10.0f < eulerError);
+        assertTrue(verletError * 10.0f < eulerError);
+        assertTrue(leapfrogError < 0.01f);
+    }
+
+    // EFFECTS: steps a planet under a constant acceleration which the force evaluator doubles, and checks the
+    // result against the kick-drift-kick equations
+    private void assertSecondOrderStep(Integrator integrator) {
+        store.add(new Planet("A", new Vector3(1.0f, 0.0f, 0.0f), new Vector3(2.0f, 0.0f, 0.0f), 1.0f));
+        store.getAccelerationX()[0] = 4.0f;
+        assertTrue(integrator.step(store, 0.5f, () -> {
+            evaluations++;
+            store.getAccelerationX()[0] = 8.0f;
+        }, executor));
+        assertEquals(1, evaluations);
+        assertEquals(2.5f, store.getPositionX()[0], EPSILON);
+        assertEquals(5.0f, store.getVelocityX()[0], EPSILON);
+    }
+
+    // EFFECTS: steps a light planet around a star in a circular orbit with the given integrator, and returns the
+    // largest relative error in total energy seen along the way
+    private float getMaxEnergyError(Integrator integrator) {
+        Simulation sim = new Simulation();
+        sim.setIntegrator(integrator);
+        Planet star = new Planet("Star", new Vector3(), new Vector3(), 5.0f);
+        float speed = (float) Math.sqrt(Simulation.GRAVITATIONAL_CONSTANT * star.getMass() / ORBIT_RADIUS);
+        Planet moon = new Planet("Moon", new Vector3(ORBIT_RADIUS, 0.0f, 0.0f), new Vector3(0.0f, speed, 0.0f), 0.5f);
+        star.setVelocity(new Vector3(0.0f, -speed * moon.getMass() / star.getMass(), 0.0f));
+        sim.addPlanet(star);
+        sim.addPlanet(moon);
+        double initialEnergy = getEnergy(star, moon);
+        double maxError = 0.0;
+        for (int i = 0; i < STEP_COUNT; i++) {
+            sim.progressBySeconds(DELTA_TIME);
+            maxError = Math.max(maxError, Math.abs((getEnergy(star, moon) - initialEnergy) / initialEnergy));
+        }
+        return (float) maxError;
+    }
+
+    // EFFECTS: returns the total kinetic and potential energy of the two planets
+    private double getEnergy(Planet planet1, Planet planet2) {
+        double kinetic = 0.5 * planet1.getMass() * Math.pow(planet1.getVelocity().magnitude(), 2)
+                + 0.5 * planet2.getMass() * Math.pow(planet2.getVelocity().magnitude(), 2);
+        double distance = Vector3.sub(planet1.getPosition(), planet2.getPosition()).magnitude();
+        return kinetic - Simulation.GRAVITATIONAL_CONSTANT * planet1.getMass() * planet2.getMass() / distance;
+    }
+}
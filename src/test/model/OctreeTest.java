@@ -0,0 +1,166 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class OctreeTest {
+    private static final float EPSILON = 0.001f;
+    private static final float TOLERANCE = 0.01f;
+
+    private Random rand;
+    private Octree octree;
+    private ParticleStore store;
+    private List<Planet> planets;
+
+    @Before
+    public void init() {
+        rand = new Random(210);
+        octree = new Octree();
+        store = new ParticleStore();
+        planets = new ArrayList<>();
+    }
+
+    @Test
+    public void testCtor() {
+        assertEquals(0, octree.getBodyCount());
+        assertEquals(0, octree.getNodeCount());
+    }
+
+    @Test
+    public void testBuildEmpty() {
+        octree.build(store);
+        assertEquals(0, octree.getBodyCount());
+        assertEquals(0, octree.getNodeCount());
+    }
+
+    @Test
+    public void testSinglePlanetHasNoAcceleration() {
+        planets.add(new Planet("A", new Vector3(3.0f, 4.0f, 5.0f), new Vector3(), 2.0f));
+        float[][] acc = computeOctreeAccelerations(Simulation.DEFAULT_OPENING_ANGLE);
+        assertEquals(1, octree.getBodyCount());
+        assertEquals(0.0f, acc[0][0], EPSILON);
+        assertEquals(0.0f, acc[1][0], EPSILON);
+        assertEquals(0.0f, acc[2][0], EPSILON);
+    }
+
+    @Test
+    public void testTwoPlanetsAreExact() {
+        planets.add(new Planet("A", new Vector3(0.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        planets.add(new Planet("B", new Vector3(4.0f, 0.0f, 0.0f), new Vector3(), 2.0f));
+        float[][] acc = computeOctreeAccelerations(Simulation.DEFAULT_OPENING_ANGLE);
+        float expectedA = Simulation.GRAVITATIONAL_CONSTANT * planets.get(1).getMass() / 16.0f;
+        float expectedB = Simulation.GRAVITATIONAL_CONSTANT * planets.get(0).getMass() / 16.0f;
+        assertEquals(expectedA, acc[0][0], EPSILON);
+        assertEquals(-expectedB, acc[0][1], EPSILON);
+        assertEquals(0.0f, acc[1][0], EPSILON);
+        assertEquals(0.0f, acc[2][1], EPSILON);
+    }
+
+    @Test
+    public void testZeroOpeningAngleMatchesDirectSum() {
+        addRandomPlanets(100);
+        float[][] expected = computeDirectAccelerations();
+        float[][] acc = computeOctreeAccelerations(0.0f);
+        for (int i = 0; i < planets.size(); i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                float scale = Math.max(1.0f, Math.abs(expected[axis][i]));
+                assertEquals(expected[axis][i], acc[axis][i], scale * EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultOpeningAngleWithinTolerance() {
+        addRandomPlanets(500);
+        float[][] expected = computeDirectAccelerations();
+        float[][] acc = computeOctreeAccelerations(Simulation.DEFAULT_OPENING_ANGLE);
+        assertTrue(getRelativeError(expected, acc) < TOLERANCE);
+    }
+
+    @Test
+    public void testCoincidentPlanets() {
+        for (int i = 0; i < 5; i++) {
+            planets.add(new Planet("C" + i, new Vector3(1.0f, 1.0f, 1.0f), new Vector3(), 1.0f));
+        }
+        planets.add(new Planet("Far", new Vector3(100.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        float[][] acc = computeOctreeAccelerations(Simulation.DEFAULT_OPENING_ANGLE);
+        float[][] expected = computeDirectAccelerations();
+        for (int i = 0; i < planets.size(); i++) {
+            assertTrue(Float.isFinite(acc[0][i]));
+            assertEquals(expected[0][i], acc[0][i], EPSILON);
+        }
+    }
+
+    @Test
+    public void testRebuildSmaller() {
+        addRandomPlanets(50);
+        computeOctreeAccelerations(0.0f);
+        int largeNodeCount = octree.getNodeCount();
+        while (planets.size() > 10) {
+            store.remove(planets.remove(planets.size() - 1));
+        }
+        float[][] expected = computeDirectAccelerations();
+        float[][] acc = computeOctreeAccelerations(0.0f);
+        assertEquals(10, octree.getBodyCount());
+        assertTrue(octree.getNodeCount() < largeNodeCount);
+        assertEquals(expected[1][3], acc[1][3], Math.max(1.0f, Math.abs(expected[1][3])) * EPSILON);
+    }
+
+    // EFFECTS: adds count planets with random positions and radii to the planet list
+    private void addRandomPlanets(int count) {
+        for (int i = 0; i < count; i++) {
+            Vector3 pos = new Vector3(rand.nextFloat() * 1000.0f, rand.nextFloat() * 1000.0f,
+                    rand.nextFloat() * 1000.0f);
+            planets.add(new Planet("R" + i, pos, new Vector3(), 0.5f + rand.nextFloat() * 5.0f));
+        }
+    }
+
+    // EFFECTS: adds any planets not yet in the store to it, builds the octree and returns the accelerations as
+    // {x[], y[], z[]}, indexed the same as the planet list
+    private float[][] computeOctreeAccelerations(float openingAngle) {
+        float[][] acc = new float[3][planets.size()];
+        for (int i = store.getSize(); i < planets.size(); i++) {
+            store.add(planets.get(i));
+        }
+        octree.build(store);
+        octree.computeAccelerations(openingAngle, acc[0], acc[1], acc[2]);
+        return acc;
+    }
+
+    // EFFECTS: returns the exact accelerations as {x[], y[], z[]}, using Simulation.applyGravity
+    private float[][] computeDirectAccelerations() {
+        Simulation sim = new Simulation();
+        float[][] acc = new float[3][planets.size()];
+        for (int i = 0; i < planets.size(); i++) {
+            Planet target = planets.get(i);
+            Planet probe = new Planet("probe", target.getPosition(), new Vector3(), target.getRadius());
+            for (Planet other : planets) {
+                if (other != target) {
+                    sim.applyGravity(probe, other, 1.0f);
+                }
+            }
+            acc[0][i] = probe.getVelocity().getX();
+            acc[1][i] = probe.getVelocity().getY();
+            acc[2][i] = probe.getVelocity().getZ();
+        }
+        return acc;
+    }
+
+    // EFFECTS: returns sum(|actual - expected|) / sum(|expected|) over all bodies
+    private float getRelativeError(float[][] expected, float[][] actual) {
+        double errorSum = 0.0;
+        double magnitudeSum = 0.0;
+        for (int i = 0; i < planets.size(); i++) {
+            Vector3 expectedVec = new Vector3(expected[0][i], expected[1][i], expected[2][i]);
+            Vector3 actualVec = new Vector3(actual[0][i], actual[1][i], actual[2][i]);
+            errorSum += Vector3.sub(actualVec, expectedVec).magnitude();
+            magnitudeSum += expectedVec.magnitude();
+        }
+        return (float) (errorSum / magnitudeSum);
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Test;
+
+import model.exceptions.ArgumentOutOfBoundsException;
+
+public class ParallelExecutorTest {
+    private ParallelExecutor executor;
+
+    @After
+    public void cleanup() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCtor() {
+        executor = new ParallelExecutor(3);
+        assertEquals(3, executor.getParallelism());
+    }
+
+    @Test
+    public void testCtorThrow() {
+        try {
+            executor = new ParallelExecutor(0);
+        } catch (ArgumentOutOfBoundsException excep) {
+            return;
+        }
+        fail("failed to throw ArgumentOutOfBoundsException");
+    }
+
+    @Test
+    public void testSingleThreadRunsInline() {
+        executor = new ParallelExecutor(1);
+        Thread caller = Thread.currentThread();
+        Thread[] runner = new Thread[1];
+        int[] calls = new int[1];
+        executor.forEachRange(1000, (from, to) -> {
+            runner[0] = Thread.currentThread();
+            calls[0]++;
+            assertEquals(0, from);
+            assertEquals(1000, to);
+        });
+        assertEquals(1, calls[0]);
+        assertSame(caller, runner[0]);
+    }
+
+    @Test
+    public void testEveryIndexRunOnce() {
+        executor = new ParallelExecutor(4);
+        int[] visits = new int[10007];
+        executor.forEachRange(visits.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                visits[i]++;
+            }
+        });
+        for (int i = 0; i < visits.length; i++) {
+            assertEquals(1, visits[i]);
+        }
+    }
+
+    @Test
+    public void testMinRangeSize() {
+        executor = new ParallelExecutor(4);
+        int[] visits = new int[40];
+        int[] calls = new int[1];
+        executor.forEachRange(visits.length, 1, (from, to) -> {
+            synchronized (calls) {
+                calls[0]++;
+            }
+            for (int i = from; i < to; i++) {
+                visits[i]++;
+            }
+        });
+        assertTrue(calls[0] > 1);
+        for (int i = 0; i < visits.length; i++) {
+            assertEquals(1, visits[i]);
+        }
+    }
+
+    @Test
+    public void testEmptyRange() {
+        executor = new ParallelExecutor(4);
+        int[] calls = new int[1];
+        executor.forEachRange(0, (from, to) -> calls[0] += to - from);
+        assertEquals(0, calls[0]);
+    }
+}
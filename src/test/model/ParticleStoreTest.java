@@ -0,0 +1,171 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.exceptions.PlanetAlreadyExistsException;
+
+public class ParticleStoreTest {
+    private static final float EPSILON = 0.001f;
+
+    private ParticleStore store;
+    private Planet planetA;
+    private Planet planetB;
+    private Planet planetC;
+
+    @Before
+    public void init() {
+        store = new ParticleStore();
+        planetA = new Planet("A", new Vector3(1.0f, 2.0f, 3.0f), new Vector3(4.0f, 5.0f, 6.0f), 1.0f);
+        planetB = new Planet("B", new Vector3(7.0f, 8.0f, 9.0f), new Vector3(), 2.0f);
+        planetC = new Planet("C", new Vector3(-1.0f, -2.0f, -3.0f), new Vector3(), 3.0f);
+    }
+
+    @Test
+    public void testCtor() {
+        assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void testAdd() {
+        store.add(planetA);
+        assertEquals(1, store.getSize());
+        assertSame(planetA, store.getPlanet(0));
+        assertSame(store, planetA.getStore());
+        assertEquals(0, planetA.getSlot());
+        assertEquals(1.0f, store.getPositionX()[0], EPSILON);
+        assertEquals(5.0f, store.getVelocityY()[0], EPSILON);
+        assertEquals(1.0f, store.getRadii()[0], EPSILON);
+        assertEquals(planetA.getMass(), store.getMasses()[0], EPSILON);
+        assertEquals(0.0f, store.getAccelerationZ()[0], EPSILON);
+    }
+
+    @Test
+    public void testAddGrows() {
+        for (int i = 0; i < 100; i++) {
+            store.add(new Planet("P" + i, new Vector3(i, 0.0f, 0.0f), new Vector3(), 1.0f));
+        }
+        assertEquals(100, store.getSize());
+        assertEquals(99.0f, store.getPositionX()[99], EPSILON);
+        assertEquals(42, store.getPlanet(42).getSlot());
+    }
+
+    @Test
+    public void testHandleWritesThrough() {
+        store.add(planetA);
+        planetA.setPosition(new Vector3(10.0f, 11.0f, 12.0f));
+        planetA.setRadius(4.0f);
+        assertEquals(10.0f, store.getPositionX()[0], EPSILON);
+        assertEquals(12.0f, store.getPositionZ()[0], EPSILON);
+        assertEquals(4.0f, store.getRadii()[0], EPSILON);
+        assertEquals(Planet.calculateMass(4.0f), store.getMasses()[0], EPSILON);
+    }
+
+    @Test
+    public void testHandleReadsThrough() {
+        store.add(planetA);
+        store.getVelocityX()[0] = 20.0f;
+        store.setPosition(0, new Vector3(-5.0f, 0.0f, 0.0f));
+        assertEquals(20.0f, planetA.getVelocity().getX(), EPSILON);
+        assertEquals(-5.0f, planetA.getPosition().getX(), EPSILON);
+    }
+
+    @Test
+    public void testRemoveLast() {
+        store.add(planetA);
+        store.add(planetB);
+        store.remove(planetB);
+        assertEquals(1, store.getSize());
+        assertSame(planetA, store.getPlanet(0));
+        assertNull(planetB.getStore());
+        assertEquals(-1, planetB.getSlot());
+    }
+
+    @Test
+    public void testRemoveSwapsLastIntoSlot() {
+        store.add(planetA);
+        store.add(planetB);
+        store.add(planetC);
+        store.remove(planetA);
+        assertEquals(2, store.getSize());
+        assertSame(planetC, store.getPlanet(0));
+        assertEquals(0, planetC.getSlot());
+        assertEquals(-1.0f, store.getPositionX()[0], EPSILON);
+        assertEquals(3.0f, store.getRadii()[0], EPSILON);
+        assertEquals(-3.0f, planetC.getPosition().getZ(), EPSILON);
+    }
+
+    @Test
+    public void testRemoveKeepsState() {
+        store.add(planetA);
+        planetA.setVelocity(new Vector3(0.0f, -9.0f, 0.0f));
+        store.remove(planetA);
+        assertEquals(-9.0f, planetA.getVelocity().getY(), EPSILON);
+        assertEquals(2.0f, planetA.getPosition().getY(), EPSILON);
+        planetA.setRadius(6.0f);
+        assertEquals(6.0f, planetA.getRadius(), EPSILON);
+        assertEquals(Planet.calculateMass(6.0f), planetA.getMass(), EPSILON);
+    }
+
+    @Test
+    public void testAddToOtherStoreThrow() {
+        ParticleStore other = new ParticleStore();
+        store.add(planetA);
+        try {
+            other.add(planetA);
+        } catch (PlanetAlreadyExistsException e) {
+            assertEquals(1, store.getSize());
+            assertSame(store, planetA.getStore());
+            assertEquals(0, other.getSize());
+            return;
+        }
+        fail("expected throw PlanetAlreadyExistsException");
+    }
+
+    @Test
+    public void testAddAfterRemoveFromOtherStore() {
+        ParticleStore other = new ParticleStore();
+        store.add(planetA);
+        store.add(planetB);
+        store.remove(planetA);
+        other.add(planetA);
+        assertEquals(1, store.getSize());
+        assertSame(planetB, store.getPlanet(0));
+        assertSame(other, planetA.getStore());
+        assertEquals(3.0f, other.getPositionZ()[0], EPSILON);
+    }
+
+    @Test
+    public void testClear() {
+        store.add(planetA);
+        store.add(planetB);
+        store.clear();
+        assertEquals(0, store.getSize());
+        assertNull(planetA.getStore());
+        assertNull(planetB.getStore());
+        assertTrue(planetB.getPosition().getX() > 0.0f);
+    }
+
+    @Test
+    public void testChangeCount() {
+        long count = store.getChangeCount();
+        store.add(planetA);
+        assertTrue(count != store.getChangeCount());
+        count = store.getChangeCount();
+        planetA.setVelocity(new Vector3(1.0f, 0.0f, 0.0f));
+        assertTrue(count != store.getChangeCount());
+        count = store.getChangeCount();
+        planetA.setName("Renamed");
+        assertTrue(count != store.getChangeCount());
+        count = store.getChangeCount();
+        planetA.getPosition();
+        planetB.setName("NotInStore");
+        assertEquals(count, store.getChangeCount());
+    }
+}
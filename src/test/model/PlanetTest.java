@@ -194,4 +194,15 @@ public class PlanetTest {
         assertEquals("testToString", plnt.toString());
         assertEquals(plnt.getName(), plnt.toString());
     }
+
+    @Test
+    public void testIdsAreUnique() {
+        Planet other = new Planet("other", 1.0f);
+        plnt = new Planet("test", 1.0f);
+        assertTrue(plnt.getId() != other.getId());
+        assertEquals(plnt.getId(), plnt.hashCode());
+        plnt.setName("renamed");
+        plnt.setRadius(2.0f);
+        assertEquals(plnt.getId(), plnt.hashCode());
+    }
 }
@@ -0,0 +1,119 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimulationSnapshotTest {
+    private static final float EPSILON = 0.001f;
+
+    private Simulation sim;
+    private Planet planet1;
+    private Planet planet2;
+
+    @Before
+    public void init() {
+        sim = new Simulation();
+        planet1 = new Planet("A", new Vector3(1.0f, 2.0f, 3.0f), new Vector3(4.0f, 5.0f, 6.0f), 2.0f);
+        planet2 = new Planet("B", new Vector3(-10.0f, 0.0f, 0.0f), new Vector3(), 1.0f);
+        sim.addPlanet(planet1);
+        sim.addPlanet(planet2);
+    }
+
+    @Test
+    public void testEmpty() {
+        SimulationSnapshot snapshot = new SimulationSnapshot(3);
+        assertEquals(3, snapshot.getVersion());
+        assertEquals(0.0f, snapshot.getTimeElapsed(), EPSILON);
+        assertEquals(0, snapshot.getPlanetCount());
+        assertEquals(0, snapshot.getPlanets().size());
+        assertEquals(0, snapshot.getCollisions().size());
+        assertEquals(-1, snapshot.indexOf(planet1));
+    }
+
+    @Test
+    public void testCopiesState() {
+        sim.setTimeElapsed(7.0f);
+        SimulationSnapshot snapshot = sim.createSnapshot(5);
+        assertEquals(5, snapshot.getVersion());
+        assertEquals(7.0f, snapshot.getTimeElapsed(), EPSILON);
+        assertEquals(2, snapshot.getPlanetCount());
+        assertSame(planet1, snapshot.getPlanet(0));
+        assertSame(planet2, snapshot.getPlanets().get(1));
+        assertEquals(0, snapshot.indexOf(planet1));
+        assertEquals(1, snapshot.indexOf(planet2));
+        assertEquals(-1, snapshot.indexOf(new Planet("C", 1.0f)));
+        assertEquals(-1, snapshot.indexOf(null));
+        assertEquals("A", snapshot.getName(0));
+        assertVectorEquals(new Vector3(1.0f, 2.0f, 3.0f), snapshot.getPosition(0));
+        assertVectorEquals(new Vector3(4.0f, 5.0f, 6.0f), snapshot.getVelocity(0));
+        assertEquals(2.0f, snapshot.getRadius(0), EPSILON);
+        assertEquals(planet1.getMass(), snapshot.getMass(0), EPSILON);
+    }
+
+    @Test
+    public void testUnchangedBySimulation() {
+        SimulationSnapshot snapshot = sim.createSnapshot(0);
+        planet1.setName("Renamed");
+        planet1.setRadius(4.0f);
+        sim.progressBySeconds(1.0f);
+        sim.addCollision(new Collision(planet1, planet2, 1.0f));
+        sim.removePlanet(planet1);
+
+        assertEquals(2, snapshot.getPlanetCount());
+        assertEquals("A", snapshot.getName(0));
+        assertEquals(2.0f, snapshot.getRadius(0), EPSILON);
+        assertVectorEquals(new Vector3(1.0f, 2.0f, 3.0f), snapshot.getPosition(0));
+        assertEquals(0.0f, snapshot.getTimeElapsed(), EPSILON);
+        assertEquals(0, snapshot.getCollisions().size());
+    }
+
+    @Test
+    public void testCollisions() {
+        Collision collision = new Collision(planet1, planet2, 0.5f);
+        sim.addCollision(collision);
+        SimulationSnapshot snapshot = sim.createSnapshot(1);
+        assertEquals(1, snapshot.getCollisions().size());
+        assertSame(collision, snapshot.getCollisions().get(0));
+    }
+
+    @Test
+    public void testCollisionsUnchangedByClear() {
+        Collision collision = new Collision(planet1, planet2, 0.5f);
+        sim.addCollision(collision);
+        SimulationSnapshot snapshot = sim.createSnapshot(1);
+        sim.clear();
+        assertEquals(1, snapshot.getCollisions().size());
+        assertSame(collision, snapshot.getCollisions().get(0));
+    }
+
+    @Test
+    public void testPlanetsIsReadOnly() {
+        try {
+            sim.createSnapshot(0).getPlanets().set(0, planet2);
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        fail("expected throw UnsupportedOperationException");
+    }
+
+    @Test
+    public void testCollisionsIsReadOnly() {
+        try {
+            sim.createSnapshot(0).getCollisions().add(new Collision(planet1, planet2, 0.0f));
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        fail("expected throw UnsupportedOperationException");
+    }
+
+    // EFFECTS: checks that both vectors have the same components
+    private void assertVectorEquals(Vector3 expected, Vector3 actual) {
+        assertEquals(expected.getX(), actual.getX(), EPSILON);
+        assertEquals(expected.getY(), actual.getY(), EPSILON);
+        assertEquals(expected.getZ(), actual.getZ(), EPSILON);
+    }
+}
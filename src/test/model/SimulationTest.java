@@ -8,6 +8,10 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import model.exceptions.ArgumentOutOfBoundsException;
 import model.exceptions.PlanetAlreadyExistsException;
 import model.exceptions.PlanetDoesntExistException;
@@ -53,6 +57,23 @@ public class SimulationTest {
         fail("expected throw PlanetAlreadyExistsException");
     }
 
+    @Test
+    public void testAddPlanetToTwoSimulationsThrow() {
+        Simulation other = new Simulation();
+        sim.addPlanet(p1);
+        try {
+            other.addPlanet(p1);
+        } catch (PlanetAlreadyExistsException e) {
+            assertEquals(0, other.getPlanets().size());
+            assertTrue(sim.containsPlanet(p1));
+            sim.removePlanet(p1);
+            other.addPlanet(p1);
+            assertTrue(other.containsPlanet(p1));
+            return;
+        }
+        fail("expected throw PlanetAlreadyExistsException");
+    }
+
     @Test
     public void testAddHistoricPlanet() {
         sim.addHistoricPlanet(p1);
@@ -552,4 +573,401 @@ public class SimulationTest {
 
         assertEquals(p1ShouldBe.getVelocity(), p1.getVelocity());
     }
+
+    @Test
+    public void testDefaultForceMode() {
+        assertEquals(Simulation.ForceMode.DirectSum, sim.getForceMode());
+        assertEquals(Simulation.DEFAULT_OPENING_ANGLE, sim.getOpeningAngle(), EPSILON);
+    }
+
+    @Test
+    public void testSetForceMode() {
+        sim.setForceMode(Simulation.ForceMode.BarnesHut);
+        assertEquals(Simulation.ForceMode.BarnesHut, sim.getForceMode());
+        sim.setOpeningAngle(0.8f);
+        assertEquals(0.8f, sim.getOpeningAngle(), EPSILON);
+        sim.setOpeningAngle(0.0f);
+        assertEquals(0.0f, sim.getOpeningAngle(), EPSILON);
+    }
+
+    @Test
+    public void testSetOpeningAngleThrow() {
+        try {
+            sim.setOpeningAngle(-0.1f);
+        } catch (ArgumentOutOfBoundsException e) {
+            return;
+        }
+        fail("expected throw ArgumentOutOfBoundsException");
+    }
+
+    @Test
+    public void testProgressBarnesHutWithPlanets() {
+        sim.setForceMode(Simulation.ForceMode.BarnesHut);
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        Planet p1ShouldBe = new Planet("p1s", p1.getPosition(), p1.getVelocity(), p1.getRadius());
+        Planet p2ShouldBe = new Planet("p2s", p2.getPosition(), p2.getVelocity(), p2.getRadius());
+        sim.progressBySeconds(1.0f);
+        sim.progressBySeconds(1.5f);
+
+        sim.applyGravity(p1ShouldBe, p2ShouldBe, 1.0f);
+        sim.applyGravity(p2ShouldBe, p1ShouldBe, 1.0f);
+        p1ShouldBe.updatePosition(1.0f);
+        p2ShouldBe.updatePosition(1.0f);
+
+        sim.applyGravity(p1ShouldBe, p2ShouldBe, 1.5f);
+        sim.applyGravity(p2ShouldBe, p1ShouldBe, 1.5f);
+        p1ShouldBe.updatePosition(1.5f);
+        p2ShouldBe.updatePosition(1.5f);
+
+        assertEquals(p1.getPosition(), p1ShouldBe.getPosition());
+        assertEquals(p2.getPosition(), p2ShouldBe.getPosition());
+        assertEquals(p1.getVelocity(), p1ShouldBe.getVelocity());
+        assertEquals(p2.getVelocity(), p2ShouldBe.getVelocity());
+        assertEquals(2.5f, sim.getTimeElapsed(), EPSILON);
+    }
+
+    @Test
+    public void testProgressBarnesHutWithCollision() {
+        sim.setForceMode(Simulation.ForceMode.BarnesHut);
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        sim.progressBySeconds(0.01f);
+        assertEquals(1, sim.getCollisions().size());
+        assertTrue(sim.getCollisions().get(0).wasPlanetInvolved(p1));
+        assertTrue(sim.getCollisions().get(0).wasPlanetInvolved(p2));
+    }
+
+    @Test
+    public void testClear() {
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.progressBySeconds(0.1f);
+        sim.clear();
+        assertEquals(0, sim.getPlanets().size());
+        assertEquals(0, sim.getHistoricPlanets().size());
+        assertEquals(0, sim.getCollisions().size());
+        sim.addPlanet(p1);
+        assertEquals(1, sim.getPlanets().size());
+    }
+
+    @Test
+    public void testListsAreReadOnly() {
+        sim.addPlanet(p1);
+        try {
+            sim.getPlanets().clear();
+        } catch (UnsupportedOperationException excep) {
+            assertEquals(1, sim.getPlanets().size());
+            return;
+        }
+        fail("failed to throw UnsupportedOperationException");
+    }
+
+    @Test
+    public void testEditedPlanetUsedInStep() {
+        sim.addPlanet(p3);
+        p3.setVelocity(new Vector3(2.0f, 0.0f, 0.0f));
+        sim.progressBySeconds(1.0f);
+        assertEquals(1002.0f, p3.getPosition().getX(), EPSILON);
+        p3.setPosition(new Vector3());
+        sim.progressBySeconds(1.0f);
+        assertEquals(2.0f, p3.getPosition().getX(), EPSILON);
+    }
+
+    @Test
+    public void testProgressBarnesHutMatchesDirectSum() {
+        Simulation directSim = new Simulation();
+        sim.setForceMode(Simulation.ForceMode.BarnesHut);
+        Random rand = new Random(210);
+        for (int i = 0; i < 200; i++) {
+            Vector3 pos = new Vector3(rand.nextFloat() * 2000.0f, rand.nextFloat() * 2000.0f,
+                    rand.nextFloat() * 2000.0f);
+            float radius = 0.5f + rand.nextFloat() * 3.0f;
+            directSim.addPlanet(new Planet("D" + i, pos, new Vector3(), radius));
+            sim.addPlanet(new Planet("B" + i, pos, new Vector3(), radius));
+        }
+        directSim.progressBySeconds(1.0f);
+        sim.progressBySeconds(1.0f);
+
+        float errorSum = 0.0f;
+        float magnitudeSum = 0.0f;
+        for (int i = 0; i < 200; i++) {
+            Vector3 expected = directSim.getPlanets().get(i).getVelocity();
+            errorSum += Vector3.sub(sim.getPlanets().get(i).getVelocity(), expected).magnitude();
+            magnitudeSum += expected.magnitude();
+        }
+        assertTrue(errorSum / magnitudeSum < 0.01f);
+    }
+
+    @Test
+    public void testDefaultParallelism() {
+        assertEquals(1, sim.getParallelism());
+    }
+
+    @Test
+    public void testSetParallelism() {
+        sim.setParallelism(4);
+        assertEquals(4, sim.getParallelism());
+        sim.setParallelism(1);
+        assertEquals(1, sim.getParallelism());
+    }
+
+    @Test
+    public void testSetParallelismThrow() {
+        try {
+            sim.setParallelism(0);
+        } catch (ArgumentOutOfBoundsException e) {
+            assertEquals(1, sim.getParallelism());
+            return;
+        }
+        fail("expected throw ArgumentOutOfBoundsException");
+    }
+
+    @Test
+    public void testParallelDirectSumIsDeterministic() {
+        assertParallelMatchesSerial(Simulation.ForceMode.DirectSum);
+    }
+
+    @Test
+    public void testParallelBarnesHutIsDeterministic() {
+        assertParallelMatchesSerial(Simulation.ForceMode.BarnesHut);
+    }
+
+    // EFFECTS: steps identical simulations with 1 and 4 threads and checks that every planet ends up in exactly
+    // the same state with the same collisions
+    private void assertParallelMatchesSerial(Simulation.ForceMode forceMode) {
+        Simulation serialSim = new Simulation();
+        serialSim.setForceMode(forceMode);
+        sim.setForceMode(forceMode);
+        sim.setParallelism(4);
+        Random rand = new Random(210);
+        for (int i = 0; i < 300; i++) {
+            Vector3 pos = new Vector3(rand.nextFloat() * 500.0f, rand.nextFloat() * 500.0f,
+                    rand.nextFloat() * 500.0f);
+            float radius = 0.5f + rand.nextFloat() * 3.0f;
+            serialSim.addPlanet(new Planet("S" + i, pos, new Vector3(), radius));
+            sim.addPlanet(new Planet("P" + i, pos, new Vector3(), radius));
+        }
+        for (int step = 0; step < 3; step++) {
+            serialSim.progressBySeconds(0.1f);
+            sim.progressBySeconds(0.1f);
+        }
+        for (int i = 0; i < 300; i++) {
+            Planet expected = serialSim.getPlanets().get(i);
+            Planet actual = sim.getPlanets().get(i);
+            assertEquals(expected.getPosition().getX(), actual.getPosition().getX(), 0.0f);
+            assertEquals(expected.getVelocity().getY(), actual.getVelocity().getY(), 0.0f);
+            assertEquals(expected.getVelocity().getZ(), actual.getVelocity().getZ(), 0.0f);
+        }
+        assertEquals(serialSim.getCollisions().size(), sim.getCollisions().size());
+        sim.setParallelism(1);
+    }
+
+    @Test
+    public void testDefaultIntegrator() {
+        assertEquals(SemiImplicitEulerIntegrator.NAME, sim.getIntegrator().getName());
+        Integrator leapfrog = new LeapfrogIntegrator();
+        sim.setIntegrator(leapfrog);
+        assertTrue(leapfrog == sim.getIntegrator());
+    }
+
+    @Test
+    public void testLeapfrogRecomputesAfterEdit() {
+        Simulation freshSim = new Simulation();
+        sim.setIntegrator(new LeapfrogIntegrator());
+        freshSim.setIntegrator(new LeapfrogIntegrator());
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        sim.progressBySeconds(0.1f);
+
+        Planet fresh2 = new Planet("F2", new Vector3(500.0f, 0.0f, 0.0f), p2.getVelocity(), p2.getRadius());
+        Planet fresh3 = new Planet("F3", p3.getPosition(), p3.getVelocity(), p3.getRadius());
+        freshSim.addPlanet(fresh2);
+        freshSim.addPlanet(fresh3);
+        p2.setPosition(new Vector3(500.0f, 0.0f, 0.0f));
+        sim.progressBySeconds(0.1f);
+        freshSim.progressBySeconds(0.1f);
+        assertEquals(fresh2.getVelocity().getX(), p2.getVelocity().getX(), 0.0f);
+        assertEquals(fresh3.getVelocity().getX(), p3.getVelocity().getX(), 0.0f);
+    }
+
+    @Test
+    public void testLeapfrogRecomputesAfterForceModeChange() {
+        sim.setIntegrator(new LeapfrogIntegrator());
+        sim.addPlanet(p1);
+        sim.addPlanet(p3);
+        sim.progressBySeconds(0.1f);
+        sim.setForceMode(Simulation.ForceMode.BarnesHut);
+        sim.setOpeningAngle(0.0f);
+        sim.progressBySeconds(0.1f);
+        assertTrue(p1.getVelocity().getX() > 0.0f);
+        assertTrue(p3.getVelocity().getX() < 0.0f);
+    }
+
+    @Test
+    public void testRemovePlanetInManyCollisionsAddsHistoricOnce() {
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        sim.addCollision(new Collision(p1, p2, 0.0f));
+        sim.addCollision(new Collision(p1, p3, 1.0f));
+        sim.removePlanet(p1);
+        assertEquals(1, sim.getHistoricPlanets().size());
+        assertTrue(sim.getHistoricPlanets().contains(p1));
+    }
+
+    @Test
+    public void testGetCollisionsInvolving() {
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        Collision col = new Collision(p2, p3, 1.0f);
+        sim.addCollision(new Collision(p1, p2, 0.0f));
+        sim.addCollision(col);
+        assertEquals(1, sim.getCollisionsInvolving(p3).size());
+        assertTrue(col == sim.getCollisionsInvolving(p3).get(0));
+        assertEquals(2, sim.getCollisionsInvolving(p2).size());
+        assertEquals(0, sim.getCollisionsInvolving(new Planet("none", 1.0f)).size());
+    }
+
+    @Test
+    public void testContainsPlanet() {
+        assertFalse(sim.containsPlanet(p1));
+        assertFalse(sim.containsPlanet(null));
+        sim.addPlanet(p1);
+        assertTrue(sim.containsPlanet(p1));
+        assertFalse(new Simulation().containsPlanet(p1));
+        sim.removePlanet(p1);
+        assertFalse(sim.containsPlanet(p1));
+    }
+
+    @Test
+    public void testRemovePlanetSwapsLastIntoPlace() {
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        sim.removePlanet(p1);
+        assertEquals(2, sim.getPlanets().size());
+        assertTrue(p3 == sim.getPlanets().get(0));
+        assertTrue(p2 == sim.getPlanets().get(1));
+        assertEquals(0, sim.indexOfPlanet(p3));
+        assertEquals(1, sim.indexOfPlanet(p2));
+        assertEquals(-1, sim.indexOfPlanet(p1));
+    }
+
+    @Test
+    public void testIndexOfPlanetMatchesList() {
+        Random rand = new Random(210);
+        List<Planet> added = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Planet planet = new Planet("I" + i, new Vector3(i * 10.0f, 0.0f, 0.0f), new Vector3(), 1.0f);
+            added.add(planet);
+            sim.addPlanet(planet);
+        }
+        for (int i = 0; i < 20; i++) {
+            sim.removePlanet(added.remove(rand.nextInt(added.size())));
+        }
+        assertEquals(30, sim.getPlanets().size());
+        for (int i = 0; i < sim.getPlanets().size(); i++) {
+            assertEquals(i, sim.indexOfPlanet(sim.getPlanets().get(i)));
+        }
+        for (Planet planet : added) {
+            assertTrue(sim.containsPlanet(planet));
+        }
+    }
+
+    @Test
+    public void testIndexOfHistoricPlanet() {
+        assertEquals(-1, sim.indexOfHistoricPlanet(p1));
+        sim.addHistoricPlanet(p1);
+        sim.addHistoricPlanet(p2);
+        assertEquals(0, sim.indexOfHistoricPlanet(p1));
+        assertEquals(1, sim.indexOfHistoricPlanet(p2));
+        assertEquals(-1, sim.indexOfPlanet(p1));
+        sim.clear();
+        assertEquals(-1, sim.indexOfHistoricPlanet(p2));
+    }
+
+    @Test
+    public void testChangeCount() {
+        long count = sim.getChangeCount();
+        sim.setForceMode(Simulation.ForceMode.BarnesHut);
+        sim.getPlanets();
+        assertEquals(count, sim.getChangeCount());
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        assertTrue(count != sim.getChangeCount());
+        count = sim.getChangeCount();
+        sim.progressBySeconds(0.1f);
+        assertTrue(count != sim.getChangeCount());
+        count = sim.getChangeCount();
+        sim.addCollision(new Collision(p1, p2, 0.1f));
+        assertTrue(count != sim.getChangeCount());
+        count = sim.getChangeCount();
+        p1.setVelocity(new Vector3(1.0f, 0.0f, 0.0f));
+        assertTrue(count != sim.getChangeCount());
+    }
+
+    @Test
+    public void testMergeCollidedPlanets() {
+        p1.setVelocity(new Vector3(3.0f, 0.0f, 0.0f));
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        Vector3 momentum = Vector3.add(Vector3.multiply(p1.getVelocity(), p1.getMass()),
+                Vector3.multiply(p2.getVelocity(), p2.getMass()));
+        float volume = 1.0f + 1.5f * 1.5f * 1.5f;
+        sim.progressBySeconds(0.01f);
+        sim.mergeCollidedPlanets();
+
+        assertEquals(2, sim.getPlanets().size());
+        assertFalse(sim.containsPlanet(p1));
+        assertTrue(sim.containsPlanet(p2));
+        assertEquals((float) Math.cbrt(volume), p2.getRadius(), EPSILON);
+        assertEquals(momentum.getX(), p2.getVelocity().getX() * p2.getMass(), 0.1f);
+        assertEquals(1, sim.getCollisions().size());
+        assertEquals(0, sim.indexOfHistoricPlanet(p1));
+    }
+
+    @Test
+    public void testMergeCollidedPlanetsStopsRepeatCollisions() {
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        for (int i = 0; i < 5; i++) {
+            sim.progressBySeconds(0.01f);
+            sim.mergeCollidedPlanets();
+        }
+        assertEquals(1, sim.getPlanets().size());
+        assertEquals(1, sim.getCollisions().size());
+    }
+
+    @Test
+    public void testMergeCollidedPlanetsOnlyLastStep() {
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p3);
+        sim.addCollision(new Collision(p1, p3, 0.0f));
+        sim.mergeCollidedPlanets();
+        assertEquals(3, sim.getPlanets().size());
+        sim.progressBySeconds(0.01f);
+        sim.mergeCollidedPlanets();
+        sim.mergeCollidedPlanets();
+        assertEquals(2, sim.getPlanets().size());
+        assertTrue(sim.containsPlanet(p3));
+    }
+
+    @Test
+    public void testMergeCollidedPlanetsSkipsMergedAway() {
+        Planet p4 = new Planet("P4", new Vector3(-1.2f, 0.0f, 0.0f), new Vector3(), 0.5f);
+        sim.addPlanet(p1);
+        sim.addPlanet(p2);
+        sim.addPlanet(p4);
+        sim.progressBySeconds(0.01f);
+        sim.mergeCollidedPlanets();
+        assertEquals(2, sim.getCollisions().size());
+        assertEquals(2, sim.getPlanets().size());
+        assertTrue(sim.containsPlanet(p2));
+        assertTrue(sim.containsPlanet(p4));
+    }
 }
@@ -0,0 +1,125 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SpatialHashGridTest {
+    private static final float EPSILON = 0.001f;
+
+    private Random rand;
+    private SpatialHashGrid grid;
+    private ParticleStore store;
+
+    @Before
+    public void init() {
+        rand = new Random(210);
+        grid = new SpatialHashGrid();
+        store = new ParticleStore();
+    }
+
+    @Test
+    public void testCtor() {
+        assertEquals(0, grid.getPairCount());
+    }
+
+    @Test
+    public void testEmpty() {
+        grid.findCollidingPairs(store);
+        assertEquals(0, grid.getPairCount());
+    }
+
+    @Test
+    public void testCellSizeFollowsMeanRadius() {
+        store.add(new Planet("A", 1.0f));
+        store.add(new Planet("B", new Vector3(10.0f, 0.0f, 0.0f), new Vector3(), 3.0f));
+        grid.findCollidingPairs(store);
+        assertEquals(4.0f, grid.getCellSize(), 0.01f);
+    }
+
+    @Test
+    public void testTouchingPair() {
+        store.add(new Planet("A", new Vector3(0.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        store.add(new Planet("B", new Vector3(20.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        store.add(new Planet("C", new Vector3(2.0f + EPSILON / 2.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        grid.findCollidingPairs(store);
+        assertEquals(1, grid.getPairCount());
+        assertEquals(0, grid.getPairFirst(0));
+        assertEquals(2, grid.getPairSecond(0));
+    }
+
+    @Test
+    public void testCoincidentPlanets() {
+        for (int i = 0; i < 4; i++) {
+            store.add(new Planet("C" + i, new Vector3(5.0f, 5.0f, 5.0f), new Vector3(), 1.0f));
+        }
+        grid.findCollidingPairs(store);
+        assertEquals(6, grid.getPairCount());
+    }
+
+    @Test
+    public void testLargePlanets() {
+        store.add(new Planet("Star", new Vector3(), new Vector3(), 100.0f));
+        store.add(new Planet("Giant", new Vector3(150.0f, 0.0f, 0.0f), new Vector3(), 60.0f));
+        store.add(new Planet("Inside", new Vector3(0.0f, 99.5f, 0.0f), new Vector3(), 1.0f));
+        store.add(new Planet("Outside", new Vector3(0.0f, -102.0f, 0.0f), new Vector3(), 1.0f));
+        assertMatchesBruteForce();
+        assertEquals(2, grid.getPairCount());
+    }
+
+    @Test
+    public void testMatchesBruteForceDense() {
+        addRandomPlanets(400, 100.0f, 0.5f, 3.0f);
+        assertMatchesBruteForce();
+        assertTrue(grid.getPairCount() > 0);
+    }
+
+    @Test
+    public void testMatchesBruteForceMixedSizes() {
+        addRandomPlanets(300, 200.0f, 0.5f, 2.0f);
+        addRandomPlanets(5, 200.0f, 20.0f, 40.0f);
+        assertMatchesBruteForce();
+    }
+
+    @Test
+    public void testMatchesBruteForceNegativeCoordinates() {
+        addRandomPlanets(300, 100.0f, 1.0f, 3.0f);
+        for (int i = 0; i < store.getSize(); i++) {
+            store.getPositionX()[i] -= 50.0f;
+            store.getPositionZ()[i] -= 75.0f;
+        }
+        assertMatchesBruteForce();
+    }
+
+    // EFFECTS: finds the colliding pairs with the grid, and checks they are the same as testing every pair in
+    // slot order
+    private void assertMatchesBruteForce() {
+        grid.findCollidingPairs(store);
+        int pair = 0;
+        for (int i = 0; i < store.getSize(); i++) {
+            for (int j = i + 1; j < store.getSize(); j++) {
+                if (store.getPlanet(i).isCollidingWith(store.getPlanet(j))) {
+                    assertTrue(pair < grid.getPairCount());
+                    assertEquals(i, grid.getPairFirst(pair));
+                    assertEquals(j, grid.getPairSecond(pair));
+                    pair++;
+                }
+            }
+        }
+        assertEquals(pair, grid.getPairCount());
+    }
+
+    // EFFECTS: adds count planets with random positions within a cube of the given size, and random radii in
+    // [minRadius, maxRadius)
+    private void addRandomPlanets(int count, float size, float minRadius, float maxRadius) {
+        for (int i = 0; i < count; i++) {
+            Vector3 pos = new Vector3(rand.nextFloat() * size, rand.nextFloat() * size, rand.nextFloat() * size);
+            float radius = minRadius + rand.nextFloat() * (maxRadius - minRadius);
+            store.add(new Planet("R" + i, pos, new Vector3(), radius));
+        }
+    }
+}
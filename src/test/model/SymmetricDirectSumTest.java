@@ -0,0 +1,167 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SymmetricDirectSumTest {
+    private static final float EPSILON = 0.001f;
+
+    // Executor which counts the ranges each call of forEachRange is split into
+    private static class RangeCountingExecutor extends ParallelExecutor {
+        private List<Integer> rangeCounts = Collections.synchronizedList(new ArrayList<>());
+
+        RangeCountingExecutor(int parallelism) {
+            super(parallelism);
+        }
+
+        @Override
+        public void forEachRange(int count, int minRangeSize, RangeTask task) {
+            AtomicInteger ranges = new AtomicInteger();
+            super.forEachRange(count, minRangeSize, (from, to) -> {
+                ranges.incrementAndGet();
+                task.run(from, to);
+            });
+            rangeCounts.add(ranges.get());
+        }
+    }
+
+    private Random rand;
+    private SymmetricDirectSum directSum;
+    private ParticleStore store;
+    private ParallelExecutor serial;
+    private ParallelExecutor parallel;
+
+    @Before
+    public void init() {
+        rand = new Random(210);
+        directSum = new SymmetricDirectSum();
+        store = new ParticleStore();
+        serial = new ParallelExecutor(1);
+        parallel = new ParallelExecutor(3);
+    }
+
+    @After
+    public void cleanup() {
+        parallel.shutdown();
+    }
+
+    @Test
+    public void testEmpty() {
+        directSum.compute(store, serial);
+        assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void testTwoPlanets() {
+        store.add(new Planet("A", new Vector3(0.0f, 0.0f, 0.0f), new Vector3(), 1.0f));
+        store.add(new Planet("B", new Vector3(4.0f, 0.0f, 0.0f), new Vector3(), 2.0f));
+        store.getAccelerationX()[0] = 100.0f;
+        directSum.compute(store, serial);
+        float expectedA = Simulation.GRAVITATIONAL_CONSTANT * store.getMasses()[1] / 16.0f;
+        float expectedB = Simulation.GRAVITATIONAL_CONSTANT * store.getMasses()[0] / 16.0f;
+        assertEquals(expectedA, store.getAccelerationX()[0], EPSILON);
+        assertEquals(-expectedB, store.getAccelerationX()[1], EPSILON);
+        assertEquals(0.0f, store.getAccelerationY()[0], EPSILON);
+    }
+
+    @Test
+    public void testCoincidentPlanets() {
+        store.add(new Planet("A", new Vector3(1.0f, 1.0f, 1.0f), new Vector3(), 1.0f));
+        store.add(new Planet("B", new Vector3(1.0f, 1.0f, 1.0f), new Vector3(), 1.0f));
+        directSum.compute(store, serial);
+        assertEquals(0.0f, store.getAccelerationX()[0], EPSILON);
+        assertEquals(0.0f, store.getAccelerationZ()[1], EPSILON);
+    }
+
+    @Test
+    public void testMatchesApplyGravityOddBlocks() {
+        assertMatchesApplyGravity(150);
+    }
+
+    @Test
+    public void testMatchesApplyGravityEvenBlocks() {
+        assertMatchesApplyGravity(256);
+    }
+
+    @Test
+    public void testMomentumConserved() {
+        addRandomPlanets(300);
+        directSum.compute(store, serial);
+        double momentumX = 0.0;
+        double magnitude = 0.0;
+        for (int i = 0; i < store.getSize(); i++) {
+            momentumX += store.getMasses()[i] * store.getAccelerationX()[i];
+            magnitude += Math.abs(store.getMasses()[i] * store.getAccelerationX()[i]);
+        }
+        assertEquals(0.0, momentumX / magnitude, EPSILON);
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        addRandomPlanets(500);
+        directSum.compute(store, serial);
+        float[] expectedX = Arrays.copyOf(store.getAccelerationX(), store.getSize());
+        float[] expectedZ = Arrays.copyOf(store.getAccelerationZ(), store.getSize());
+        directSum.compute(store, parallel);
+        for (int i = 0; i < store.getSize(); i++) {
+            assertEquals(expectedX[i], store.getAccelerationX()[i], 0.0f);
+            assertEquals(expectedZ[i], store.getAccelerationZ()[i], 0.0f);
+        }
+    }
+
+    @Test
+    public void testSmallStoreSplitAcrossThreads() {
+        RangeCountingExecutor counting = new RangeCountingExecutor(4);
+        addRandomPlanets(512);
+        directSum.compute(store, serial);
+        float[] expectedX = Arrays.copyOf(store.getAccelerationX(), store.getSize());
+        directSum.compute(store, counting);
+        counting.shutdown();
+        // NOTE: 512 planets make 8 blocks, so 8 diagonal tiles and 7 rounds of 4 tiles
+        assertEquals(8, counting.rangeCounts.size());
+        assertEquals(8, (int) counting.rangeCounts.get(0));
+        for (int round = 1; round < counting.rangeCounts.size(); round++) {
+            assertEquals(4, (int) counting.rangeCounts.get(round));
+        }
+        for (int i = 0; i < store.getSize(); i++) {
+            assertEquals(expectedX[i], store.getAccelerationX()[i], 0.0f);
+        }
+    }
+
+    // EFFECTS: adds count planets with random positions and radii to the store, computes their accelerations and
+    // checks them against Simulation.applyGravity
+    private void assertMatchesApplyGravity(int count) {
+        addRandomPlanets(count);
+        directSum.compute(store, parallel);
+        Simulation sim = new Simulation();
+        for (int i = 0; i < store.getSize(); i++) {
+            Planet target = store.getPlanet(i);
+            Planet probe = new Planet("probe", target.getPosition(), new Vector3(), target.getRadius());
+            for (int j = 0; j < store.getSize(); j++) {
+                if (j != i) {
+                    sim.applyGravity(probe, store.getPlanet(j), 1.0f);
+                }
+            }
+            Vector3 expected = probe.getVelocity();
+            float scale = Math.max(1.0f, expected.magnitude());
+            assertEquals(expected.getX(), store.getAccelerationX()[i], scale * EPSILON);
+            assertEquals(expected.getY(), store.getAccelerationY()[i], scale * EPSILON);
+            assertEquals(expected.getZ(), store.getAccelerationZ()[i], scale * EPSILON);
+        }
+    }
+
+    // EFFECTS: adds count planets with random positions and radii to the store
+    private void addRandomPlanets(int count) {
+        for (int i = 0; i < count; i++) {
+            Vector3 pos = new Vector3(rand.nextFloat() * 1000.0f, rand.nextFloat() * 1000.0f,
+                    rand.nextFloat() * 1000.0f);
+            store.add(new Planet("R" + i, pos, new Vector3(), 0.5f + rand.nextFloat() * 5.0f));
+        }
+    }
+}
@@ -235,4 +235,88 @@ public class TransformTest {
         m0 = Transform.multiply(m0, Transform.translation(new Vector3(4.0f, 5.0f, 6.0f)));
         assertEquals(new Vector3(1.0f + 4.0f, 2.0f + 5.0f, 3.0f + 6.0f), Transform.extractTranslation(m0));
     }
+
+    @Test
+    public void testGetComponentsIsCopy() {
+        m0 = Transform.translation(new Vector3(1.0f, 2.0f, 3.0f));
+        m0.getComponents()[3][0] = 9.0f;
+        assertEquals(new Vector3(1.0f, 2.0f, 3.0f), Transform.extractTranslation(m0));
+    }
+
+    @Test
+    public void testGetValues() {
+        m0 = Transform.transform(new Vector3(1f, 2f, 3f), new Vector3(30f, 60f, 90f), new Vector3(2f, 3f, 4f));
+        float[][] comps = m0.getComponents();
+        float[] values = m0.getValues();
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(comps[row][col], values[row * 4 + col], 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testSet() {
+        Transform m1 = Transform.rotationZ(90.0f);
+        assertEquals(m0, m0.set(m1));
+        assertEquals(Transform.multiply(m1, v1), Transform.multiply(m0, v1));
+    }
+
+    @Test
+    public void testSetTransformMatchesComposed() {
+        Vector3 trl = new Vector3(3f, -5f, 9f);
+        Vector3 rot = new Vector3(20f, -75f, 130f);
+        Vector3 scl = new Vector3(2f, 0.5f, 3f);
+        Transform composed = Transform.multiply(Transform.scale(scl), Transform.rotationX(rot.getX()));
+        composed = Transform.multiply(composed, Transform.rotationY(rot.getY()));
+        composed = Transform.multiply(composed, Transform.rotationZ(rot.getZ()));
+        composed = Transform.multiply(composed, Transform.translation(trl));
+
+        m0 = Transform.scale(new Vector3(7f, 7f, 7f));
+        assertEquals(m0, m0.setTransform(trl, rot, scl));
+        float[][] expected = composed.getComponents();
+        float[][] actual = m0.getComponents();
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(expected[row][col], actual[row][col], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyInto() {
+        Transform m1 = Transform.scale(new Vector3(5.0f, 5.0f, 5.0f));
+        Transform m2 = Transform.rotationZ(90.0f);
+        Transform dest = Transform.translation(new Vector3(8.0f, 8.0f, 8.0f));
+        Transform.multiplyInto(m1, m2, dest);
+        assertEquals(new Vector3(0.0f, 5.0f, 0.0f), Transform.multiply(dest, new Vector3(1.0f, 0.0f, 0.0f)));
+    }
+
+    @Test
+    public void testMultiplyIntoLeft() {
+        m0 = Transform.scale(new Vector3(5.0f, 5.0f, 5.0f));
+        Transform.multiplyInto(m0, Transform.translation(new Vector3(2.0f, 3.0f, 4.0f)), m0);
+        assertEquals(new Vector3(7.0f, 3.0f, 4.0f), Transform.multiply(m0, new Vector3(1.0f, 0.0f, 0.0f)));
+    }
+
+    @Test
+    public void testSetTranslation() {
+        m0 = Transform.rotationZ(45.0f);
+        assertEquals(m0, m0.setTranslation(3.0f, 4.0f, 5.0f));
+        assertEquals(Vector3.add(v1, new Vector3(3.0f, 4.0f, 5.0f)), Transform.multiply(m0, v1));
+    }
+
+    @Test
+    public void testSetRotationsMatchStatic() {
+        float[] degrees = { 0.0f, 30.0f, -75.0f, 200.0f };
+        for (float degree : degrees) {
+            m0 = Transform.translation(new Vector3(9.0f, 9.0f, 9.0f));
+            assertEquals(Transform.multiply(Transform.rotationX(degree), v1),
+                    Transform.multiply(m0.setRotationX(degree), v1));
+            assertEquals(Transform.multiply(Transform.rotationY(degree), v1),
+                    Transform.multiply(m0.setRotationY(degree), v1));
+            assertEquals(Transform.multiply(Transform.rotationZ(degree), v1),
+                    Transform.multiply(m0.setRotationZ(degree), v1));
+        }
+    }
 }
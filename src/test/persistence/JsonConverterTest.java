@@ -1,5 +1,6 @@
 package persistence;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -208,6 +209,46 @@ public class JsonConverterTest {
 
     }
 
+    @Test
+    public void testSimulationIntegratorEncodeDecode() {
+        sim.setIntegrator(new LeapfrogIntegrator());
+        Simulation testSim = JsonConverter.jsonObjectToSimulation(JsonConverter.simulationToJsonObject(sim));
+        assertEquals(LeapfrogIntegrator.NAME, testSim.getIntegrator().getName());
+
+        sim.setIntegrator(new VelocityVerletIntegrator());
+        testSim = JsonConverter.jsonObjectToSimulation(JsonConverter.simulationToJsonObject(sim));
+        assertEquals(VelocityVerletIntegrator.NAME, testSim.getIntegrator().getName());
+    }
+
+    @Test
+    public void testSimulationWithoutIntegratorDecode() {
+        JSONObject jsonSim = JsonConverter.simulationToJsonObject(sim);
+        jsonSim.remove(JsonConverter.SIM_KEY_INTEGRATOR);
+        Simulation testSim = JsonConverter.jsonObjectToSimulation(jsonSim);
+        assertEquals(SemiImplicitEulerIntegrator.NAME, testSim.getIntegrator().getName());
+    }
+
+    @Test
+    public void testSimulationWithPlanetRenderModeDecode() {
+        JSONObject jsonSim = JsonConverter.simulationToJsonObject(sim);
+        assertFalse(jsonSim.has("PlanetRenderMode"));
+        jsonSim.put("PlanetRenderMode", "RayCast");
+        Simulation testSim = JsonConverter.jsonObjectToSimulation(jsonSim);
+        assertEquals(sim.getPlanets().size(), testSim.getPlanets().size());
+    }
+
+    @Test
+    public void testSimulationBadIntegratorThrow() {
+        JSONObject jsonSim = JsonConverter.simulationToJsonObject(sim);
+        jsonSim.put(JsonConverter.SIM_KEY_INTEGRATOR, "RungeKutta");
+        try {
+            JsonConverter.jsonObjectToSimulation(jsonSim);
+        } catch (JSONException e) {
+            return;
+        }
+        fail("expected JSONException");
+    }
+
     public void checkCollisionListEquals(List<Collision> cl1, List<Collision> cl2) {
         // NOTE:
         // to figure out what the hell im doing, please reference